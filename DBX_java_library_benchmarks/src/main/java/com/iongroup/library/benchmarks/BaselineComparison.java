@@ -0,0 +1,84 @@
+package com.iongroup.library.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file with the checked-in baseline.
+ *
+ * Prints throughput and allocation per operation of every benchmark found in
+ * both files and exits with status 1 when a throughput dropped by more than
+ * the tolerance (default 10%).
+ *
+ * Usage:
+ * <pre>
+ * java -cp target/benchmarks.jar com.iongroup.library.benchmarks.BaselineComparison \
+ *     baseline/results.json results.json [tolerancePercent]
+ * </pre>
+ */
+public final class BaselineComparison {
+
+    private static final ObjectMapper M = new ObjectMapper();
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <results.json> [tolerancePercent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-52s %14s %14s %8s %14s %14s%n",
+                "Benchmark", "base ops/s", "ops/s", "change", "base B/op", "B/op");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode base = baseline.get(e.getKey());
+            if (base == null) continue;
+
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double score = e.getValue().path("primaryMetric").path("score").asDouble();
+            double change = baseScore > 0 ? score / baseScore - 1 : 0;
+            boolean regressed = change < -tolerance;
+            if (regressed) regressions++;
+
+            System.out.printf("%-52s %14.4f %14.4f %+7.1f%% %14.0f %14.0f%s%n",
+                    e.getKey(), baseScore, score, change * 100,
+                    allocation(base), allocation(e.getValue()), regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower than the baseline by more than "
+                    + Math.round(tolerance * 100) + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Results by benchmark method and parameters, e.g. {@code convert nodes=1000}.
+     */
+    private static Map<String, JsonNode> read(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : M.readTree(file)) {
+            String name = result.path("benchmark").asText();
+            StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.') + 1));
+            result.path("params").fields().forEachRemaining(p ->
+                    key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double allocation(JsonNode result) {
+        return result.path("secondaryMetrics").path(ALLOC_RATE_NORM).path("score").asDouble(Double.NaN);
+    }
+}
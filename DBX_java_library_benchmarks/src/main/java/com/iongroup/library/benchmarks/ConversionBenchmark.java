@@ -0,0 +1,106 @@
+package com.iongroup.library.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iongroup.library.flow.ConverterTemplate;
+import com.iongroup.library.flow.UiJsonToBpmnConverter;
+import com.iongroup.library.flow.UiToBpmnModelCompiler;
+import com.iongroup.library.flow.UiToFlowableConverterDBX;
+import org.flowable.bpmn.model.BpmnModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each conversion stage and of the whole pipeline on generated
+ * graphs ({@link UiGraphGenerator}).
+ *
+ * Stages:
+ * <ul>
+ *   <li>{@code parseUiJson}: UI JSON text to a Jackson tree</li>
+ *   <li>{@code uiToEditorJson}: UI tree to Flowable editor JSON ({@link UiToFlowableConverterDBX})</li>
+ *   <li>{@code compileModel}: UI tree straight to a BpmnModel ({@link UiToBpmnModelCompiler})</li>
+ * </ul>
+ * End to end: {@code convert} (UI JSON text to XML bytes, as the backend
+ * calls it) and {@code convertStreaming} (stream to stream). The editor JSON
+ * pipeline is measured by {@link EditorPipelineBenchmark}.
+ *
+ * Run with the gc profiler for allocation rates, see README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConversionBenchmark {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    /** Fixed so that every run measures the same graphs. */
+    private static final long SEED = 20240601L;
+
+    @Param({"10", "1000", "10000", "50000"})
+    public int nodes;
+
+    private String uiJson;
+    private byte[] uiJsonBytes;
+    private JsonNode uiTree;
+    private ConverterTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uiJson = UiGraphGenerator.generateJson(nodes, SEED);
+        uiJsonBytes = uiJson.getBytes(StandardCharsets.UTF_8);
+        uiTree = M.readTree(uiJson);
+        template = ConverterTemplate.defaults();
+    }
+
+    // ------------------------------------------------------------------------
+    // Stages
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    public JsonNode parseUiJson() throws Exception {
+        return M.readTree(uiJson);
+    }
+
+    @Benchmark
+    public ObjectNode uiToEditorJson() {
+        return UiToFlowableConverterDBX.convert(uiTree, template);
+    }
+
+    @Benchmark
+    public BpmnModel compileModel() {
+        return UiToBpmnModelCompiler.compile(uiTree, template);
+    }
+
+    // ------------------------------------------------------------------------
+    // End to end
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    public byte[] convert() throws Exception {
+        return UiJsonToBpmnConverter.convert(uiJson, null).bpmnXml;
+    }
+
+    @Benchmark
+    public void convertStreaming() throws Exception {
+        UiJsonToBpmnConverter.convert(new ByteArrayInputStream(uiJsonBytes), null, OutputStream.nullOutputStream());
+    }
+}
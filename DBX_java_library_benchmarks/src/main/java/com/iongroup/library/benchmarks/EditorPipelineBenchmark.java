@@ -0,0 +1,72 @@
+package com.iongroup.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iongroup.library.flow.ConverterTemplate;
+import com.iongroup.library.flow.JsonToBpmn2ConverterDBX;
+import com.iongroup.library.flow.UiToFlowableConverterDBX;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The editor JSON pipeline that {@link com.iongroup.library.flow.UiToBpmnModelCompiler}
+ * replaces, still used for graphs the compiler does not cover.
+ *
+ * <ul>
+ *   <li>{@code editorJsonToBpmnXml}: editor JSON to BPMN XML ({@link JsonToBpmn2ConverterDBX})</li>
+ *   <li>{@code convertViaEditorJson}: UI JSON text to XML bytes through the editor JSON</li>
+ * </ul>
+ *
+ * Stops at 10000 nodes: Flowable's editor JSON and DI conversions look
+ * elements up linearly, so a 50000 node graph takes more than the 10 minute
+ * iteration timeout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EditorPipelineBenchmark {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    /** Same graphs as {@link ConversionBenchmark}. */
+    private static final long SEED = 20240601L;
+
+    @Param({"10", "1000", "10000"})
+    public int nodes;
+
+    private String uiJson;
+    private ObjectNode editorJson;
+    private ConverterTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uiJson = UiGraphGenerator.generateJson(nodes, SEED);
+        template = ConverterTemplate.defaults();
+        editorJson = UiToFlowableConverterDBX.convert(M.readTree(uiJson), template);
+    }
+
+    @Benchmark
+    public byte[] editorJsonToBpmnXml() {
+        return JsonToBpmn2ConverterDBX.convertJsonToBpmn(editorJson);
+    }
+
+    @Benchmark
+    public byte[] convertViaEditorJson() throws Exception {
+        return JsonToBpmn2ConverterDBX.convertJsonToBpmn(UiToFlowableConverterDBX.convert(M.readTree(uiJson), template));
+    }
+}
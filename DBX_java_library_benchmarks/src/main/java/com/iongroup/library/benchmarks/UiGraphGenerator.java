@@ -0,0 +1,203 @@
+package com.iongroup.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of UI graphs shaped like those of the flow builder.
+ *
+ * A graph is a start event, a chain of blocks and an end event. A block is a
+ * service task, a user task or a parallel split into two to four branches of
+ * tasks followed by a join. Service tasks carry a registered operation and
+ * customFields, user tasks selected fields. Nodes are laid out left to right,
+ * branches stacked vertically.
+ *
+ * The same size and seed always give the same graph.
+ */
+public final class UiGraphGenerator {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    private static final String[] SERVICE_OPERATIONS = {
+            "GetCustomerProfile", "CheckEligibility", "GetLoanPolicy", "CreateLoanOffer",
+            "GetAvailableCreditCards", "CreateCardOffer", "IssueCreditCard", "NotifyCustomer"
+    };
+    private static final String[] USER_OPERATIONS = {"EnterCustomerDetails", "CustomerApproval"};
+    private static final String[] FIELDS = {"PAN", "ADDRESS", "INCOME", "EMPLOYER", "PHONE", "EMAIL"};
+
+    // share of blocks that are parallel splits, and of tasks that are user tasks
+    private static final double PARALLEL_SHARE = 0.15;
+    private static final double USER_SHARE = 0.3;
+
+    private static final int COLUMN_WIDTH = 220;
+    private static final int ROW_HEIGHT = 140;
+
+    private final SplittableRandom random;
+    private final ArrayNode nodes = M.createArrayNode();
+    private final ArrayNode edges = M.createArrayNode();
+    private int nextNode;
+    private int nextEdge;
+    private int column;
+
+    private UiGraphGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * A graph of exactly {@code nodeCount} nodes (at least 2).
+     */
+    public static ObjectNode generate(int nodeCount, long seed) {
+        if (nodeCount < 2) {
+            throw new IllegalArgumentException("A graph needs a start and an end: " + nodeCount);
+        }
+        return new UiGraphGenerator(seed).build(nodeCount);
+    }
+
+    public static String generateJson(int nodeCount, long seed) {
+        try {
+            return M.writeValueAsString(generate(nodeCount, seed));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize generated graph", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private ObjectNode build(int nodeCount) {
+        String last = event("start", 0);
+        int remaining = nodeCount - 2;
+
+        while (remaining > 0) {
+            column++;
+            if (remaining >= 4 && random.nextDouble() < PARALLEL_SHARE) {
+                int before = nextNode;
+                last = parallelBlock(last, remaining);
+                remaining -= nextNode - before;
+            } else {
+                String task = task(0);
+                edge(last, task);
+                last = task;
+                remaining--;
+            }
+        }
+
+        column++;
+        edge(last, event("end", 0));
+
+        ObjectNode graph = M.createObjectNode();
+        graph.set("nodes", nodes);
+        graph.set("edges", edges);
+        return graph;
+    }
+
+    /**
+     * Split, branches and join after {@code from}, using at most {@code budget} nodes.
+     *
+     * @return the join
+     */
+    private String parallelBlock(String from, int budget) {
+        int branches = Math.min(2 + random.nextInt(3), budget - 2);
+        int tasksLeft = budget - 2 - branches;
+        String split = gateway();
+        edge(from, split);
+
+        int splitColumn = column;
+        int maxLength = 1;
+        List<String> ends = new ArrayList<>(branches);
+        for (int b = 0; b < branches; b++) {
+            int length = 1 + Math.min(random.nextInt(3), tasksLeft);
+            tasksLeft -= length - 1;
+            maxLength = Math.max(maxLength, length);
+
+            column = splitColumn;
+            String previous = split;
+            for (int i = 0; i < length; i++) {
+                column++;
+                String task = task(b - branches / 2);
+                edge(previous, task);
+                previous = task;
+            }
+            ends.add(previous);
+        }
+
+        column = splitColumn + maxLength + 1;
+        String join = gateway();
+        ends.forEach(end -> edge(end, join));
+        return join;
+    }
+
+    private String event(String type, int row) {
+        String id = "node_" + nextNode++;
+        ObjectNode data = M.createObjectNode();
+        data.put("nodeType", type);
+        data.put("label", type.equals("start") ? "Start" : "End");
+        addNode(id, data, row, 100, 100);
+        return id;
+    }
+
+    private String gateway() {
+        String id = "node_" + nextNode++;
+        ObjectNode data = M.createObjectNode();
+        data.put("nodeType", "parallel");
+        data.put("label", "Parallel");
+        addNode(id, data, 0, 50, 50);
+        return id;
+    }
+
+    private String task(int row) {
+        String id = "node_" + nextNode++;
+        ObjectNode data = M.createObjectNode();
+        if (random.nextDouble() < USER_SHARE) {
+            String operation = USER_OPERATIONS[random.nextInt(USER_OPERATIONS.length)];
+            data.put("nodeType", "user");
+            data.put("label", operation + " " + id);
+            data.put("delegationId", operation);
+            data.put("delegationName", operation);
+            data.put("delegationType", "USER_TASK");
+            ArrayNode selected = data.putArray("selectedFields");
+            int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                selected.add(FIELDS[random.nextInt(FIELDS.length)]);
+            }
+        } else {
+            String operation = SERVICE_OPERATIONS[random.nextInt(SERVICE_OPERATIONS.length)];
+            data.put("nodeType", "service");
+            data.put("label", operation + " " + id);
+            data.put("delegationId", operation);
+            data.put("delegationName", operation);
+            data.put("delegationType", "SERVICE");
+            ObjectNode custom = data.putObject("customFields");
+            custom.put("AMOUNT", String.valueOf(1000 * (1 + random.nextInt(100))));
+            if (random.nextBoolean()) {
+                custom.put("currency", "EUR");
+                custom.put("note", "Generated for " + id);
+            }
+        }
+        addNode(id, data, row, 160, 80);
+        return id;
+    }
+
+    private void addNode(String id, ObjectNode data, int row, int width, int height) {
+        ObjectNode node = nodes.addObject();
+        node.put("id", id);
+        node.put("type", "custom");
+        node.putObject("position")
+                .put("x", column * COLUMN_WIDTH)
+                .put("y", row * ROW_HEIGHT);
+        node.set("data", data);
+        node.put("width", width);
+        node.put("height", height);
+    }
+
+    private void edge(String source, String target) {
+        ObjectNode edge = edges.addObject();
+        edge.put("id", "edge_" + nextEdge++);
+        edge.put("source", source);
+        edge.put("target", target);
+    }
+}
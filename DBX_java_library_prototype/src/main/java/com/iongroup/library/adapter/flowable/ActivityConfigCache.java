@@ -0,0 +1,165 @@
+package com.iongroup.library.adapter.flowable;
+
+import org.flowable.bpmn.model.ExtensionElement;
+import org.flowable.bpmn.model.FlowElement;
+import org.flowable.engine.delegate.DelegateExecution;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Library-wide cache of typed, parsed BPMN node configuration.
+ *
+ * Extension element text (e.g. {@code requestedAmountLimit}, {@code requiredFields})
+ * is parsed once per parsed activity instead of once per execution. Entries
+ * are weakly keyed by the activity's {@link FlowElement}, so they live exactly
+ * as long as the engine's process definition cache keeps the definition.
+ * Lookups of cached values take no lock.
+ *
+ * Usage:
+ * <pre>
+ * static final ActivityConfigCache.Key&lt;BigDecimal&gt; LIMIT =
+ *         ActivityConfigCache.key("requestedAmountLimit", BigDecimal::new);
+ * BigDecimal limit = ActivityConfigCache.get(execution, LIMIT);
+ * </pre>
+ */
+public final class ActivityConfigCache {
+
+    private static final Object ABSENT = new Object();
+
+    private static final Map<Object, Map<Key<?>, Object>> CACHE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<FlowElement> CLEARED = new ReferenceQueue<>();
+
+    private ActivityConfigCache() {
+    }
+
+    /**
+     * Typed configuration entry read from one extension element.
+     * Keys are compared by identity; declare them as constants.
+     */
+    public static final class Key<T> {
+        private final String element;
+        private final Function<String, T> parser;
+
+        private Key(String element, Function<String, T> parser) {
+            this.element = element;
+            this.parser = parser;
+        }
+
+        public String getElement() {
+            return element;
+        }
+    }
+
+    public static <T> Key<T> key(String element, Function<String, T> parser) {
+        return new Key<>(Objects.requireNonNull(element), Objects.requireNonNull(parser));
+    }
+
+    /**
+     * Parsed value for the current activity, or {@code null} when the
+     * extension element is not configured. Parser failures are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(DelegateExecution execution, Key<T> key) {
+        FlowElement element = execution.getCurrentFlowElement();
+        if (element == null) {
+            return null;
+        }
+
+        Map<Key<?>, Object> values = CACHE.get(new Lookup(element));
+        if (values == null) {
+            values = add(element);
+        }
+        Object value = values.get(key);
+        if (value == null) {
+            value = parse(element, key);
+            values.putIfAbsent(key, value);
+        }
+        return value == ABSENT ? null : (T) value;
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static Map<Key<?>, Object> add(FlowElement element) {
+        // drop the entries of elements collected since the last miss
+        for (Reference<?> ref; (ref = CLEARED.poll()) != null; ) {
+            CACHE.remove(ref);
+        }
+        Map<Key<?>, Object> values = new ConcurrentHashMap<>();
+        Map<Key<?>, Object> raced = CACHE.putIfAbsent(new ElementRef(element), values);
+        return raced != null ? raced : values;
+    }
+
+    private static Object parse(FlowElement element, Key<?> key) {
+        String text = extensionText(element, key.element);
+        if (text == null) {
+            return ABSENT;
+        }
+        Object parsed = key.parser.apply(text);
+        return parsed == null ? ABSENT : parsed;
+    }
+
+    private static String extensionText(FlowElement element, String name) {
+        if (element == null) return null;
+        Map<String, List<ExtensionElement>> extensionElements = element.getExtensionElements();
+        if (extensionElements == null) return null;
+        List<ExtensionElement> elements = extensionElements.get(name);
+        if (elements == null || elements.isEmpty()) return null;
+        return elements.get(0).getElementText();
+    }
+
+    /**
+     * Weak key of a cached element. Once cleared it is only equal to itself,
+     * so it can still be removed.
+     */
+    private static final class ElementRef extends WeakReference<FlowElement> {
+        private final int hash;
+
+        ElementRef(FlowElement element) {
+            super(element, CLEARED);
+            this.hash = System.identityHashCode(element);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            FlowElement element = get();
+            return element != null && o instanceof ElementRef && ((ElementRef) o).get() == element;
+        }
+    }
+
+    /**
+     * Key for reading the cache; ConcurrentHashMap compares the key passed
+     * in with the stored ones, so it never has to be a weak reference.
+     */
+    private static final class Lookup {
+        private final FlowElement element;
+
+        Lookup(FlowElement element) {
+            this.element = element;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(element);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ElementRef && ((ElementRef) o).get() == element;
+        }
+    }
+}
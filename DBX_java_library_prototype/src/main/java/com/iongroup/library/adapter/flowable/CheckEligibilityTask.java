@@ -2,16 +2,14 @@ package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.EligibilityResult;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.EligibilityService;
 import com.iongroup.library.service.impl.EligibilityServiceImpl;
 import org.flowable.engine.delegate.DelegateExecution;
 import org.flowable.engine.delegate.JavaDelegate;
-import org.flowable.bpmn.model.ExtensionElement;
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Delegate for "Check Eligibility / Risk Assessment" step (optional but common).
@@ -30,30 +28,15 @@ import java.util.Map;
     inputs = {"customerProfile"},
     outputs = {"eligibilityResult"},
     selectableFields = {},
-    customizableFields = {"AMOUNT"}
+    customizableFields = {"AMOUNT"},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class CheckEligibilityTask implements JavaDelegate {
 
     private EligibilityService eligibilityService;
     
-    private BigDecimal extractRequestedAmountLimit(DelegateExecution execution) {
-
-        Map<String, List<ExtensionElement>> extensionElements =
-                execution.getCurrentFlowElement().getExtensionElements();
-
-        if (extensionElements == null) {
-            return null;
-        }
-
-        List<ExtensionElement> elements =
-                extensionElements.get("requestedAmountLimit");
-
-        if (elements == null || elements.isEmpty()) {
-            return null;
-        }
-
-        return new BigDecimal(elements.get(0).getElementText());
-    }
+    private static final ActivityConfigCache.Key<BigDecimal> REQUESTED_AMOUNT_LIMIT =
+            ActivityConfigCache.key("requestedAmountLimit", BigDecimal::new);
 
     public CheckEligibilityTask() {
         // In a real application, inject via Spring
@@ -75,7 +58,7 @@ public class CheckEligibilityTask implements JavaDelegate {
             }
 
             // Check eligibility
-            BigDecimal requestedLimit = extractRequestedAmountLimit(execution);
+            BigDecimal requestedLimit = ActivityConfigCache.get(execution, REQUESTED_AMOUNT_LIMIT);
 
             if (requestedLimit == null) {
                 throw new RuntimeException(
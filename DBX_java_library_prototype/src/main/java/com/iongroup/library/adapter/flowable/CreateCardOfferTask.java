@@ -3,6 +3,7 @@ package com.iongroup.library.adapter.flowable;
 import com.iongroup.library.domain.CardPricingPolicy;
 import com.iongroup.library.domain.CreditCardOffer;
 import com.iongroup.library.domain.CustomerProfile;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.CardOfferService;
@@ -24,7 +25,8 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"customerProfile", "availableCards"},
     outputs = {"cardOffer"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class CreateCardOfferTask implements JavaDelegate {
 
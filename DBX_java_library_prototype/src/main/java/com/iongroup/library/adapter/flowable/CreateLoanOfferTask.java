@@ -3,6 +3,7 @@ package com.iongroup.library.adapter.flowable;
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.LoanOffers;
 import com.iongroup.library.domain.LoanPricingPolicy;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.LoanOfferService;
@@ -27,7 +28,8 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"eligibilityResult", "loanPolicy"},
     outputs = {"loanOffer"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class CreateLoanOfferTask implements JavaDelegate {
 
@@ -1,6 +1,7 @@
 package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.domain.LoanOffers;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.ApprovalService;
@@ -26,7 +27,8 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"offer", "customerId"},
     outputs = {"approvalStatus", "approvalTimestamp"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class CustomerApprovalTask implements JavaDelegate {
 
@@ -2,6 +2,7 @@ package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.LoanOffers;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 
@@ -25,7 +26,8 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"applicationId", "approvalStatus"},
     outputs = {"status", "result"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class EndLoanApplicationTask implements JavaDelegate {
 
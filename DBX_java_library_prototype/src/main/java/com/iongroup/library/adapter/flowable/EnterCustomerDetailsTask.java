@@ -1,17 +1,19 @@
 package com.iongroup.library.adapter.flowable;
 
+import com.iongroup.library.domain.CustomerDetailField;
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.RequiredCustomerDetails;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.CustomerDetailsCollectionService;
 import com.iongroup.library.service.impl.CustomerCollectionServiceImpl;
-import org.flowable.bpmn.model.ExtensionElement;
 import org.flowable.engine.delegate.DelegateExecution;
 import org.flowable.engine.delegate.JavaDelegate;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Collects customer details dynamically based on BPMN configuration.
@@ -33,10 +35,14 @@ import java.util.stream.Collectors;
         "PAN",
         "AADHAR",
         "MONTHLY_INCOME"},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class EnterCustomerDetailsTask implements JavaDelegate {
 
+    private static final ActivityConfigCache.Key<Set<CustomerDetailField>> REQUIRED_FIELDS =
+            ActivityConfigCache.key("requiredFields", EnterCustomerDetailsTask::parseRequiredFields);
+
     private final CustomerDetailsCollectionService collectionService;
 
     public EnterCustomerDetailsTask() {
@@ -69,30 +75,14 @@ public class EnterCustomerDetailsTask implements JavaDelegate {
             System.out.println("[EnterCustomerDetailsTask] Created new CustomerProfile");
         }
 
-        // 2. Read BPMN extension element
-        String requiredFieldsRaw = extractRequiredFields(execution);
+        // 2. Read parsed BPMN configuration (parsed once per process definition)
+        Set<CustomerDetailField> fields = ActivityConfigCache.get(execution, REQUIRED_FIELDS);
 
+        // 3. Mark required fields
         RequiredCustomerDetails required = new RequiredCustomerDetails();
-
-        // 3. Parse required fields
-        if (requiredFieldsRaw != null && !requiredFieldsRaw.isBlank()) {
-            Set<String> fields = Arrays.stream(requiredFieldsRaw.split(","))
-                    .map(String::trim)
-                    .collect(Collectors.toSet());
-
-            for (String field : fields) {
-                switch (field) {
-                    case "CUSTOMER_NAME" -> required.setCustomerName(true);
-                    case "CONTACT_NUMBER" -> required.setContactNumber(true);
-                    case "ADDRESS" -> required.setCustomerAddress(true);
-                    case "PAN" -> required.setPanNumber(true);
-                    case "AADHAR" -> required.setAadharNumber(true);
-                    case "MONTHLY_INCOME" -> required.setMonthlyIncome(true);
-                    default ->
-                            System.out.println(
-                                    "[EnterCustomerDetailsTask] Unknown required field: " + field
-                            );
-                }
+        if (fields != null) {
+            for (CustomerDetailField field : fields) {
+                field.applyTo(required);
             }
         }
 
@@ -107,23 +97,24 @@ public class EnterCustomerDetailsTask implements JavaDelegate {
 
 
     /**
-     * Safely extracts the requiredFields extension element from BPMN.
+     * Parses the requiredFields extension element into an immutable set.
      */
-    private String extractRequiredFields(DelegateExecution execution) {
-
-        Map<String, List<ExtensionElement>> extensionElements =
-                execution.getCurrentFlowElement().getExtensionElements();
-
-        if (extensionElements == null) {
+    private static Set<CustomerDetailField> parseRequiredFields(String raw) {
+        if (raw.isBlank()) {
             return null;
         }
 
-        List<ExtensionElement> elements = extensionElements.get("requiredFields");
-
-        if (elements == null || elements.isEmpty()) {
-            return null;
+        EnumSet<CustomerDetailField> fields = EnumSet.noneOf(CustomerDetailField.class);
+        for (String token : raw.split(",")) {
+            String field = token.trim();
+            try {
+                fields.add(CustomerDetailField.valueOf(field));
+            } catch (IllegalArgumentException e) {
+                System.out.println(
+                        "[EnterCustomerDetailsTask] Unknown required field: " + field
+                );
+            }
         }
-
-        return elements.get(0).getElementText();
+        return Collections.unmodifiableSet(fields);
     }
 }
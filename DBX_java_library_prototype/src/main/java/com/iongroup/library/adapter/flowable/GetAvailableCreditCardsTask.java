@@ -3,6 +3,7 @@ package com.iongroup.library.adapter.flowable;
 import com.iongroup.library.domain.CreditCardOffer;
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.EligibilityResult;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.CardOfferService;
@@ -27,7 +28,8 @@ import java.util.List;
     inputs = {"customerSegment"},
     outputs = {"availableCards"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class GetAvailableCreditCardsTask implements JavaDelegate {
 
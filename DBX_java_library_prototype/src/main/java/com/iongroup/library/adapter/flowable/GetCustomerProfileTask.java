@@ -1,16 +1,18 @@
 package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.domain.CustomerProfile;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.CustomerProfileService;
 import com.iongroup.library.service.impl.CustomerProfileServiceImpl;
 import org.flowable.engine.delegate.DelegateExecution;
-import org.flowable.engine.delegate.JavaDelegate;
+import org.flowable.engine.delegate.FlowableFutureJavaDelegate;
 
 /**
  * Delegate for "Get Customer Profile" step.
  * Fetches customer details from database or CRM.
+ * The CRM call runs on {@link OperationAsyncExecutor}, not on the engine thread.
  * 
  * Input: customerId
  * Output: customerProfile
@@ -25,9 +27,10 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"customerId", "notificationType", "content"},
     outputs = {"notificationStatus"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
-public class GetCustomerProfileTask implements JavaDelegate {
+public class GetCustomerProfileTask implements FlowableFutureJavaDelegate<String, CustomerProfile> {
 
     private CustomerProfileService customerProfileService;
 
@@ -40,35 +43,52 @@ public class GetCustomerProfileTask implements JavaDelegate {
         this.customerProfileService = customerProfileService;
     }
 
+    /**
+     * Runs on the engine thread: read inputs from process variables.
+     */
     @Override
-    public void execute(DelegateExecution execution) {
-        try {
-            // Get customerId from process variables
-            String customerId = (String) execution.getVariable("customerId");
-            
-            if (customerId == null || customerId.isBlank()) {
-                throw new RuntimeException("customerId is required to fetch customer profile");
-            }
+    public String prepareExecutionData(DelegateExecution execution) {
+        // Get customerId from process variables
+        String customerId = (String) execution.getVariable("customerId");
 
+        if (customerId == null || customerId.isBlank()) {
+            throw new RuntimeException("customerId is required to fetch customer profile");
+        }
+        return customerId;
+    }
+
+    /**
+     * Runs on the operation executor: the (potentially slow) CRM call.
+     */
+    @Override
+    public CustomerProfile execute(String customerId) {
+        try {
             // Fetch customer profile
             CustomerProfile customerProfile = customerProfileService.getCustomerProfile(customerId);
-            
+
             if (customerProfile == null) {
                 throw new RuntimeException("Customer profile not found for customerId: " + customerId);
             }
-
-            // Store customer profile for downstream tasks
-            execution.setVariable("customerProfile", customerProfile);
-            
-            System.out.println("[GetCustomerProfileTask] Customer profile retrieved");
-            System.out.println("  - Customer ID: " + customerProfile.getCustomerId());
-            System.out.println("  - Customer Name: " + customerProfile.getCustomerName());
-            System.out.println("  - Monthly Income: " + customerProfile.getMonthlyIncome());
-            System.out.println("  - Account Balance: " + customerProfile.getAccountBalance());
+            return customerProfile;
 
         } catch (Exception e) {
             System.err.println("[GetCustomerProfileTask] Error: " + e.getMessage());
             throw new RuntimeException("Failed to get customer profile: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Runs on the engine thread: publish outputs.
+     */
+    @Override
+    public void afterExecution(DelegateExecution execution, CustomerProfile customerProfile) {
+        // Store customer profile for downstream tasks
+        execution.setVariable("customerProfile", customerProfile);
+
+        System.out.println("[GetCustomerProfileTask] Customer profile retrieved");
+        System.out.println("  - Customer ID: " + customerProfile.getCustomerId());
+        System.out.println("  - Customer Name: " + customerProfile.getCustomerName());
+        System.out.println("  - Monthly Income: " + customerProfile.getMonthlyIncome());
+        System.out.println("  - Account Balance: " + customerProfile.getAccountBalance());
+    }
 }
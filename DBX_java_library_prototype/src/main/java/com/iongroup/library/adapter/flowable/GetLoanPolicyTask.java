@@ -2,6 +2,7 @@ package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.LoanPricingPolicy;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.LoanPolicyService;
@@ -26,7 +27,8 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"loanType"},
     outputs = {"loanPolicy"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class GetLoanPolicyTask implements JavaDelegate {
 
@@ -3,6 +3,7 @@ package com.iongroup.library.adapter.flowable;
 import com.iongroup.library.domain.Card;
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.EligibilityResult;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.CardIssuanceService;
@@ -24,7 +25,8 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"customerId", "cardType"},
     outputs = {"cardNumber", "issueStatus"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class IssueCreditCardTask implements JavaDelegate {
 
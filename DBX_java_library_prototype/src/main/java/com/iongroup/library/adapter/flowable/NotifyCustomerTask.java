@@ -2,16 +2,18 @@ package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.domain.CustomerProfile;
 import com.iongroup.library.domain.LoanOffers;
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 import com.iongroup.library.service.NotificationService;
 import com.iongroup.library.service.impl.NotificationServiceImpl;
 import org.flowable.engine.delegate.DelegateExecution;
-import org.flowable.engine.delegate.JavaDelegate;
+import org.flowable.engine.delegate.FlowableFutureJavaDelegate;
 
 /**
  * Delegate for "Notify Customer" step.
  * Sends email/SMS notifications about loan offer or approval status.
+ * The gateway call runs on {@link OperationAsyncExecutor}, not on the engine thread.
  * 
  * Inputs: customerProfile, loanOffer, approvalStatus (if available)
  * Output: notificationStatus (true/false)
@@ -26,9 +28,11 @@ import org.flowable.engine.delegate.JavaDelegate;
     inputs = {"customerId", "notificationType", "content"},
     outputs = {"notificationStatus"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
-public class NotifyCustomerTask implements JavaDelegate {
+public class NotifyCustomerTask
+        implements FlowableFutureJavaDelegate<NotifyCustomerTask.Notification, NotifyCustomerTask.Notification> {
 
     private NotificationService notificationService;
 
@@ -41,56 +45,90 @@ public class NotifyCustomerTask implements JavaDelegate {
         this.notificationService = notificationService;
     }
 
+    /**
+     * Runs on the engine thread: read inputs from process variables.
+     */
     @Override
-    public void execute(DelegateExecution execution) {
-        try {
-            // Get customer profile and loan offer from process variables
-            CustomerProfile customerProfile = (CustomerProfile) execution.getVariable("customerProfile");
-            LoanOffers loanOffer = (LoanOffers) execution.getVariable("loanOffer");
-            
-            if (customerProfile == null) {
-                throw new RuntimeException("customerProfile is required for notification");
-            }
-            
-            if (loanOffer == null) {
-                throw new RuntimeException("loanOffer is required for notification");
-            }
+    public Notification prepareExecutionData(DelegateExecution execution) {
+        // Get customer profile and loan offer from process variables
+        CustomerProfile customerProfile = (CustomerProfile) execution.getVariable("customerProfile");
+        LoanOffers loanOffer = (LoanOffers) execution.getVariable("loanOffer");
 
-            boolean notificationStatus = false;
+        if (customerProfile == null) {
+            throw new RuntimeException("customerProfile is required for notification");
+        }
+
+        if (loanOffer == null) {
+            throw new RuntimeException("loanOffer is required for notification");
+        }
 
-            // Check if approval status is available
-            Boolean approvalStatus = (Boolean) execution.getVariable("approvalStatus");
-            
-            if (approvalStatus != null) {
+        // Check if approval status is available
+        Boolean approvalStatus = (Boolean) execution.getVariable("approvalStatus");
+
+        return new Notification(customerProfile, loanOffer, approvalStatus);
+    }
+
+    /**
+     * Runs on the operation executor: the call to the notification gateway.
+     */
+    @Override
+    public Notification execute(Notification notification) {
+        try {
+            if (notification.approvalStatus != null) {
                 // Send approval status notification
-                String message = approvalStatus ? 
+                String message = notification.approvalStatus ?
                     "Congratulations! Your loan offer has been approved." :
                     "We regret to inform that your loan offer has been rejected.";
-                
-                notificationStatus = notificationService.notifyApprovalStatus(
-                    customerProfile,
-                    loanOffer,
-                    approvalStatus,
+
+                notification.sent = notificationService.notifyApprovalStatus(
+                    notification.customerProfile,
+                    notification.loanOffer,
+                    notification.approvalStatus,
                     message
                 );
             } else {
                 // Send loan offer notification
-                notificationStatus = notificationService.notifyLoanOffer(customerProfile, loanOffer);
+                notification.sent = notificationService.notifyLoanOffer(
+                    notification.customerProfile, notification.loanOffer);
             }
-
-            // Store notification status for downstream decisions
-            execution.setVariable("notificationStatus", notificationStatus);
-            
-            System.out.println("[NotifyCustomerTask] Customer notification processed");
-            System.out.println("  - Customer ID: " + customerProfile.getCustomerId());
-            System.out.println("  - Customer Name: " + customerProfile.getCustomerName());
-            System.out.println("  - Contact Number: " + customerProfile.getContactNumber());
-            System.out.println("  - Offer ID: " + loanOffer.getOfferId());
-            System.out.println("  - Notification Status: " + (notificationStatus ? "SENT" : "FAILED"));
+            return notification;
 
         } catch (Exception e) {
             System.err.println("[NotifyCustomerTask] Error: " + e.getMessage());
             throw new RuntimeException("Failed to notify customer: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Runs on the engine thread: publish outputs.
+     */
+    @Override
+    public void afterExecution(DelegateExecution execution, Notification notification) {
+        // Store notification status for downstream decisions
+        execution.setVariable("notificationStatus", notification.sent);
+
+        CustomerProfile customerProfile = notification.customerProfile;
+        System.out.println("[NotifyCustomerTask] Customer notification processed");
+        System.out.println("  - Customer ID: " + customerProfile.getCustomerId());
+        System.out.println("  - Customer Name: " + customerProfile.getCustomerName());
+        System.out.println("  - Contact Number: " + customerProfile.getContactNumber());
+        System.out.println("  - Offer ID: " + notification.loanOffer.getOfferId());
+        System.out.println("  - Notification Status: " + (notification.sent ? "SENT" : "FAILED"));
+    }
+
+    /**
+     * Inputs of one notification and, once sent, its status.
+     */
+    static final class Notification {
+        final CustomerProfile customerProfile;
+        final LoanOffers loanOffer;
+        final Boolean approvalStatus;
+        boolean sent;
+
+        Notification(CustomerProfile customerProfile, LoanOffers loanOffer, Boolean approvalStatus) {
+            this.customerProfile = customerProfile;
+            this.loanOffer = loanOffer;
+            this.approvalStatus = approvalStatus;
+        }
+    }
 }
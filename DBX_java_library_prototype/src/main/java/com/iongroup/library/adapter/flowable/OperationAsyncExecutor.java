@@ -0,0 +1,159 @@
+package com.iongroup.library.adapter.flowable;
+
+import org.flowable.common.engine.api.async.AsyncTaskInvoker;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated executor for asynchronous (FutureJavaDelegate) operations.
+ *
+ * Work runs on virtual threads when the JVM supports them (Java 21+) and on
+ * a cached pool of daemon threads otherwise, so Flowable executor threads
+ * are not used for the blocking I/O itself. Concurrency is limited per
+ * operation category: tasks over the limit wait in a queue of their category
+ * and are handed to the executor as running ones finish, so no thread is
+ * started, or blocked, for a task that cannot run yet.
+ *
+ * Limits are read from system properties on first use:
+ * <ul>
+ *   <li>{@code dbx.operations.concurrency.default} (default {@value #DEFAULT_LIMIT})</li>
+ *   <li>{@code dbx.operations.concurrency.<category>}, e.g. {@code dbx.operations.concurrency.card=16}</li>
+ * </ul>
+ * and can be changed with {@link #setConcurrencyLimit(String, int)}.
+ */
+public final class OperationAsyncExecutor {
+
+    static final int DEFAULT_LIMIT = 64;
+
+    private static final String PROPERTY_PREFIX = "dbx.operations.concurrency.";
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private static final Map<String, CategoryInvoker> INVOKERS = new ConcurrentHashMap<>();
+
+    private OperationAsyncExecutor() {
+    }
+
+    /**
+     * Invoker for operations of the given category.
+     */
+    public static AsyncTaskInvoker forCategory(String category) {
+        String key = category == null ? "" : category;
+        return INVOKERS.computeIfAbsent(key, k -> new CategoryInvoker(configuredLimit(k)));
+    }
+
+    /**
+     * Replace the concurrency limit of a category. Tasks already submitted
+     * run under the old limit; new tasks use the new limit.
+     */
+    public static void setConcurrencyLimit(String category, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be positive: " + limit);
+        }
+        INVOKERS.put(category == null ? "" : category, new CategoryInvoker(limit));
+    }
+
+    public static int getConcurrencyLimit(String category) {
+        return ((CategoryInvoker) forCategory(category)).limit;
+    }
+
+    /**
+     * Whether tasks run on virtual threads.
+     */
+    public static boolean usesVirtualThreads() {
+        return !(EXECUTOR instanceof ThreadPoolExecutor);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static int configuredLimit(String category) {
+        Integer limit = Integer.getInteger(PROPERTY_PREFIX + category);
+        if (limit == null) {
+            limit = Integer.getInteger(PROPERTY_PREFIX + "default", DEFAULT_LIMIT);
+        }
+        return Math.max(1, limit);
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // Java 21+: one cheap virtual thread per task
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, "dbx-operation-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newCachedThreadPool(factory);
+        }
+    }
+
+    private static final class CategoryInvoker implements AsyncTaskInvoker {
+
+        private final int limit;
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger running = new AtomicInteger();
+
+        CategoryInvoker(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> submit(Callable<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            waiting.add(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+            dispatch();
+            return future;
+        }
+
+        /**
+         * Start workers for waiting tasks while fewer than {@code limit} run.
+         * A worker keeps taking waiting tasks until there are none, then
+         * dispatches again, so a task queued while the category is full is
+         * picked up by the next worker to finish.
+         */
+        private void dispatch() {
+            while (!waiting.isEmpty()) {
+                int n = running.get();
+                if (n >= limit) {
+                    return;
+                }
+                if (!running.compareAndSet(n, n + 1)) {
+                    continue;
+                }
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    // taken by a concurrent dispatch
+                    running.decrementAndGet();
+                    continue;
+                }
+                EXECUTOR.execute(() -> {
+                    for (Runnable task = next; task != null; task = waiting.poll()) {
+                        task.run();
+                    }
+                    running.decrementAndGet();
+                    dispatch();
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.iongroup.library.adapter.flowable;
+
+import com.iongroup.library.exception.BusinessException;
+import com.iongroup.library.registry.RegisteredOperation;
+import com.iongroup.library.registry.RegistryConfiguration;
+import com.iongroup.library.registry.RegistrySnapshot;
+import org.flowable.bpmn.model.BaseElement;
+import org.flowable.bpmn.model.ImplementationType;
+import org.flowable.bpmn.model.ServiceTask;
+import org.flowable.common.engine.api.async.AsyncTaskInvoker;
+import org.flowable.engine.delegate.DelegateExecution;
+import org.flowable.engine.delegate.FutureJavaDelegate;
+import org.flowable.engine.delegate.JavaDelegate;
+import org.flowable.engine.impl.bpmn.behavior.ServiceTaskFutureJavaDelegateActivityBehavior;
+import org.flowable.engine.impl.bpmn.behavior.ServiceTaskJavaDelegateActivityBehavior;
+import org.flowable.engine.impl.bpmn.parser.BpmnParse;
+import org.flowable.engine.impl.bpmn.parser.handler.AbstractBpmnParseHandler;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.flowable.engine.parse.BpmnParseHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Binds dispatcher service tasks to their operation when a process definition
+ * is parsed (deployment or definition cache reload).
+ *
+ * For every ServiceTask implemented by {@link OperationDispatcherDelegate},
+ * the {@code delegationId} is resolved against the registry once. Unknown or
+ * unresolvable ids fail the deployment. Plain tasks get a behaviour that
+ * calls the resolved delegate directly (a future behaviour for asynchronous
+ * operations), so nothing is looked up at runtime. A binding remembers the
+ * registry snapshot it was resolved from and resolves again on first use
+ * after plugins were reloaded, so deployed definitions follow the registry.
+ * Tasks with skip expressions, exception mappings or triggers keep the
+ * standard class delegate (and its runtime lookup) after validation.
+ *
+ * Register with {@link #register(ProcessEngineConfigurationImpl)}.
+ */
+public class OperationBindingParseHandler extends AbstractBpmnParseHandler<ServiceTask> {
+
+    private static final String DISPATCHER_CLASS = OperationDispatcherDelegate.class.getName();
+
+    /**
+     * Add this handler to the engine's post parse handlers.
+     */
+    public static ProcessEngineConfigurationImpl register(ProcessEngineConfigurationImpl cfg) {
+        List<BpmnParseHandler> handlers = new ArrayList<>();
+        if (cfg.getPostBpmnParseHandlers() != null) {
+            handlers.addAll(cfg.getPostBpmnParseHandlers());
+        }
+        handlers.add(new OperationBindingParseHandler());
+        return cfg.setPostBpmnParseHandlers(handlers);
+    }
+
+    @Override
+    protected Class<? extends BaseElement> getHandledType() {
+        return ServiceTask.class;
+    }
+
+    @Override
+    protected void executeParse(BpmnParse bpmnParse, ServiceTask serviceTask) {
+        if (!ImplementationType.IMPLEMENTATION_TYPE_CLASS.equalsIgnoreCase(serviceTask.getImplementationType())
+                || !DISPATCHER_CLASS.equals(serviceTask.getImplementation())) {
+            return;
+        }
+
+        String operationId = OperationDispatcherDelegate.delegationId(serviceTask);
+        if (operationId == null || operationId.isBlank()) {
+            throw new BusinessException(
+                    "DISPATCHER_001",
+                    "Service task '" + serviceTask.getId() + "' has no delegationId"
+            );
+        }
+
+        Binding binding;
+        try {
+            binding = new Binding(operationId);
+        } catch (BusinessException e) {
+            throw new BusinessException(
+                    e.getErrorCode(),
+                    "Service task '" + serviceTask.getId() + "': " + e.getMessage()
+            );
+        }
+
+        boolean plain = (serviceTask.getSkipExpression() == null || serviceTask.getSkipExpression().isBlank())
+                && serviceTask.getMapExceptions().isEmpty()
+                && !serviceTask.isTriggerable();
+        if (!plain) {
+            return;
+        }
+        if (binding.get().isAsync()) {
+            serviceTask.setBehavior(new ServiceTaskFutureJavaDelegateActivityBehavior(
+                    new BoundFutureOperationDelegate(binding), false, null, serviceTask.getMapExceptions()));
+        } else {
+            serviceTask.setBehavior(new ServiceTaskJavaDelegateActivityBehavior(
+                    new BoundOperationDelegate(binding), false, null));
+        }
+    }
+
+    /**
+     * An operation id with the operation it resolved to in one registry snapshot.
+     */
+    static final class Binding {
+
+        private final String operationId;
+        private volatile Resolved resolved;
+
+        Binding(String operationId) {
+            this.operationId = operationId;
+            this.resolved = resolve(RegistryConfiguration.getSnapshot());
+        }
+
+        /**
+         * The operation in the current snapshot; resolved again only when
+         * the registry was republished since the last call.
+         */
+        RegisteredOperation get() {
+            RegistrySnapshot current = RegistryConfiguration.getSnapshot();
+            Resolved r = resolved;
+            if (r.snapshot != current) {
+                r = resolve(current);
+                resolved = r;
+            }
+            return r.operation;
+        }
+
+        private Resolved resolve(RegistrySnapshot snapshot) {
+            return new Resolved(snapshot, OperationDispatcherDelegate.resolve(operationId, snapshot));
+        }
+
+        private static final class Resolved {
+            final RegistrySnapshot snapshot;
+            final RegisteredOperation operation;
+
+            Resolved(RegistrySnapshot snapshot, RegisteredOperation operation) {
+                this.snapshot = snapshot;
+                this.operation = operation;
+            }
+        }
+    }
+
+    /**
+     * Delegate bound to one synchronous operation.
+     */
+    static final class BoundOperationDelegate implements JavaDelegate {
+
+        private final Binding binding;
+
+        BoundOperationDelegate(Binding binding) {
+            this.binding = binding;
+        }
+
+        @Override
+        public void execute(DelegateExecution execution) {
+            RegisteredOperation operation = binding.get();
+            if (operation.isAsync()) {
+                // became asynchronous in a plugin reload; this behaviour can only wait for it
+                Object result;
+                try {
+                    result = OperationDispatcherDelegate.start(operation, execution).join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+                OperationDispatcherDelegate.complete(execution, result);
+                return;
+            }
+            OperationDispatcherDelegate.invoke(operation, execution);
+        }
+    }
+
+    /**
+     * Future delegate bound to one asynchronous operation.
+     */
+    static final class BoundFutureOperationDelegate implements FutureJavaDelegate<Object> {
+
+        private final Binding binding;
+
+        BoundFutureOperationDelegate(Binding binding) {
+            this.binding = binding;
+        }
+
+        @Override
+        public CompletableFuture<Object> execute(DelegateExecution execution, AsyncTaskInvoker taskInvoker) {
+            return OperationDispatcherDelegate.start(binding.get(), execution);
+        }
+
+        @Override
+        public void afterExecution(DelegateExecution execution, Object result) {
+            OperationDispatcherDelegate.complete(execution, result);
+        }
+    }
+}
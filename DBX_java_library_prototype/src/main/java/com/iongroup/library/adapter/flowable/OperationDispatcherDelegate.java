@@ -1,32 +1,45 @@
 package com.iongroup.library.adapter.flowable;
 
 import com.iongroup.library.exception.BusinessException;
-import com.iongroup.library.registry.OperationDescriptor;
+import com.iongroup.library.metrics.OperationMetrics;
+import com.iongroup.library.registry.RegisteredOperation;
 import com.iongroup.library.registry.RegistryConfiguration;
+import com.iongroup.library.registry.RegistrySnapshot;
+import org.flowable.bpmn.model.ExtensionElement;
+import org.flowable.bpmn.model.FlowElement;
+import org.flowable.common.engine.api.async.AsyncTaskInvoker;
 import org.flowable.engine.delegate.DelegateExecution;
+import org.flowable.engine.delegate.FutureJavaDelegate;
 import org.flowable.engine.delegate.JavaDelegate;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Universal dispatcher delegate for BPMN.
  * Dynamically resolves and executes the actual operation
  * using RegistryConfiguration.
+ *
+ * Operations implemented as {@link FutureJavaDelegate} run their work on
+ * {@link OperationAsyncExecutor} (limited per category); plain
+ * {@link JavaDelegate} operations run inline and complete immediately.
+ *
+ * When {@link OperationBindingParseHandler} is registered with the engine,
+ * service tasks are bound to their operation at deploy time and this class
+ * is only used as the fallback path.
+ *
+ * Every invocation (latency and error code) is recorded in
+ * {@link OperationMetrics}.
  */
-public class OperationDispatcherDelegate implements JavaDelegate {
+public class OperationDispatcherDelegate implements FutureJavaDelegate<Object> {
 
     @Override
-    public void execute(DelegateExecution execution) {
+    public CompletableFuture<Object> execute(DelegateExecution execution, AsyncTaskInvoker taskInvoker) {
 
         // 1️⃣ Extract operation id from BPMN task extension
-        String operationId = Optional.ofNullable(
-                execution.getCurrentFlowElement()
-                        .getExtensionElements()
-                        .get("delegationId")
-        )
-        .map(list -> list.get(0).getElementText())
-        .orElse(null);
+        String operationId = delegationId(execution.getCurrentFlowElement());
 
         if (operationId == null || operationId.isBlank()) {
             throw new BusinessException(
@@ -35,46 +48,157 @@ public class OperationDispatcherDelegate implements JavaDelegate {
             );
         }
 
-        // 2️⃣ Lookup operation metadata dynamically
-        List<OperationDescriptor> allOps = RegistryConfiguration.getAllOperations();
-        OperationDescriptor descriptor = allOps.stream()
-                .filter(op -> op.getId().equals(operationId))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException(
-                        "DISPATCHER_002",
-                        "No operation registered with id: " + operationId
-                ));
-
-        // 3️⃣ Validate delegate class
-        String delegateClass = descriptor.getDelegateClass();
-        if (delegateClass == null || delegateClass.isBlank()) {
+        // 2️⃣ O(1) lookup in the shared registry snapshot
+        return start(resolve(operationId), execution);
+    }
+
+    @Override
+    public void afterExecution(DelegateExecution execution, Object result) {
+        complete(execution, result);
+    }
+
+    /**
+     * Read the {@code delegationId} extension element of a BPMN activity.
+     */
+    static String delegationId(FlowElement element) {
+        Map<String, List<ExtensionElement>> ext = element.getExtensionElements();
+        List<ExtensionElement> values = ext != null ? ext.get("delegationId") : null;
+        return values == null || values.isEmpty() ? null : values.get(0).getElementText();
+    }
+
+    /**
+     * Look up an operation whose delegate is ready to run.
+     */
+    static RegisteredOperation resolve(String operationId) {
+        return resolve(operationId, RegistryConfiguration.getSnapshot());
+    }
+
+    static RegisteredOperation resolve(String operationId, RegistrySnapshot snapshot) {
+        RegisteredOperation operation = snapshot.get(operationId);
+        if (operation == null) {
             throw new BusinessException(
-                    "DISPATCHER_003",
-                    "Operation " + operationId + " has no delegateClass defined"
+                    "DISPATCHER_002",
+                    "No operation registered with id: " + operationId
             );
         }
 
+        // 3️⃣ Delegate class and provider were resolved when the snapshot was built
+        if (operation.getProvider() == null) {
+            throw new BusinessException(operation.getErrorCode(), operation.getErrorMessage());
+        }
+        return operation;
+    }
+
+    /**
+     * Execute a resolved synchronous operation on the calling thread.
+     */
+    static void invoke(RegisteredOperation operation, DelegateExecution execution) {
+        long startNanos = System.nanoTime();
         try {
-            // 4️⃣ Instantiate and execute delegate
-            Class<?> clazz = Class.forName(delegateClass);
-            if (!JavaDelegate.class.isAssignableFrom(clazz)) {
-                throw new BusinessException(
-                        "DISPATCHER_004",
-                        "Delegate class does not implement JavaDelegate: " + delegateClass
-                );
+            // 4️⃣ Obtain (shared or fresh) delegate and execute it
+            JavaDelegate realDelegate = (JavaDelegate) operation.getProvider().get();
+            realDelegate.execute(execution);
+
+        } catch (RuntimeException e) {
+            throw failed(operation, startNanos, e);
+        }
+        record(operation, startNanos, null);
+    }
+
+    /**
+     * Start a resolved operation. Asynchronous operations are submitted to the
+     * category's executor; synchronous ones run inline.
+     *
+     * The returned value must be passed to {@link #complete} on the engine thread.
+     */
+    @SuppressWarnings("unchecked")
+    static CompletableFuture<Object> start(RegisteredOperation operation, DelegateExecution execution) {
+        if (!operation.isAsync()) {
+            invoke(operation, execution);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long startNanos = System.nanoTime();
+        FutureJavaDelegate<Object> realDelegate;
+        CompletableFuture<Object> future;
+        try {
+            realDelegate = (FutureJavaDelegate<Object>) operation.getProvider().get();
+            AsyncTaskInvoker invoker = OperationAsyncExecutor.forCategory(operation.getDescriptor().getCategory());
+            future = realDelegate.execute(execution, invoker);
+        } catch (RuntimeException e) {
+            throw failed(operation, startNanos, e);
+        }
+
+        return future.handle((output, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                throw failed(operation, startNanos, cause);
             }
+            return new PendingResult(operation, realDelegate, output, startNanos);
+        });
+    }
 
-            JavaDelegate realDelegate = (JavaDelegate) clazz.getDeclaredConstructor().newInstance();
-            realDelegate.execute(execution);
+    /**
+     * Apply the outcome of {@link #start} to the execution.
+     */
+    static void complete(DelegateExecution execution, Object result) {
+        if (result instanceof PendingResult) {
+            PendingResult pending = (PendingResult) result;
+            try {
+                pending.delegate.afterExecution(execution, pending.output);
+            } catch (RuntimeException e) {
+                throw failed(pending.operation, pending.startNanos, e);
+            }
+            record(pending.operation, pending.startNanos, null);
+        }
+    }
 
-        } catch (BusinessException e) {
-            throw e; // preserve library-specific errors
-        } catch (Exception e) {
-            throw new BusinessException(
-                    "DISPATCHER_005",
-                    "Failed to execute delegate for operation: " + operationId,
-                    e
-            );
+    /**
+     * Wrap a failure and record it against the operation.
+     */
+    private static BusinessException failed(RegisteredOperation operation, long startNanos, Throwable e) {
+        BusinessException error = wrap(operation, e);
+        record(operation, startNanos, error);
+        return error;
+    }
+
+    private static void record(RegisteredOperation operation, long startNanos, BusinessException error) {
+        OperationMetrics.record(
+                operation.getId(),
+                operation.getDescriptor().getCategory(),
+                System.nanoTime() - startNanos,
+                error != null,
+                error != null ? error.getErrorCode() : null
+        );
+    }
+
+    private static BusinessException wrap(RegisteredOperation operation, Throwable e) {
+        if (e instanceof BusinessException) {
+            return (BusinessException) e; // preserve library-specific errors
+        }
+        return new BusinessException(
+                "DISPATCHER_005",
+                "Failed to execute delegate for operation: " + operation.getId(),
+                e
+        );
+    }
+
+    /**
+     * Output of an asynchronous operation waiting for afterExecution.
+     */
+    private static final class PendingResult {
+        final RegisteredOperation operation;
+        final FutureJavaDelegate<Object> delegate;
+        final Object output;
+        final long startNanos;
+
+        PendingResult(RegisteredOperation operation, FutureJavaDelegate<Object> delegate, Object output,
+                long startNanos) {
+            this.operation = operation;
+            this.delegate = delegate;
+            this.output = output;
+            this.startNanos = startNanos;
         }
     }
 }
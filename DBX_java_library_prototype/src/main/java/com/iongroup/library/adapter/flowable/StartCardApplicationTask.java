@@ -3,6 +3,7 @@ package com.iongroup.library.adapter.flowable;
 import org.flowable.engine.delegate.DelegateExecution;
 import org.flowable.engine.delegate.JavaDelegate;
 
+import com.iongroup.library.registry.DelegateLifecycle;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.WorkFlowOperation;
 
@@ -20,7 +21,8 @@ import com.iongroup.library.registry.WorkFlowOperation;
     inputs = {"customerId"},
     outputs = {"applicationId", "customerProfile"},
     selectableFields = {},
-    customizableFields = {}
+    customizableFields = {},
+    lifecycle = DelegateLifecycle.SINGLETON
 )
 public class StartCardApplicationTask implements JavaDelegate {
 
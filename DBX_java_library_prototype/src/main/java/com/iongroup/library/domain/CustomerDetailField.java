@@ -0,0 +1,28 @@
+package com.iongroup.library.domain;
+
+/**
+ * Customer details that a BPMN task can mark as required
+ * (values of the {@code requiredFields} extension element).
+ */
+public enum CustomerDetailField {
+    CUSTOMER_NAME,
+    CONTACT_NUMBER,
+    ADDRESS,
+    PAN,
+    AADHAR,
+    MONTHLY_INCOME;
+
+    /**
+     * Mark this field as required on the given details object.
+     */
+    public void applyTo(RequiredCustomerDetails required) {
+        switch (this) {
+            case CUSTOMER_NAME -> required.setCustomerName(true);
+            case CONTACT_NUMBER -> required.setContactNumber(true);
+            case ADDRESS -> required.setCustomerAddress(true);
+            case PAN -> required.setPanNumber(true);
+            case AADHAR -> required.setAadharNumber(true);
+            case MONTHLY_INCOME -> required.setMonthlyIncome(true);
+        }
+    }
+}
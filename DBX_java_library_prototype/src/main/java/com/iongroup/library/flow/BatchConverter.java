@@ -0,0 +1,237 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Converts many UI graphs in parallel on a bounded pool.
+ *
+ * Graphs are taken from an iterator and results are handed to a consumer in
+ * input order, on the calling thread. Each graph is read into a {@link UiGraph}
+ * by the worker that converts it. At most a few graphs per worker are in
+ * flight, so arbitrarily long inputs (e.g. NDJSON streams) need bounded memory.
+ * A graph that fails to parse or convert yields a failed item; the batch
+ * goes on.
+ *
+ * Usage:
+ * <pre>
+ * try (BatchConverter batch = new BatchConverter(Runtime.getRuntime().availableProcessors())) {
+ *     batch.convert(BatchConverter.ndjson(reader), ConverterTemplate.defaults(), item -&gt; ...);
+ * }
+ * </pre>
+ */
+public final class BatchConverter implements AutoCloseable {
+
+    private static final ObjectMapper M = new ObjectMapper()
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    // graphs in flight per worker
+    private static final int WINDOW_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * One graph of a batch, read by the worker that converts it.
+     */
+    @FunctionalInterface
+    public interface GraphSource {
+        UiGraph read() throws IOException;
+    }
+
+    public BatchConverter(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Convert every graph of {@code graphs} and pass the results to
+     * {@code sink} in input order.
+     *
+     * @return number of failed items
+     * @throws UncheckedIOException if reading {@code graphs} fails; results of
+     *                              the graphs read before are delivered first
+     */
+    public int convert(Iterator<GraphSource> graphs, ConverterTemplate template, Consumer<BatchItemResult> sink)
+            throws InterruptedException {
+
+        int window = pool.getParallelism() * WINDOW_PER_WORKER;
+        Deque<CompletableFuture<BatchItemResult>> inFlight = new ArrayDeque<>(window);
+        int failed = 0;
+        int index = 0;
+        RuntimeException sourceError = null;
+
+        while (true) {
+            while (sourceError == null && inFlight.size() < window) {
+                GraphSource graph;
+                try {
+                    if (!graphs.hasNext()) break;
+                    graph = graphs.next();
+                } catch (RuntimeException e) {
+                    sourceError = e;
+                    break;
+                }
+                int i = index++;
+                inFlight.add(CompletableFuture.supplyAsync(() -> convertOne(i, graph, template), pool));
+            }
+            if (inFlight.isEmpty()) break;
+
+            BatchItemResult result = await(inFlight.poll());
+            if (!result.isSuccess()) failed++;
+            sink.accept(result);
+        }
+
+        if (sourceError != null) {
+            throw sourceError;
+        }
+        return failed;
+    }
+
+    /**
+     * Convert a list of UI JSON documents; the results are in the same order.
+     */
+    public List<BatchItemResult> convertAll(List<String> graphs, ConverterTemplate template)
+            throws InterruptedException {
+        List<BatchItemResult> results = new ArrayList<>(graphs.size());
+        Iterator<String> json = graphs.iterator();
+        convert(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return json.hasNext();
+            }
+
+            @Override
+            public GraphSource next() {
+                String graph = json.next();
+                return () -> UiGraph.read(graph);
+            }
+        }, template, results::add);
+        return results;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // ------------------------------------------------------------------------
+    // Input formats
+    // ------------------------------------------------------------------------
+
+    /**
+     * One graph per non-blank line. Lines are parsed by the workers, so a
+     * malformed line only fails its own item.
+     */
+    public static Iterator<GraphSource> ndjson(Reader reader) {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        return new Iterator<>() {
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (next == null) {
+                        String line = lines.readLine();
+                        if (line == null) return false;
+                        if (!line.isBlank()) next = line;
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public GraphSource next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                String line = next;
+                next = null;
+                return () -> UiGraph.read(line);
+            }
+        };
+    }
+
+    /**
+     * Elements of a JSON array of graphs, read one at a time. Each element is
+     * read as a tree and only bound to a graph by its worker, so an element
+     * that is valid JSON but not a graph only fails its own item. The stream
+     * is left open.
+     */
+    public static Iterator<GraphSource> jsonArray(InputStream in) throws IOException {
+        JsonParser parser = M.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array of UI graphs");
+        }
+        return new Iterator<>() {
+            private JsonToken token;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    if (token == null) token = parser.nextToken();
+                    return token != null && token != JsonToken.END_ARRAY;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public GraphSource next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                try {
+                    JsonNode graph = parser.readValueAsTree();
+                    token = null;
+                    return () -> UiGraph.read(graph);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static BatchItemResult convertOne(int index, GraphSource graph, ConverterTemplate template) {
+        try {
+            byte[] xml = UiJsonToBpmnConverter.convert(graph.read(), template).bpmnXml;
+            return BatchItemResult.success(index, xml);
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return BatchItemResult.failure(index, message);
+        }
+    }
+
+    private static BatchItemResult await(CompletableFuture<BatchItemResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // conversion failures are results; anything else is an Error
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Batch conversion failed", cause);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.iongroup.library.flow;
+
+/**
+ * Outcome of one graph of a {@link BatchConverter} batch.
+ */
+public class BatchItemResult {
+
+    private final int index;
+    private final boolean success;
+    private final String message;
+    private final byte[] bpmnXml;
+
+    private BatchItemResult(int index, boolean success, String message, byte[] bpmnXml) {
+        this.index = index;
+        this.success = success;
+        this.message = message;
+        this.bpmnXml = bpmnXml;
+    }
+
+    static BatchItemResult success(int index, byte[] bpmnXml) {
+        return new BatchItemResult(index, true, "Converted", bpmnXml);
+    }
+
+    static BatchItemResult failure(int index, String message) {
+        return new BatchItemResult(index, false, message, null);
+    }
+
+    /**
+     * Zero-based position of the graph in the batch input.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * BPMN 2.0 XML (UTF-8), or {@code null} if the conversion failed.
+     */
+    public byte[] getBpmnXml() {
+        return bpmnXml;
+    }
+}
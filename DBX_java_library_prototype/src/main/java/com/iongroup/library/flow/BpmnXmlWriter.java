@@ -0,0 +1,220 @@
+package com.iongroup.library.flow;
+
+import org.flowable.bpmn.converter.BpmnXMLConverter;
+import org.flowable.bpmn.converter.IndentingXMLStreamWriter;
+import org.flowable.bpmn.converter.export.BPMNDIExport;
+import org.flowable.bpmn.converter.export.CollaborationExport;
+import org.flowable.bpmn.converter.export.DataStoreExport;
+import org.flowable.bpmn.converter.export.DefinitionsRootExport;
+import org.flowable.bpmn.converter.export.EscalationDefinitionExport;
+import org.flowable.bpmn.converter.export.ProcessExport;
+import org.flowable.bpmn.converter.export.SignalAndMessageDefinitionExport;
+import org.flowable.bpmn.exceptions.XMLException;
+import org.flowable.bpmn.model.Artifact;
+import org.flowable.bpmn.model.BaseElement;
+import org.flowable.bpmn.model.BpmnDiEdge;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.bpmn.model.FlowElement;
+import org.flowable.bpmn.model.GraphicInfo;
+import org.flowable.bpmn.model.Lane;
+import org.flowable.bpmn.model.Process;
+import org.flowable.bpmn.model.SubProcess;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes BPMN 2.0 XML (UTF-8) straight to a caller's stream or channel.
+ *
+ * Same output as {@link BpmnXMLConverter#convertToXML(BpmnModel)}, except
+ * that the {@code exporterVersion} attribute Flowable stamps on converted
+ * models is dropped while writing; the model itself is not changed, so
+ * shared models can be written concurrently. The diagram (BPMN DI) is written
+ * in one pass over the model's location maps, whereas Flowable's exporter
+ * grows quadratically with the number of elements.
+ *
+ * Streams and channels are flushed but left open.
+ */
+public final class BpmnXmlWriter {
+
+    private static final Set<String> DROPPED_ATTRIBUTES = Set.of("exporterVersion");
+
+    private static final XMLOutputFactory XML_OUTPUT = XMLOutputFactory.newInstance();
+
+    private static final Elements ELEMENTS = new Elements();
+
+    private BpmnXmlWriter() {
+    }
+
+    public static void write(BpmnModel model, OutputStream out) {
+        try {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            XMLStreamWriter xtw = open(writer);
+
+            DefinitionsRootExport.writeRootElement(model, xtw, "UTF-8");
+            CollaborationExport.writePools(model, xtw);
+            DataStoreExport.writeDataStores(model, xtw);
+            SignalAndMessageDefinitionExport.writeSignalsAndMessages(model, xtw);
+            EscalationDefinitionExport.writeEscalations(model, xtw);
+
+            for (Process process : model.getProcesses()) {
+                if (process.getFlowElements().isEmpty() && process.getLanes().isEmpty()) {
+                    continue;
+                }
+                ProcessExport.writeProcess(process, model, xtw);
+                for (FlowElement element : process.getFlowElements()) {
+                    ELEMENTS.write(element, model, xtw);
+                }
+                for (Artifact artifact : process.getArtifacts()) {
+                    ELEMENTS.write(artifact, model, xtw);
+                }
+                xtw.writeEndElement(); // process
+            }
+
+            writeDiagram(model, xtw);
+            xtw.writeEndElement(); // definitions
+            xtw.writeEndDocument();
+            xtw.flush();
+            writer.flush();
+        } catch (Exception e) {
+            throw new XMLException("Error writing BPMN XML", e);
+        }
+    }
+
+    public static void write(BpmnModel model, WritableByteChannel channel) {
+        write(model, Channels.newOutputStream(channel));
+    }
+
+    static byte[] toBytes(BpmnModel model) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        write(model, out);
+        return out.toByteArray();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Same output as {@link BPMNDIExport#writeBPMNDI}, with each element found
+     * through one index of the model. Models with pools or collapsed
+     * sub-processes, which get extra diagrams, are left to Flowable.
+     */
+    private static void writeDiagram(BpmnModel model, XMLStreamWriter xtw) throws Exception {
+        Map<String, BaseElement> elements = new HashMap<>();
+        for (Process process : model.getProcesses()) {
+            for (Lane lane : process.getLanes()) {
+                elements.putIfAbsent(lane.getId(), lane);
+            }
+            index(process.getFlowElements(), process.getArtifacts(), elements);
+        }
+        if (!model.getPools().isEmpty() || hasCollapsedSubProcess(model, elements)) {
+            BPMNDIExport.writeBPMNDI(model, xtw);
+            return;
+        }
+
+        UiGraphBpmnWriter.startDiagram(xtw, model.getMainProcess().getId());
+
+        for (Map.Entry<String, GraphicInfo> location : model.getLocationMap().entrySet()) {
+            BaseElement element = elements.get(location.getKey());
+            if (element == null) continue;
+            GraphicInfo bounds = location.getValue();
+            UiGraphBpmnWriter.writeShape(xtw, location.getKey(), bounds,
+                    element instanceof SubProcess ? bounds.getExpanded() : null);
+        }
+
+        for (Map.Entry<String, List<GraphicInfo>> location : model.getFlowLocationMap().entrySet()) {
+            String id = location.getKey();
+            BaseElement element = elements.get(id);
+            String name;
+            if (element instanceof FlowElement) {
+                name = ((FlowElement) element).getName();
+            } else if (element instanceof Artifact) {
+                name = null;
+            } else if (model.getMessageFlow(id) != null) {
+                name = model.getMessageFlow(id).getName();
+            } else {
+                continue;
+            }
+            BpmnDiEdge edge = model.getEdgeInfo(id);
+            GraphicInfo label = name != null && !name.isEmpty() ? model.getLabelGraphicInfo(id) : null;
+            UiGraphBpmnWriter.writeEdge(xtw, id,
+                    edge != null ? edge.getSourceDockerInfo() : null,
+                    edge != null ? edge.getTargetDockerInfo() : null,
+                    location.getValue(), label);
+        }
+
+        xtw.writeEndElement(); // BPMNPlane
+        xtw.writeEndElement(); // BPMNDiagram
+    }
+
+    /**
+     * Add flow elements and artifacts, including those of sub-processes, by id.
+     */
+    private static void index(Collection<FlowElement> flowElements, Collection<Artifact> artifacts,
+            Map<String, BaseElement> elements) {
+        for (FlowElement element : flowElements) {
+            elements.putIfAbsent(element.getId(), element);
+        }
+        for (Artifact artifact : artifacts) {
+            elements.putIfAbsent(artifact.getId(), artifact);
+        }
+        for (FlowElement element : flowElements) {
+            if (element instanceof SubProcess) {
+                SubProcess subProcess = (SubProcess) element;
+                index(subProcess.getFlowElements(), subProcess.getArtifacts(), elements);
+            }
+        }
+    }
+
+    private static boolean hasCollapsedSubProcess(BpmnModel model, Map<String, BaseElement> elements) {
+        for (Map.Entry<String, GraphicInfo> location : model.getLocationMap().entrySet()) {
+            if (elements.get(location.getKey()) instanceof SubProcess
+                    && Boolean.FALSE.equals(location.getValue().getExpanded())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indenting, attribute-filtering writer over {@code writer}.
+     */
+    static XMLStreamWriter open(Writer writer) throws XMLStreamException {
+        return new IndentingXMLStreamWriter(
+                new AttributeFilteringXMLStreamWriter(XML_OUTPUT.createXMLStreamWriter(writer), DROPPED_ATTRIBUTES));
+    }
+
+    /**
+     * Writes one flow element or artifact with Flowable's element converters.
+     */
+    static void writeElement(FlowElement element, BpmnModel model, XMLStreamWriter xtw) throws Exception {
+        ELEMENTS.write(element, model, xtw);
+    }
+
+    /**
+     * Gives access to Flowable's per-element XML converters, which are
+     * stateless and shared by all converter instances.
+     */
+    private static final class Elements extends BpmnXMLConverter {
+
+        void write(FlowElement element, BpmnModel model, XMLStreamWriter xtw) throws Exception {
+            createXML(element, model, xtw);
+        }
+
+        void write(Artifact artifact, BpmnModel model, XMLStreamWriter xtw) throws Exception {
+            createXML(artifact, model, xtw);
+        }
+    }
+}
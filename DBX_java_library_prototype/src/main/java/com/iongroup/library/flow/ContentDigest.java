@@ -0,0 +1,68 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 over an unambiguous encoding of values: strings and JSON are
+ * length-prefixed and {@code null} differs from every string.
+ */
+final class ContentDigest {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    private final MessageDigest sha;
+    private final byte[] buffer = new byte[8];
+
+    ContentDigest() {
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    void put(String s) {
+        put(s != null ? s.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    void put(JsonNode node) {
+        try {
+            put(node != null ? M.writeValueAsBytes(node) : null);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot serialize JSON for digest", e);
+        }
+    }
+
+    void put(byte[] b) {
+        if (b == null) {
+            put(-1);
+            return;
+        }
+        put(b.length);
+        sha.update(b);
+    }
+
+    void put(int v) {
+        put((long) v);
+    }
+
+    void put(double v) {
+        put(Double.doubleToLongBits(v));
+    }
+
+    void put(long v) {
+        for (int i = 0; i < 8; i++) {
+            buffer[i] = (byte) (v >>> (56 - 8 * i));
+        }
+        sha.update(buffer);
+    }
+
+    byte[] digest() {
+        return sha.digest();
+    }
+}
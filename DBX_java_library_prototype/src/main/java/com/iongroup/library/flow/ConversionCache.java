@@ -0,0 +1,188 @@
+package com.iongroup.library.flow;
+
+import com.iongroup.library.flow.UiJsonToBpmnConverter.ConversionResult;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of UI JSON -> BPMN conversions.
+ *
+ * Entries are keyed by a SHA-256 of the canonical graph ({@link UiGraph}: only
+ * the node and edge fields the converters read, so key order and editor-only
+ * fields such as {@code selected} or {@code style} do not matter) and of the
+ * effective {@link ConverterTemplate}. With {@code ignoreLayout} node geometry
+ * is left out of the key too; a hit then returns the diagram layout of the
+ * graph that was converted first.
+ *
+ * Only the BPMN XML is cached, so eviction (least-recently-used) is bounded
+ * by what is actually held: the XML plus the key of each entry. A hit returns
+ * a new result around the cached XML whose model and editor JSON are built
+ * from the graph passed in, only if asked for. The XML is shared; treat it as
+ * read-only.
+ */
+public final class ConversionCache {
+
+    private final long maxBytes;
+    private final boolean ignoreLayout;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ConversionCache(long maxBytes) {
+        this(maxBytes, false);
+    }
+
+    public ConversionCache(long maxBytes, boolean ignoreLayout) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.ignoreLayout = ignoreLayout;
+    }
+
+    /**
+     * Same as {@link UiJsonToBpmnConverter#convert(String, String)}, served
+     * from the cache when an equivalent graph was converted before.
+     */
+    public ConversionResult convert(String uiJsonStr, String configJsonStr) throws Exception {
+        return convertWithTemplate(uiJsonStr, ConverterTemplate.forJson(configJsonStr));
+    }
+
+    /**
+     * Same as {@link UiJsonToBpmnConverter#convertWithTemplate(String, ConverterTemplate)}, served
+     * from the cache when an equivalent graph was converted before.
+     */
+    public ConversionResult convertWithTemplate(String uiJsonStr, ConverterTemplate template) throws Exception {
+        return convert(UiGraph.read(uiJsonStr), template);
+    }
+
+    /**
+     * Same as {@link UiJsonToBpmnConverter#convert(UiGraph, ConverterTemplate)}, served
+     * from the cache when an equivalent graph was converted before.
+     */
+    public ConversionResult convert(UiGraph graph, ConverterTemplate template) {
+        Key key = key(graph, template.fingerprint());
+        ConversionResult cached = get(key, graph, template);
+        if (cached != null) {
+            return cached;
+        }
+
+        // the graph is the key, so convert exactly what was hashed
+        ConversionResult result = UiJsonToBpmnConverter.convert(graph, template);
+        put(key, result.bpmnXml);
+        return result;
+    }
+
+    /**
+     * Cached conversion of an equivalent graph, or {@code null} on a miss,
+     * e.g. to stream the conversion of a graph that is not cached
+     * ({@link UiJsonToBpmnConverter#convert(UiGraph, ConverterTemplate, java.io.OutputStream)}).
+     */
+    public ConversionResult get(UiGraph graph, ConverterTemplate template) {
+        return get(key(graph, template.fingerprint()), graph, template);
+    }
+
+    public synchronized ConversionCacheStats stats() {
+        return new ConversionCacheStats(entries.size(), bytes, maxBytes, hits, misses, evictions);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private synchronized ConversionResult get(Key key, UiGraph graph, ConverterTemplate template) {
+        byte[] cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ConversionResult(cached, graph, template);
+    }
+
+    private synchronized void put(Key key, byte[] bpmnXml) {
+        long weight = weight(bpmnXml);
+        if (weight > maxBytes || entries.containsKey(key)) {
+            return;
+        }
+        entries.put(key, bpmnXml);
+        bytes += weight;
+
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= weight(eldest.next());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long weight(byte[] bpmnXml) {
+        return bpmnXml.length + Key.BYTES;
+    }
+
+    private Key key(UiGraph g, byte[] configFingerprint) {
+        ContentDigest d = new ContentDigest();
+        d.put(configFingerprint);
+
+        d.put(g.nodeCount);
+        for (int i = 0; i < g.nodeCount; i++) {
+            d.put(g.nodeId[i]);
+            UiNodeData data = g.data[i];
+            d.put(data.nodeType());
+            d.put(data.label());
+            d.put(data.delegationId());
+            d.put(data.delegationName());
+            d.put(data.delegationType());
+            d.put(data.requiredFields());
+            // custom field order decides the order of the extension elements
+            Map<String, String> custom = data.customFields();
+            d.put(custom != null ? custom.size() : -1);
+            if (custom != null) {
+                custom.forEach((name, value) -> {
+                    d.put(name);
+                    d.put(value);
+                });
+            }
+            if (!ignoreLayout) {
+                for (int k = i * 4; k < i * 4 + 4; k++) d.put(g.geometry[k]);
+            }
+        }
+        d.put(g.edgeCount);
+        for (int e = 0; e < g.edgeCount; e++) {
+            d.put(g.edgeId[e]);
+            d.put(g.source[e]);
+            d.put(g.target[e]);
+        }
+        return new Key(d.digest());
+    }
+
+    private static final class Key {
+        static final int BYTES = 32;
+
+        private final byte[] sha256;
+        private final int hash;
+
+        Key(byte[] sha256) {
+            this.sha256 = sha256;
+            this.hash = Arrays.hashCode(sha256);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(sha256, ((Key) o).sha256);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
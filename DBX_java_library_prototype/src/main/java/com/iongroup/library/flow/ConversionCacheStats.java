@@ -0,0 +1,53 @@
+package com.iongroup.library.flow;
+
+/**
+ * Point-in-time statistics of a {@link ConversionCache}.
+ * Serializable to JSON for REST endpoints.
+ */
+public class ConversionCacheStats {
+
+    private final int entries;
+    private final long bytes;
+    private final long maxBytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public ConversionCacheStats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+        this.entries = entries;
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
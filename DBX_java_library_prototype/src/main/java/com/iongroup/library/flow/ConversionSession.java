@@ -0,0 +1,577 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.NodeTypeConfig;
+import org.flowable.bpmn.converter.export.DefinitionsRootExport;
+import org.flowable.bpmn.converter.export.ProcessExport;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.bpmn.model.FlowNode;
+import org.flowable.bpmn.model.GraphicInfo;
+import org.flowable.bpmn.model.Process;
+import org.flowable.bpmn.model.SequenceFlow;
+
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * A converted UI graph kept alive across edits.
+ *
+ * Each node and edge keeps its compiled BPMN element, bounds and waypoints.
+ * An edit only recompiles what it touches: the edited node or edge, the flows
+ * and waypoints of a moved or changed node, and the endpoints of an added or
+ * removed edge (whose properties can depend on their degree, e.g. parallel
+ * split/join names). Writing the XML still visits every element, but nothing
+ * is resolved or compiled again.
+ *
+ * The output equals a full conversion ({@link UiJsonToBpmnConverter}) of
+ * {@link #toUiJson()}. While the graph holds a node the compiler does not
+ * cover, the XML is produced by a full conversion instead.
+ *
+ * Edits address nodes and edges by {@code id}; edges without an id are
+ * addressed as {@code flow_<source>__<target>}. A removed node leaves its
+ * edges in place (they produce no flow until a node with the same id is
+ * added again). Nodes passed in are retained, not copied.
+ *
+ * Usage:
+ * <pre>
+ * ConversionSession session = ConversionSession.open(uiJson, ConverterTemplate.defaults());
+ * session.apply(edits);   // [{"op":"update","node":{...}}, {"op":"remove","edge":"e3"}, ...]
+ * byte[] xml = session.toXml();
+ * </pre>
+ */
+public final class ConversionSession {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    private final ConverterTemplate template;
+    private final BpmnModel model;
+    private final Process process;
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Map<String, Edge> edges = new LinkedHashMap<>();
+    // edges by the node ids they reference, whether or not the node exists
+    private final Map<String, Incidence> incidence = new HashMap<>();
+    // nodes without an id: never compiled, only passed on to full conversions
+    private final List<JsonNode> anonymousNodes = new ArrayList<>();
+
+    private int unsupported;
+    private long version;
+
+    /**
+     * Convert {@code uiJson} and keep it for editing.
+     */
+    public ConversionSession(JsonNode uiJson, ConverterTemplate template) {
+        this.template = template;
+        this.model = UiToBpmnModelCompiler.newModel(template);
+        this.process = UiToBpmnModelCompiler.newProcess(template);
+
+        // degrees first, so every node is compiled once
+        for (JsonNode e : UiToFlowableConverterDBX.arrayOrEmpty(uiJson.get("edges"))) {
+            Edge edge = new Edge(e);
+            Edge replaced = edges.put(edge.key, edge);
+            if (replaced != null) detach(replaced);
+            attach(edge);
+        }
+        for (JsonNode n : UiToFlowableConverterDBX.arrayOrEmpty(uiJson.get("nodes"))) {
+            String id = UiToFlowableConverterDBX.text(n, "id");
+            if (id == null) {
+                anonymousNodes.add(n);
+                continue;
+            }
+            Node node = nodes.get(id);
+            if (node == null) {
+                node = new Node(n);
+                nodes.put(id, node);
+            } else {
+                node.json = n;
+            }
+            compile(id, node);
+        }
+        edges.values().forEach(this::link);
+    }
+
+    public static ConversionSession open(String uiJsonStr, ConverterTemplate template) throws IOException {
+        return new ConversionSession(M.readTree(uiJsonStr), template);
+    }
+
+    public ConverterTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Number of edits applied since the session was opened.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int getNodeCount() {
+        return nodes.size() + anonymousNodes.size();
+    }
+
+    public synchronized int getEdgeCount() {
+        return edges.size();
+    }
+
+    // ------------------------------------------------------------------------
+    // Edits
+    // ------------------------------------------------------------------------
+
+    /**
+     * Apply a list of edits in order. Each edit is an object with an
+     * {@code op} ({@code add}, {@code update} or {@code remove}) and either a
+     * {@code node} or an {@code edge}: the full UI node or edge for add and
+     * update, its id for remove.
+     *
+     * The whole list is checked before anything is applied, so either all
+     * edits are applied or none.
+     *
+     * @return the version after the edits
+     * @throws IllegalArgumentException for a malformed edit or an unknown or
+     *                                  duplicate id
+     */
+    public synchronized long apply(JsonNode edits) {
+        if (edits == null || !edits.isArray()) {
+            throw new IllegalArgumentException("Edits must be a JSON array");
+        }
+        // ids added (true) or removed (false) by the edits checked so far
+        Map<String, Boolean> nodeChanges = new HashMap<>();
+        Map<String, Boolean> edgeChanges = new HashMap<>();
+        int i = 0;
+        for (JsonNode edit : edits) {
+            try {
+                checkOne(edit, nodeChanges, edgeChanges);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Edit " + i + ": " + e.getMessage(), e);
+            }
+            i++;
+        }
+        for (JsonNode edit : edits) {
+            applyOne(edit);
+        }
+        return version;
+    }
+
+    public synchronized void addNode(JsonNode n) {
+        String id = nodeId(n);
+        if (nodes.containsKey(id)) {
+            throw new IllegalArgumentException("Node '" + id + "' already exists");
+        }
+        Node node = new Node(n);
+        nodes.put(id, node);
+        compile(id, node);
+        relinkEdges(id);
+        version++;
+    }
+
+    /**
+     * Replace the node with the same id, keeping its position in the graph.
+     */
+    public synchronized void updateNode(JsonNode n) {
+        String id = nodeId(n);
+        Node node = existingNode(id);
+        node.json = n;
+        compile(id, node);
+        relinkEdges(id);
+        version++;
+    }
+
+    public synchronized void removeNode(String id) {
+        Node node = existingNode(id);
+        nodes.remove(id);
+        if (node.element == null) unsupported--;
+        relinkEdges(id);
+        version++;
+    }
+
+    public synchronized void addEdge(JsonNode e) {
+        Edge edge = new Edge(edgeObject(e));
+        if (edges.containsKey(edge.key)) {
+            throw new IllegalArgumentException("Edge '" + edge.key + "' already exists");
+        }
+        edges.put(edge.key, edge);
+        attach(edge);
+        link(edge);
+        refreshEnds(edge);
+        version++;
+    }
+
+    /**
+     * Replace the edge with the same key, keeping its position in the graph.
+     */
+    public synchronized void updateEdge(JsonNode e) {
+        Edge edge = new Edge(edgeObject(e));
+        Edge old = existingEdge(edge.key);
+        detach(old);
+        edges.put(edge.key, edge);
+        attach(edge);
+        link(edge);
+        refreshEnds(old);
+        refreshEnds(edge);
+        version++;
+    }
+
+    public synchronized void removeEdge(String key) {
+        Edge edge = existingEdge(key);
+        edges.remove(key);
+        detach(edge);
+        refreshEnds(edge);
+        version++;
+    }
+
+    /**
+     * Check one edit against the graph as the edits before it leave it.
+     */
+    private void checkOne(JsonNode edit, Map<String, Boolean> nodeChanges, Map<String, Boolean> edgeChanges) {
+        String op = UiToFlowableConverterDBX.text(edit, "op");
+        JsonNode node = edit.get("node");
+        JsonNode edge = edit.get("edge");
+        if ((node == null) == (edge == null)) {
+            throw new IllegalArgumentException("an edit needs exactly one of 'node' or 'edge'");
+        }
+        Map<String, Boolean> changes = node != null ? nodeChanges : edgeChanges;
+        Map<String, ?> current = node != null ? nodes : edges;
+        String kind = node != null ? "node" : "edge";
+        switch (op != null ? op : "") {
+            case "add": {
+                String id = node != null ? nodeId(node) : Edge.key(edgeObject(edge));
+                if (exists(id, changes, current)) {
+                    throw new IllegalArgumentException((node != null ? "Node '" : "Edge '") + id + "' already exists");
+                }
+                changes.put(id, true);
+                break;
+            }
+            case "update": {
+                String id = node != null ? nodeId(node) : Edge.key(edgeObject(edge));
+                if (!exists(id, changes, current)) {
+                    throw new IllegalArgumentException("Unknown " + kind + " '" + id + "'");
+                }
+                break;
+            }
+            case "remove": {
+                String id = idOf(node != null ? node : edge);
+                if (!exists(id, changes, current)) {
+                    throw new IllegalArgumentException("Unknown " + kind + " '" + id + "'");
+                }
+                changes.put(id, false);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown op '" + op + "'");
+        }
+    }
+
+    private static boolean exists(String id, Map<String, Boolean> changes, Map<String, ?> current) {
+        Boolean changed = changes.get(id);
+        return changed != null ? changed : current.containsKey(id);
+    }
+
+    private void applyOne(JsonNode edit) {
+        String op = UiToFlowableConverterDBX.text(edit, "op");
+        JsonNode node = edit.get("node");
+        JsonNode edge = edit.get("edge");
+        if ((node == null) == (edge == null)) {
+            throw new IllegalArgumentException("an edit needs exactly one of 'node' or 'edge'");
+        }
+        switch (op != null ? op : "") {
+            case "add":
+                if (node != null) addNode(node); else addEdge(edge);
+                break;
+            case "update":
+                if (node != null) updateNode(node); else updateEdge(edge);
+                break;
+            case "remove":
+                if (node != null) removeNode(idOf(node)); else removeEdge(idOf(edge));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown op '" + op + "'");
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Output
+    // ------------------------------------------------------------------------
+
+    public synchronized byte[] toXml() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Write the BPMN 2.0 XML (UTF-8) of the current graph, after passing its
+     * version to {@code version} (e.g. for a response header). No edit is
+     * applied in between; {@code out} is left open.
+     */
+    public synchronized void write(OutputStream out, LongConsumer version) throws Exception {
+        version.accept(this.version);
+        write(out);
+    }
+
+    /**
+     * Write the BPMN 2.0 XML (UTF-8) of the current graph; {@code out} is left open.
+     */
+    public synchronized void write(OutputStream out) throws Exception {
+        if (unsupported > 0) {
+            BpmnXmlWriter.write(UiJsonToBpmnConverter.editorModel(
+                    UiToFlowableConverterDBX.convert(toUiJson(), template)), out);
+            return;
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("No BPMN processes generated from Flowable JSON");
+        }
+
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        XMLStreamWriter xtw = BpmnXmlWriter.open(writer);
+        DefinitionsRootExport.writeRootElement(model, xtw, "UTF-8");
+        ProcessExport.writeProcess(process, model, xtw);
+        for (Node node : nodes.values()) {
+            BpmnXmlWriter.writeElement(node.element, model, xtw);
+        }
+        for (Edge edge : edges.values()) {
+            if (edge.flow != null) BpmnXmlWriter.writeElement(edge.flow, model, xtw);
+        }
+        xtw.writeEndElement(); // process
+
+        // one shape per element id, as in a BpmnModel: first position, last bounds
+        Map<String, GraphicInfo> shapes = new LinkedHashMap<>();
+        nodes.values().forEach(node -> shapes.put(node.element.getId(), node.bounds));
+        Map<String, List<GraphicInfo>> flows = new LinkedHashMap<>();
+        edges.values().forEach(edge -> {
+            if (edge.flow != null) flows.put(edge.flowId, edge.waypoints);
+        });
+
+        UiGraphBpmnWriter.startDiagram(xtw, process.getId());
+        for (Map.Entry<String, GraphicInfo> shape : shapes.entrySet()) {
+            UiGraphBpmnWriter.writeShape(xtw, shape.getKey(), shape.getValue());
+        }
+        for (Map.Entry<String, List<GraphicInfo>> flow : flows.entrySet()) {
+            UiGraphBpmnWriter.writeEdge(xtw, flow.getKey(), flow.getValue());
+        }
+        UiGraphBpmnWriter.endDocument(xtw, writer);
+    }
+
+    /**
+     * The UI graph as it stands after all edits.
+     */
+    public synchronized ObjectNode toUiJson() {
+        ObjectNode root = M.createObjectNode();
+        ArrayNode nodeArray = root.putArray("nodes");
+        nodes.values().forEach(node -> nodeArray.add(node.json));
+        anonymousNodes.forEach(nodeArray::add);
+        ArrayNode edgeArray = root.putArray("edges");
+        edges.values().forEach(edge -> edgeArray.add(edge.json));
+        return root;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Resolve and compile a node with its current degree.
+     */
+    private void compile(String id, Node node) {
+        Incidence inc = incidence.get(id);
+        UiNode ui = UiJsonBinding.node(node.json);
+        NodeTypeConfig resolved = UiToFlowableConverterDBX.resolveNode(
+                id, ui.data(), template, inc != null ? inc.in : 0, inc != null ? inc.out : 0);
+        FlowNode element = UiToBpmnModelCompiler.compileNode(id, resolved);
+
+        boolean wasSupported = node.resolved == null || node.element != null;
+        if (wasSupported && element == null) unsupported++;
+        if (!wasSupported && element != null) unsupported--;
+
+        node.resolved = resolved;
+        node.element = element;
+        node.bounds = UiToBpmnModelCompiler.bounds(ui.bounds());
+    }
+
+    /**
+     * Recompile an edge endpoint whose degree changed, if that changes its
+     * properties.
+     */
+    private void refresh(String id) {
+        Node node = id != null ? nodes.get(id) : null;
+        if (node == null) return;
+        Incidence inc = incidence.get(id);
+        NodeTypeConfig resolved = UiToFlowableConverterDBX.resolveNode(
+                node.json, template, inc != null ? inc.in : 0, inc != null ? inc.out : 0);
+        if (resolved.stencilId.equals(node.resolved.stencilId)
+                && resolved.properties.equals(node.resolved.properties)) {
+            return;
+        }
+        compile(id, node);
+        relinkEdges(id);
+    }
+
+    private void refreshEnds(Edge edge) {
+        refresh(edge.source);
+        if (edge.target != null && !edge.target.equals(edge.source)) refresh(edge.target);
+    }
+
+    private void relinkEdges(String id) {
+        Incidence inc = incidence.get(id);
+        if (inc == null) return;
+        for (String key : inc.edges) {
+            link(edges.get(key));
+        }
+    }
+
+    /**
+     * Build the flow and waypoints of an edge, or clear them while an end is
+     * missing or not compiled.
+     */
+    private void link(Edge edge) {
+        Node source = edge.source != null ? nodes.get(edge.source) : null;
+        Node target = edge.target != null ? nodes.get(edge.target) : null;
+        if (source == null || target == null || source.element == null || target.element == null) {
+            edge.flow = null;
+            edge.waypoints = null;
+            return;
+        }
+        SequenceFlow flow = new SequenceFlow(source.element.getId(), target.element.getId());
+        flow.setId(edge.flowId);
+        edge.flow = flow;
+        edge.waypoints = UiToBpmnModelCompiler.waypoints(
+                source.resolved.stencilId, source.bounds, target.resolved.stencilId, target.bounds);
+    }
+
+    private void attach(Edge edge) {
+        if (edge.source != null) {
+            Incidence inc = incidence.computeIfAbsent(edge.source, k -> new Incidence());
+            inc.out++;
+            inc.edges.add(edge.key);
+        }
+        if (edge.target != null) {
+            Incidence inc = incidence.computeIfAbsent(edge.target, k -> new Incidence());
+            inc.in++;
+            inc.edges.add(edge.key);
+        }
+    }
+
+    private void detach(Edge edge) {
+        if (edge.source != null) release(edge.source, edge.key, false);
+        if (edge.target != null) release(edge.target, edge.key, true);
+    }
+
+    private void release(String id, String key, boolean incoming) {
+        Incidence inc = incidence.get(id);
+        if (incoming) inc.in--; else inc.out--;
+        inc.edges.remove(key);
+        if (inc.in + inc.out == 0) {
+            incidence.remove(id);
+        }
+    }
+
+    private Node existingNode(String id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            throw new IllegalArgumentException("Unknown node '" + id + "'");
+        }
+        return node;
+    }
+
+    private Edge existingEdge(String key) {
+        Edge edge = edges.get(key);
+        if (edge == null) {
+            throw new IllegalArgumentException("Unknown edge '" + key + "'");
+        }
+        return edge;
+    }
+
+    private static String nodeId(JsonNode n) {
+        if (n == null || !n.isObject()) {
+            throw new IllegalArgumentException("A node must be a JSON object");
+        }
+        String id = UiToFlowableConverterDBX.text(n, "id");
+        if (id == null) {
+            throw new IllegalArgumentException("A node needs an id");
+        }
+        return id;
+    }
+
+    private static JsonNode edgeObject(JsonNode e) {
+        if (e == null || !e.isObject()) {
+            throw new IllegalArgumentException("An edge must be a JSON object");
+        }
+        return e;
+    }
+
+    private static String idOf(JsonNode ref) {
+        String id = ref.isObject() ? UiToFlowableConverterDBX.text(ref, "id") : ref.asText(null);
+        if (id == null) {
+            throw new IllegalArgumentException("A removed node or edge needs an id");
+        }
+        return id;
+    }
+
+    /**
+     * A UI node and what it compiled to; {@code element} is {@code null} when
+     * the compiler does not cover it.
+     */
+    private static final class Node {
+        JsonNode json;
+        NodeTypeConfig resolved;
+        FlowNode element;
+        GraphicInfo bounds;
+
+        Node(JsonNode json) {
+            this.json = json;
+        }
+    }
+
+    /**
+     * A UI edge and its flow; {@code flow} is {@code null} while an end is
+     * missing or not compiled.
+     */
+    private static final class Edge {
+        final JsonNode json;
+        final String key;
+        final String source;
+        final String target;
+        final String flowId;
+        SequenceFlow flow;
+        List<GraphicInfo> waypoints;
+
+        Edge(JsonNode json) {
+            this.json = json;
+            this.source = UiToFlowableConverterDBX.text(json, "source");
+            this.target = UiToFlowableConverterDBX.text(json, "target");
+            this.key = key(json);
+            this.flowId = UiToFlowableConverterDBX.sanitize(key);
+        }
+
+        static String key(JsonNode json) {
+            String id = UiToFlowableConverterDBX.text(json, "id");
+            if (id != null) {
+                return id;
+            }
+            return "flow_" + UiToFlowableConverterDBX.text(json, "source")
+                    + "__" + UiToFlowableConverterDBX.text(json, "target");
+        }
+    }
+
+    /**
+     * Degree of a node id and the keys of the edges referencing it.
+     */
+    private static final class Incidence {
+        int in;
+        int out;
+        final Set<String> edges = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,251 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.ConverterConfig;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, compiled form of a {@link ConverterConfig}.
+ *
+ * Property blocks are deep-copied once at compile time and never handed out;
+ * each converted node gets its own copy. One template can be shared by any
+ * number of concurrent conversions.
+ *
+ * Templates are cached twice: by the config JSON text ({@link #forJson(String)})
+ * and by an id chosen by the caller ({@link #register(String, ConverterConfig)}).
+ *
+ * Usage:
+ * <pre>
+ * ConverterTemplate.register("loans", cfg);
+ * UiJsonToBpmnConverter.convertWithTemplate(uiJson, ConverterTemplate.get("loans"));
+ * </pre>
+ */
+public final class ConverterTemplate {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    /** Stencil of UI node types without a mapping. */
+    static final String DEFAULT_STENCIL = "ServiceTask";
+
+    // distinct config documents kept compiled
+    private static final int MAX_CACHED_JSON = 64;
+
+    private static final ConverterTemplate DEFAULTS = compile(ConverterConfig.defaultConfig());
+
+    private static final Map<String, ConverterTemplate> BY_ID = new ConcurrentHashMap<>();
+
+    private static final Map<String, ConverterTemplate> BY_JSON = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ConverterTemplate> eldest) {
+            return size() > MAX_CACHED_JSON;
+        }
+    };
+
+    final String processId;
+    final String processName;
+    final String namespace;
+    final int flowBoundsPadding;
+
+    private final Map<String, NodeTemplate> nodeTypes;
+    private final Map<String, ObjectNode> nodeOverrides;
+    private final Map<String, ObjectNode> flowOverrides;
+    private final byte[] fingerprint;
+
+    private ConverterTemplate(ConverterConfig cfg) {
+        this.processId = cfg.process.processId;
+        this.processName = cfg.process.name;
+        this.namespace = cfg.process.namespace;
+        this.flowBoundsPadding = cfg.flowBoundsPadding;
+
+        Map<String, NodeTemplate> types = new LinkedHashMap<>();
+        cfg.nodeTypeMap.forEach((type, node) -> types.put(type, new NodeTemplate(node.stencilId, node.properties)));
+        this.nodeTypes = Collections.unmodifiableMap(types);
+        this.nodeOverrides = copy(cfg.nodeOverrides);
+        this.flowOverrides = copy(cfg.flowOverrides);
+        this.fingerprint = digest();
+    }
+
+    /**
+     * Compile a config. Later changes to {@code cfg} do not affect the template.
+     */
+    public static ConverterTemplate compile(ConverterConfig cfg) {
+        return new ConverterTemplate(Objects.requireNonNull(cfg, "cfg"));
+    }
+
+    /**
+     * Template of {@link ConverterConfig#defaultConfig()}.
+     */
+    public static ConverterTemplate defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Template of the default config with {@code configJson} applied
+     * ({@link ConverterConfig#applyFromJson(JsonNode)}); {@code null} or blank
+     * means the defaults. Compiled once per distinct text.
+     */
+    public static ConverterTemplate forJson(String configJson) throws IOException {
+        if (configJson == null || configJson.isBlank()) {
+            return DEFAULTS;
+        }
+        synchronized (BY_JSON) {
+            ConverterTemplate cached = BY_JSON.get(configJson);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ConverterConfig cfg = ConverterConfig.defaultConfig();
+        cfg.applyFromJson(M.readTree(configJson));
+        ConverterTemplate template = compile(cfg);
+        synchronized (BY_JSON) {
+            BY_JSON.put(configJson, template);
+        }
+        return template;
+    }
+
+    /**
+     * Compile {@code cfg} and make it available as {@link #get(String) get(id)},
+     * replacing any template registered under the same id.
+     */
+    public static ConverterTemplate register(String id, ConverterConfig cfg) {
+        ConverterTemplate template = compile(cfg);
+        BY_ID.put(Objects.requireNonNull(id, "id"), template);
+        return template;
+    }
+
+    /**
+     * Registered template, or {@code null} if none is registered under {@code id}.
+     */
+    public static ConverterTemplate get(String id) {
+        return BY_ID.get(id);
+    }
+
+    public static ConverterTemplate unregister(String id) {
+        return BY_ID.remove(id);
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public String getProcessName() {
+        return processName;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Mapping of a UI node type (lower case), or {@code null} if not configured.
+     */
+    NodeTemplate nodeType(String type) {
+        return nodeTypes.get(type);
+    }
+
+    /**
+     * Stencil a UI node type is converted to.
+     */
+    String stencilId(String nodeType) {
+        NodeTemplate mapping = nodeTypes.get(UiNodeType.key(nodeType));
+        return mapping != null ? mapping.stencilId : DEFAULT_STENCIL;
+    }
+
+    /**
+     * Override properties of a UI node id, or {@code null}. Not to be modified.
+     */
+    ObjectNode nodeOverride(String nodeId) {
+        return nodeOverrides.get(nodeId);
+    }
+
+    /**
+     * SHA-256 of everything that affects a conversion.
+     */
+    byte[] fingerprint() {
+        return fingerprint;
+    }
+
+    private byte[] digest() {
+        ContentDigest d = new ContentDigest();
+        d.put(processId);
+        d.put(processName);
+        d.put(namespace);
+        d.put(flowBoundsPadding);
+        // lookups are by key, so map order does not matter; property order does
+        Map<String, NodeTemplate> types = new TreeMap<>(nodeTypes);
+        d.put(types.size());
+        types.forEach((type, node) -> {
+            d.put(type);
+            d.put(node.stencilId);
+            d.put(node.properties);
+        });
+        putSorted(d, nodeOverrides);
+        putSorted(d, flowOverrides);
+        return d.digest();
+    }
+
+    private static void putSorted(ContentDigest d, Map<String, ObjectNode> overrides) {
+        Map<String, ObjectNode> sorted = new TreeMap<>(overrides);
+        d.put(sorted.size());
+        sorted.forEach((id, props) -> {
+            d.put(id);
+            d.put(props);
+        });
+    }
+
+    private static Map<String, ObjectNode> copy(Map<String, ObjectNode> overrides) {
+        Map<String, ObjectNode> copy = new LinkedHashMap<>();
+        overrides.forEach((id, props) -> copy.put(id, props != null ? props.deepCopy() : M.createObjectNode()));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Stencil and property block of one UI node type.
+     */
+    static final class NodeTemplate {
+        final String stencilId;
+        private final ObjectNode properties;
+        // only scalar values: a shallow copy is independent of the template
+        private final boolean flat;
+
+        NodeTemplate(String stencilId, ObjectNode properties) {
+            this.stencilId = stencilId;
+            this.properties = properties != null ? properties.deepCopy() : M.createObjectNode();
+            this.flat = isFlat(this.properties);
+        }
+
+        /**
+         * A private, modifiable copy of the property block.
+         */
+        ObjectNode newProperties() {
+            if (!flat) {
+                return properties.deepCopy();
+            }
+            ObjectNode copy = M.createObjectNode();
+            copy.setAll(properties);
+            return copy;
+        }
+
+        private static boolean isFlat(ObjectNode properties) {
+            Iterator<JsonNode> values = properties.elements();
+            while (values.hasNext()) {
+                if (values.next().isContainerNode()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
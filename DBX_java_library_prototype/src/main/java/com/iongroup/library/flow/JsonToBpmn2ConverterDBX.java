@@ -2,7 +2,6 @@ package com.iongroup.library.flow;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.flowable.bpmn.converter.BpmnXMLConverter;
 import org.flowable.bpmn.model.BpmnModel;
 import org.flowable.bpmn.model.BaseElement;
 import org.flowable.bpmn.model.FlowElement;
@@ -13,10 +12,11 @@ import org.flowable.bpmn.model.Process;
 
 import org.flowable.editor.language.json.converter.BpmnJsonConverter;
 
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Iterator;
+import java.util.Set;
 
 /**
  * DBX internal version of JsonToBpmn2Converter (keeps behavior identical)
@@ -25,13 +25,46 @@ public class JsonToBpmn2ConverterDBX {
     private static final String DISPATCHER_CLASS =
         "com.iongroup.library.adapter.flowable.OperationDispatcherDelegate";
 
+    private static final Set<String> RESERVED_KEYS = Set.of(
+        "name",
+        "delegationId",
+        "delegationType",
+        "selectedFields",
+        "requiredFields"
+    );
+
     /**
      * Convert a Flowable editor JSON string to BPMN 2.0 XML bytes
      */
     public static byte[] convertJsonToBpmn(String json) throws Exception {
         ObjectMapper mapper = new ObjectMapper();
-        JsonNode editorRoot = mapper.readTree(json);
+        return convertJsonToBpmn(mapper.readTree(json));
+    }
+
+    /**
+     * Convert an already parsed Flowable editor JSON tree to BPMN 2.0 XML bytes
+     */
+    public static byte[] convertJsonToBpmn(JsonNode editorRoot) {
+        return toXml(toModel(editorRoot));
+    }
+
+    /**
+     * Convert a Flowable editor JSON tree and write the BPMN 2.0 XML to
+     * {@code out}, which is left open
+     */
+    public static void convertJsonToBpmn(JsonNode editorRoot, OutputStream out) {
+        BpmnXmlWriter.write(toModel(editorRoot), out);
+    }
+
+    /**
+     * Write the model as BPMN 2.0 XML without the exporterVersion attribute
+     * (Flowable stamps its own version on converted models).
+     */
+    static byte[] toXml(BpmnModel model) {
+        return BpmnXmlWriter.toBytes(model);
+    }
 
+    private static BpmnModel toModel(JsonNode editorRoot) {
         BpmnJsonConverter jsonConverter = new BpmnJsonConverter();
         BpmnModel model = jsonConverter.convertToBpmnModel(editorRoot);
 
@@ -40,73 +73,67 @@ public class JsonToBpmn2ConverterDBX {
         }
 
         enrichTasks(editorRoot, model);
-
-        BpmnXMLConverter xmlConverter = new BpmnXMLConverter();
-        byte[] xmlBytes = xmlConverter.convertToXML(model);
-
-        // Normalize XML to remove exporterVersion (Flowable may add version attribute)
-        String xml = new String(xmlBytes, StandardCharsets.UTF_8);
-        xml = xml.replaceAll("\\s+exporterVersion=\"[^\"]+\"", "");
-        return xml.getBytes(StandardCharsets.UTF_8);
+        return model;
     }
 
     // ------------------------------------------------------------------------
 
-    private static void enrichTasks(JsonNode editorRoot, BpmnModel model) {
+    static void enrichTasks(JsonNode editorRoot, BpmnModel model) {
 
         Map<String, JsonNode> idToProps = new HashMap<>();
         collectTaskProperties(editorRoot, idToProps);
 
-        java.util.Set<String> reservedKeys = java.util.Set.of(
-            "name",
-            "delegationId",
-            "delegationType",
-            "selectedFields",
-            "requiredFields"
-        );
-
         for (Process process : model.getProcesses()) {
             for (FlowElement fe : process.getFlowElements()) {
 
                 JsonNode props = idToProps.get(fe.getId());
-                if (props == null) continue;
-
-                String label = text(props.get("name"));
-                String delegationId = text(props.get("delegationId"));
-
-                if (fe instanceof ServiceTask) {
-                    ServiceTask st = (ServiceTask) fe;
-
-                    // mirror json-to-bpmn2 behavior: route service tasks to dispatcher class
-                    st.setImplementationType("class");
-                    st.setImplementation(DISPATCHER_CLASS);
-
-                    if (label != null) st.setName(label);
-
-                    addExt(st, "delegationId", delegationId);
-                    addExt(st, "delegationType", text(props.get("delegationType")));
-                    addExt(st, "selectedFields", text(props.get("selectedFields")));
-                    addExt(st, "requiredFields", text(props.get("requiredFields")));
-
-                    Iterator<String> it = props.fieldNames();
-                    while (it.hasNext()) {
-                        String key = it.next();
-                        if (!reservedKeys.contains(key)) {
-                            addExt(st, key, text(props.get(key)));
-                        }
-                    }
-                } else if (fe instanceof UserTask) {
-                    UserTask ut = (UserTask) fe;
-                    if (label != null) ut.setName(label);
-
-                    addExt(ut, "delegationId", delegationId);
-                    addExt(ut, "selectedFields", text(props.get("selectedFields")));
-                    addExt(ut, "requiredFields", text(props.get("requiredFields")));
+                if (props != null) {
+                    enrich(fe, props);
                 }
             }
         }
     }
 
+    /**
+     * Route a service task to the dispatcher and copy the DBX properties of a
+     * service or user task into flowable extension elements.
+     */
+    static void enrich(FlowElement fe, JsonNode props) {
+
+        String label = text(props.get("name"));
+        String delegationId = text(props.get("delegationId"));
+
+        if (fe instanceof ServiceTask) {
+            ServiceTask st = (ServiceTask) fe;
+
+            // mirror json-to-bpmn2 behavior: route service tasks to dispatcher class
+            st.setImplementationType("class");
+            st.setImplementation(DISPATCHER_CLASS);
+
+            if (label != null) st.setName(label);
+
+            addExt(st, "delegationId", delegationId);
+            addExt(st, "delegationType", text(props.get("delegationType")));
+            addExt(st, "selectedFields", text(props.get("selectedFields")));
+            addExt(st, "requiredFields", text(props.get("requiredFields")));
+
+            Iterator<String> it = props.fieldNames();
+            while (it.hasNext()) {
+                String key = it.next();
+                if (!RESERVED_KEYS.contains(key)) {
+                    addExt(st, key, text(props.get(key)));
+                }
+            }
+        } else if (fe instanceof UserTask) {
+            UserTask ut = (UserTask) fe;
+            if (label != null) ut.setName(label);
+
+            addExt(ut, "delegationId", delegationId);
+            addExt(ut, "selectedFields", text(props.get("selectedFields")));
+            addExt(ut, "requiredFields", text(props.get("requiredFields")));
+        }
+    }
+
     private static void collectTaskProperties(JsonNode node, Map<String, JsonNode> out) {
         if (node == null) return;
 
@@ -0,0 +1,10 @@
+package com.iongroup.library.flow;
+
+/**
+ * One UI edge; any field may be {@code null}.
+ */
+record UiEdge(String id, String source, String target) {
+
+    /** An edge that is not a JSON object. */
+    static final UiEdge EMPTY = new UiEdge(null, null, null);
+}
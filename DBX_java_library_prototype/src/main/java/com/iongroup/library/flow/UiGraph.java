@@ -0,0 +1,279 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.Bounds;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.NodeTypeConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact UI graph read with a streaming parser.
+ *
+ * Only the node and edge fields the converters use are kept, in int-indexed
+ * columns. Nodes and edges are bound straight from the tokens
+ * ({@link UiJsonBinding}), without a Jackson tree. Edge endpoints are node
+ * indexes, {@code -1} when the node does not exist.
+ *
+ * A graph read once can be validated ({@link UiGraphValidator}), looked up in
+ * a {@link ConversionCache} and converted ({@link UiJsonToBpmnConverter})
+ * without parsing the JSON again. It is not changed by any of them.
+ */
+public final class UiGraph {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    int nodeCount;
+    String[] nodeId = new String[INITIAL_CAPACITY];
+    UiNodeData[] data = new UiNodeData[INITIAL_CAPACITY];
+    /** x, y, width, height per node. */
+    double[] geometry = new double[INITIAL_CAPACITY * 4];
+    int[] indeg;
+    int[] outdeg;
+
+    int edgeCount;
+    String[] edgeId = new String[INITIAL_CAPACITY];
+    int[] source;
+    int[] target;
+
+    // endpoint ids as written, including ones that match no node
+    String[] sourceId = new String[INITIAL_CAPACITY];
+    String[] targetId = new String[INITIAL_CAPACITY];
+    private final Map<String, Integer> index = new HashMap<>();
+
+    private UiGraph() {
+    }
+
+    /**
+     * Read the {@code nodes} and {@code edges} of a UI JSON document. The
+     * stream is left open.
+     */
+    public static UiGraph read(InputStream in) throws IOException {
+        try (JsonParser parser = UiJsonBinding.M.createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Read UI JSON encoded as UTF-8 (or UTF-16/32, detected), without
+     * decoding it to a String first.
+     */
+    public static UiGraph read(byte[] json) throws IOException {
+        try (JsonParser parser = UiJsonBinding.M.createParser(json)) {
+            return read(parser);
+        }
+    }
+
+    public static UiGraph read(String json) throws IOException {
+        try (JsonParser parser = UiJsonBinding.M.createParser(json)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * Same as {@link #read(String)} for a UI JSON tree.
+     */
+    public static UiGraph read(JsonNode uiJson) {
+        UiGraph g = new UiGraph();
+        JsonNode nodes = uiJson.get("nodes");
+        if (nodes != null && nodes.isArray()) {
+            nodes.forEach(n -> g.addNode(UiJsonBinding.node(n)));
+        }
+        JsonNode edges = uiJson.get("edges");
+        if (edges != null && edges.isArray()) {
+            edges.forEach(e -> g.addEdge(UiJsonBinding.edge(e)));
+        }
+        g.link();
+        return g;
+    }
+
+    static UiGraph read(JsonParser parser) throws IOException {
+        UiGraph g = new UiGraph();
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("nodes".equals(field)) {
+                    g.clearNodes(); // last occurrence wins, as in a tree
+                    if (token == JsonToken.START_ARRAY) {
+                        MappingIterator<UiNode> nodes = UiJsonBinding.nodes(parser);
+                        while (nodes.hasNextValue()) {
+                            g.addNode(nodes.nextValue());
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if ("edges".equals(field)) {
+                    g.edgeCount = 0;
+                    if (token == JsonToken.START_ARRAY) {
+                        MappingIterator<UiEdge> edges = UiJsonBinding.edges(parser);
+                        while (edges.hasNextValue()) {
+                            g.addEdge(edges.nextValue());
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        g.link();
+        return g;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Stencil and editor properties of node {@code i}.
+     */
+    NodeTypeConfig resolve(int i, ConverterTemplate cfg) {
+        return UiToFlowableConverterDBX.resolveNode(nodeId[i], data[i], cfg, indeg[i], outdeg[i]);
+    }
+
+    Bounds bounds(int i) {
+        double x = geometry[i * 4];
+        double y = geometry[i * 4 + 1];
+        return new Bounds(x, y, x + geometry[i * 4 + 2], y + geometry[i * 4 + 3]);
+    }
+
+    /**
+     * Sequence flow id of edge {@code e}; both endpoints must exist.
+     */
+    String flowId(int e) {
+        String id = edgeId[e];
+        return UiToFlowableConverterDBX.sanitize(id != null ? id : "flow_" + nodeId[source[e]] + "__" + nodeId[target[e]]);
+    }
+
+    /**
+     * Equivalent UI JSON tree, for the converters that need one.
+     */
+    ObjectNode toUiJson() {
+        ObjectNode root = UiJsonBinding.M.createObjectNode();
+        ArrayNode nodes = root.putArray("nodes");
+        for (int i = 0; i < nodeCount; i++) {
+            ObjectNode n = nodes.addObject();
+            n.put("id", nodeId[i]);
+            UiNodeData d = data[i];
+            ObjectNode json = n.putObject("data");
+            putIfPresent(json, "nodeType", d.nodeType());
+            putIfPresent(json, "label", d.label());
+            putIfPresent(json, "delegationId", d.delegationId());
+            putIfPresent(json, "delegationName", d.delegationName());
+            putIfPresent(json, "delegationType", d.delegationType());
+            if (d.selectedFields() != null) {
+                ArrayNode selected = json.putArray("selectedFields");
+                d.selectedFields().forEach(selected::add);
+            }
+            if (d.customFields() != null) {
+                ObjectNode custom = json.putObject("customFields");
+                d.customFields().forEach(custom::put);
+            }
+            ObjectNode position = n.putObject("position");
+            position.put("x", geometry[i * 4]);
+            position.put("y", geometry[i * 4 + 1]);
+            n.put("width", geometry[i * 4 + 2]);
+            n.put("height", geometry[i * 4 + 3]);
+        }
+        ArrayNode edges = root.putArray("edges");
+        for (int e = 0; e < edgeCount; e++) {
+            ObjectNode edge = edges.addObject();
+            putIfPresent(edge, "id", edgeId[e]);
+            // a missing endpoint only matters for the degree of the other one
+            putIfPresent(edge, "source", source[e] >= 0 ? nodeId[source[e]] : null);
+            putIfPresent(edge, "target", target[e] >= 0 ? nodeId[target[e]] : null);
+        }
+        return root;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private void addNode(UiNode n) {
+        if (n == null || n.id() == null) return;
+        String id = n.id();
+
+        // a repeated id keeps its first position and takes the later data
+        Integer existing = index.get(id);
+        int i;
+        if (existing != null) {
+            i = existing;
+        } else {
+            i = nodeCount++;
+            ensureNodeCapacity(nodeCount);
+            index.put(id, i);
+        }
+
+        nodeId[i] = id;
+        data[i] = n.data();
+        geometry[i * 4] = n.x();
+        geometry[i * 4 + 1] = n.y();
+        geometry[i * 4 + 2] = n.width();
+        geometry[i * 4 + 3] = n.height();
+    }
+
+    private void addEdge(UiEdge e) {
+        int i = edgeCount++;
+        if (i == edgeId.length) {
+            int capacity = i * 2;
+            edgeId = Arrays.copyOf(edgeId, capacity);
+            sourceId = Arrays.copyOf(sourceId, capacity);
+            targetId = Arrays.copyOf(targetId, capacity);
+        }
+        edgeId[i] = e.id();
+        sourceId[i] = e.source();
+        targetId[i] = e.target();
+    }
+
+    private void clearNodes() {
+        nodeCount = 0;
+        index.clear();
+    }
+
+    private void ensureNodeCapacity(int count) {
+        if (count <= nodeId.length) return;
+        int capacity = nodeId.length * 2;
+        nodeId = Arrays.copyOf(nodeId, capacity);
+        data = Arrays.copyOf(data, capacity);
+        geometry = Arrays.copyOf(geometry, capacity * 4);
+    }
+
+    /**
+     * Resolve edge endpoints to node indexes and count node degrees.
+     */
+    private void link() {
+        indeg = new int[nodeCount];
+        outdeg = new int[nodeCount];
+        source = new int[edgeCount];
+        target = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            source[e] = indexOf(sourceId[e]);
+            target[e] = indexOf(targetId[e]);
+            if (source[e] >= 0) outdeg[source[e]]++;
+            if (target[e] >= 0) indeg[target[e]]++;
+        }
+        index.clear();
+    }
+
+    private int indexOf(String id) {
+        Integer i = id != null ? index.get(id) : null;
+        return i != null ? i : -1;
+    }
+
+    private static void putIfPresent(ObjectNode node, String field, String value) {
+        if (value != null) node.put(field, value);
+    }
+}
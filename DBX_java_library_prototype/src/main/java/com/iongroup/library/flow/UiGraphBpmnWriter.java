@@ -0,0 +1,193 @@
+package com.iongroup.library.flow;
+
+import com.iongroup.library.flow.UiToFlowableConverterDBX.NodeTypeConfig;
+import org.flowable.bpmn.converter.export.DefinitionsRootExport;
+import org.flowable.bpmn.converter.export.ProcessExport;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.bpmn.model.FlowNode;
+import org.flowable.bpmn.model.GraphicInfo;
+import org.flowable.bpmn.model.Process;
+import org.flowable.bpmn.model.SequenceFlow;
+
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link UiGraph} as BPMN 2.0 XML element by element.
+ *
+ * Flow elements are compiled one at a time ({@link UiToBpmnModelCompiler})
+ * and written with Flowable's element converters, so no BpmnModel of the
+ * whole graph is built. The output matches {@link UiToBpmnModelCompiler}
+ * followed by {@link BpmnXmlWriter}.
+ */
+final class UiGraphBpmnWriter {
+
+    private static final String BPMNDI_PREFIX = "bpmndi";
+    private static final String BPMNDI_NAMESPACE = "http://www.omg.org/spec/BPMN/20100524/DI";
+    private static final String OMGDC_NAMESPACE = "http://www.omg.org/spec/DD/20100524/DC";
+    private static final String OMGDI_NAMESPACE = "http://www.omg.org/spec/DD/20100524/DI";
+    private static final String FLOWABLE_NAMESPACE = "http://flowable.org/bpmn";
+
+    private UiGraphBpmnWriter() {
+    }
+
+    /**
+     * Write the graph, or return {@code false} without writing anything when
+     * it needs the editor JSON pipeline.
+     */
+    static boolean write(UiGraph g, ConverterTemplate cfg, OutputStream out) throws Exception {
+
+        // resolve every node once up front so nothing is written for unsupported graphs
+        String[] elementId = new String[g.nodeCount];
+        String[] stencilId = new String[g.nodeCount];
+        for (int i = 0; i < g.nodeCount; i++) {
+            NodeTypeConfig node = g.resolve(i, cfg);
+            FlowNode element = UiToBpmnModelCompiler.compileNode(g.nodeId[i], node);
+            if (element == null) {
+                return false;
+            }
+            elementId[i] = element.getId();
+            stencilId[i] = node.stencilId;
+        }
+        if (g.nodeCount == 0) {
+            throw new IllegalStateException("No BPMN processes generated from Flowable JSON");
+        }
+
+        BpmnModel model = UiToBpmnModelCompiler.newModel(cfg);
+        Process process = UiToBpmnModelCompiler.newProcess(cfg);
+
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        XMLStreamWriter xtw = BpmnXmlWriter.open(writer);
+
+        DefinitionsRootExport.writeRootElement(model, xtw, "UTF-8");
+        ProcessExport.writeProcess(process, model, xtw);
+
+        for (int i = 0; i < g.nodeCount; i++) {
+            BpmnXmlWriter.writeElement(UiToBpmnModelCompiler.compileNode(g.nodeId[i], g.resolve(i, cfg)), model, xtw);
+        }
+        for (int e = 0; e < g.edgeCount; e++) {
+            if (g.source[e] < 0 || g.target[e] < 0) continue;
+            SequenceFlow flow = new SequenceFlow(elementId[g.source[e]], elementId[g.target[e]]);
+            flow.setId(g.flowId(e));
+            BpmnXmlWriter.writeElement(flow, model, xtw);
+        }
+        xtw.writeEndElement(); // process
+
+        startDiagram(xtw, process.getId());
+
+        // one shape and edge per id, as in a BpmnModel: first position, last bounds
+        GraphicInfo[] bounds = new GraphicInfo[g.nodeCount];
+        Map<String, GraphicInfo> shapes = new LinkedHashMap<>();
+        for (int i = 0; i < g.nodeCount; i++) {
+            bounds[i] = UiToBpmnModelCompiler.bounds(g.bounds(i));
+            shapes.put(elementId[i], bounds[i]);
+        }
+        for (Map.Entry<String, GraphicInfo> shape : shapes.entrySet()) {
+            writeShape(xtw, shape.getKey(), shape.getValue());
+        }
+        Map<String, List<GraphicInfo>> edges = new LinkedHashMap<>();
+        for (int e = 0; e < g.edgeCount; e++) {
+            int s = g.source[e];
+            int t = g.target[e];
+            if (s < 0 || t < 0) continue;
+            edges.put(g.flowId(e), UiToBpmnModelCompiler.waypoints(stencilId[s], bounds[s], stencilId[t], bounds[t]));
+        }
+        for (Map.Entry<String, List<GraphicInfo>> edge : edges.entrySet()) {
+            writeEdge(xtw, edge.getKey(), edge.getValue());
+        }
+
+        endDocument(xtw, writer);
+        return true;
+    }
+
+    /**
+     * Open the diagram and plane of {@code processId}, after the process.
+     */
+    static void startDiagram(XMLStreamWriter xtw, String processId) throws Exception {
+        xtw.writeStartElement(BPMNDI_PREFIX, "BPMNDiagram", BPMNDI_NAMESPACE);
+        xtw.writeAttribute("id", "BPMNDiagram_" + processId);
+        xtw.writeStartElement(BPMNDI_PREFIX, "BPMNPlane", BPMNDI_NAMESPACE);
+        xtw.writeAttribute("bpmnElement", processId);
+        xtw.writeAttribute("id", "BPMNPlane_" + processId);
+    }
+
+    /**
+     * Close the plane, diagram and definitions and flush everything to the stream.
+     */
+    static void endDocument(XMLStreamWriter xtw, Writer writer) throws Exception {
+        xtw.writeEndElement(); // BPMNPlane
+        xtw.writeEndElement(); // BPMNDiagram
+        xtw.writeEndElement(); // definitions
+        xtw.writeEndDocument();
+        xtw.flush();
+        writer.flush();
+    }
+
+    static void writeShape(XMLStreamWriter xtw, String elementId, GraphicInfo bounds) throws Exception {
+        writeShape(xtw, elementId, bounds, null);
+    }
+
+    /**
+     * @param expanded {@code isExpanded} of a sub-process, or {@code null}
+     */
+    static void writeShape(XMLStreamWriter xtw, String elementId, GraphicInfo bounds, Boolean expanded)
+            throws Exception {
+        xtw.writeStartElement(BPMNDI_PREFIX, "BPMNShape", BPMNDI_NAMESPACE);
+        xtw.writeAttribute("bpmnElement", elementId);
+        xtw.writeAttribute("id", "BPMNShape_" + elementId);
+        if (expanded != null) {
+            xtw.writeAttribute("isExpanded", String.valueOf(expanded));
+        }
+        writeBounds(xtw, bounds);
+        xtw.writeEndElement();
+    }
+
+    static void writeEdge(XMLStreamWriter xtw, String flowId, List<GraphicInfo> waypoints) throws Exception {
+        GraphicInfo docker = new GraphicInfo(UiToBpmnModelCompiler.DOCKER, UiToBpmnModelCompiler.DOCKER);
+        writeEdge(xtw, flowId, docker, docker, waypoints, null);
+    }
+
+    /**
+     * @param sourceDocker docker positions, not written when either is {@code null}
+     * @param label bounds of the edge label, or {@code null}
+     */
+    static void writeEdge(XMLStreamWriter xtw, String flowId, GraphicInfo sourceDocker, GraphicInfo targetDocker,
+            List<GraphicInfo> waypoints, GraphicInfo label) throws Exception {
+        xtw.writeStartElement(BPMNDI_PREFIX, "BPMNEdge", BPMNDI_NAMESPACE);
+        xtw.writeAttribute("bpmnElement", flowId);
+        xtw.writeAttribute("id", "BPMNEdge_" + flowId);
+        if (sourceDocker != null && targetDocker != null) {
+            xtw.writeAttribute(FLOWABLE_NAMESPACE, "sourceDockerX", String.valueOf(sourceDocker.getX()));
+            xtw.writeAttribute(FLOWABLE_NAMESPACE, "sourceDockerY", String.valueOf(sourceDocker.getY()));
+            xtw.writeAttribute(FLOWABLE_NAMESPACE, "targetDockerX", String.valueOf(targetDocker.getX()));
+            xtw.writeAttribute(FLOWABLE_NAMESPACE, "targetDockerY", String.valueOf(targetDocker.getY()));
+        }
+        for (GraphicInfo point : waypoints) {
+            xtw.writeStartElement("omgdi", "waypoint", OMGDI_NAMESPACE);
+            xtw.writeAttribute("x", String.valueOf(point.getX()));
+            xtw.writeAttribute("y", String.valueOf(point.getY()));
+            xtw.writeEndElement();
+        }
+        if (label != null) {
+            xtw.writeStartElement(BPMNDI_PREFIX, "BPMNLabel", BPMNDI_NAMESPACE);
+            writeBounds(xtw, label);
+            xtw.writeEndElement();
+        }
+        xtw.writeEndElement();
+    }
+
+    private static void writeBounds(XMLStreamWriter xtw, GraphicInfo bounds) throws Exception {
+        xtw.writeStartElement("omgdc", "Bounds", OMGDC_NAMESPACE);
+        xtw.writeAttribute("height", String.valueOf(bounds.getHeight()));
+        xtw.writeAttribute("width", String.valueOf(bounds.getWidth()));
+        xtw.writeAttribute("x", String.valueOf(bounds.getX()));
+        xtw.writeAttribute("y", String.valueOf(bounds.getY()));
+        xtw.writeEndElement();
+    }
+}
@@ -0,0 +1,316 @@
+package com.iongroup.library.flow;
+
+import com.iongroup.library.registry.RegistryConfiguration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Structural checks of a UI graph, run before conversion.
+ *
+ * Every check is linear in nodes and edges and all problems are reported at
+ * once:
+ * <ul>
+ *   <li>edges whose source or target is missing or unknown</li>
+ *   <li>missing start or end events, starts with incoming and ends with outgoing edges</li>
+ *   <li>nodes not reachable from a start, or with no path to an end</li>
+ *   <li>cycles that contain no gateway (tokens can never leave them)</li>
+ *   <li>parallel splits without matching joins, and vice versa</li>
+ *   <li>{@code delegationId}s that are not registered operations</li>
+ * </ul>
+ * Stencils are those the graph converts to under the given template.
+ */
+public final class UiGraphValidator {
+
+    // node kinds
+    private static final byte TASK = 0;
+    private static final byte START = 1;
+    private static final byte END = 2;
+    private static final byte GATEWAY = 3;
+    private static final byte PARALLEL = 4;
+
+    // node ids listed in a cycle message
+    private static final int MAX_LISTED_IDS = 5;
+
+    private UiGraphValidator() {
+    }
+
+    /**
+     * Validate against the operation registry ({@link RegistryConfiguration}).
+     */
+    public static List<ValidationError> validate(String uiJsonStr, ConverterTemplate template) throws IOException {
+        return validate(uiJsonStr, template, id -> RegistryConfiguration.getOperation(id) != null);
+    }
+
+    /**
+     * @param knownOperation whether a {@code delegationId} is a registered
+     *                       operation; {@code null} skips the check
+     * @return the problems found, empty if the graph is valid
+     */
+    public static List<ValidationError> validate(String uiJsonStr, ConverterTemplate template,
+            Predicate<String> knownOperation) throws IOException {
+        return validate(UiGraph.read(uiJsonStr), template, knownOperation);
+    }
+
+    /**
+     * Validate a graph that was already read, against the operation registry.
+     */
+    public static List<ValidationError> validate(UiGraph g, ConverterTemplate template) {
+        return validate(g, template, id -> RegistryConfiguration.getOperation(id) != null);
+    }
+
+    public static List<ValidationError> validate(UiGraph g, ConverterTemplate template, Predicate<String> knownOperation) {
+        List<ValidationError> errors = new ArrayList<>();
+        int n = g.nodeCount;
+        if (n == 0) {
+            errors.add(new ValidationError(ValidationError.EMPTY_GRAPH, "Graph has no nodes", null, null));
+            return errors;
+        }
+
+        byte[] kind = new byte[n];
+        boolean hasStart = false;
+        boolean hasEnd = false;
+        for (int i = 0; i < n; i++) {
+            kind[i] = kind(template.stencilId(g.data[i].nodeType()));
+            hasStart |= kind[i] == START;
+            hasEnd |= kind[i] == END;
+        }
+
+        checkEdges(g, errors);
+        checkEvents(g, kind, hasStart, hasEnd, errors);
+
+        Adjacency out = new Adjacency(g, true);
+        Adjacency in = new Adjacency(g, false);
+        if (hasStart) {
+            boolean[] reached = reach(n, out, kind, START);
+            for (int i = 0; i < n; i++) {
+                if (!reached[i]) {
+                    errors.add(nodeError(g, i, ValidationError.UNREACHABLE_NODE, "is not reachable from a start event"));
+                }
+            }
+        }
+        if (hasEnd) {
+            boolean[] reaches = reach(n, in, kind, END);
+            for (int i = 0; i < n; i++) {
+                if (!reaches[i]) {
+                    errors.add(nodeError(g, i, ValidationError.NO_PATH_TO_END, "has no path to an end event"));
+                }
+            }
+        }
+        checkCycles(g, out, kind, errors);
+        checkParallelBalance(g, kind, errors);
+
+        if (knownOperation != null) {
+            for (int i = 0; i < n; i++) {
+                String id = g.data[i].delegationId();
+                if (id != null && !id.isEmpty() && !knownOperation.test(id)) {
+                    errors.add(nodeError(g, i, ValidationError.UNKNOWN_OPERATION,
+                            "uses unknown operation '" + id + "'"));
+                }
+            }
+        }
+        return errors;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static byte kind(String stencilId) {
+        if (stencilId.startsWith("Start")) return START;
+        if (stencilId.startsWith("End")) return END;
+        if ("ParallelGateway".equals(stencilId)) return PARALLEL;
+        if (stencilId.endsWith("Gateway")) return GATEWAY;
+        return TASK;
+    }
+
+    private static void checkEdges(UiGraph g, List<ValidationError> errors) {
+        for (int e = 0; e < g.edgeCount; e++) {
+            if (g.source[e] < 0) {
+                errors.add(danglingEdge(g, e, "source", g.sourceId[e]));
+            }
+            if (g.target[e] < 0) {
+                errors.add(danglingEdge(g, e, "target", g.targetId[e]));
+            }
+        }
+    }
+
+    private static ValidationError danglingEdge(UiGraph g, int e, String end, String nodeId) {
+        String message = nodeId == null
+                ? edgeName(g, e) + " has no " + end
+                : edgeName(g, e) + " references unknown " + end + " node '" + nodeId + "'";
+        return new ValidationError(ValidationError.DANGLING_EDGE, message, null, g.edgeId[e]);
+    }
+
+    private static void checkEvents(UiGraph g, byte[] kind, boolean hasStart, boolean hasEnd,
+            List<ValidationError> errors) {
+        if (!hasStart) {
+            errors.add(new ValidationError(ValidationError.MISSING_START, "Graph has no start event", null, null));
+        }
+        if (!hasEnd) {
+            errors.add(new ValidationError(ValidationError.MISSING_END, "Graph has no end event", null, null));
+        }
+        for (int i = 0; i < g.nodeCount; i++) {
+            if (kind[i] == START && g.indeg[i] > 0) {
+                errors.add(nodeError(g, i, ValidationError.START_HAS_INCOMING, "is a start event with incoming edges"));
+            }
+            if (kind[i] == END && g.outdeg[i] > 0) {
+                errors.add(nodeError(g, i, ValidationError.END_HAS_OUTGOING, "is an end event with outgoing edges"));
+            }
+        }
+    }
+
+    /**
+     * Nodes reachable along {@code adj} from any node of kind {@code from}.
+     */
+    private static boolean[] reach(int n, Adjacency adj, byte[] kind, byte from) {
+        boolean[] seen = new boolean[n];
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (kind[i] == from) {
+                seen[i] = true;
+                queue[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int v = queue[head];
+            for (int k = adj.start[v]; k < adj.start[v + 1]; k++) {
+                int w = adj.nodes[k];
+                if (!seen[w]) {
+                    seen[w] = true;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Strongly connected components (iterative Tarjan); a component with a
+     * cycle and no gateway traps its tokens.
+     */
+    private static void checkCycles(UiGraph g, Adjacency out, byte[] kind, List<ValidationError> errors) {
+        int n = g.nodeCount;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] nextEdge = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int sp = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int cp = 0;
+            callStack[cp++] = root;
+            index[root] = low[root] = counter++;
+            nextEdge[root] = out.start[root];
+            stack[sp++] = root;
+            onStack[root] = true;
+
+            while (cp > 0) {
+                int v = callStack[cp - 1];
+                if (nextEdge[v] < out.start[v + 1]) {
+                    int w = out.nodes[nextEdge[v]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        nextEdge[w] = out.start[w];
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        callStack[cp++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                cp--;
+                if (cp > 0) {
+                    int parent = callStack[cp - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] != index[v]) continue;
+
+                // v is the root of a component: pop it
+                int size = 0;
+                boolean gateway = false;
+                boolean selfLoop = false;
+                List<String> ids = new ArrayList<>();
+                int w;
+                do {
+                    w = stack[--sp];
+                    onStack[w] = false;
+                    size++;
+                    gateway |= kind[w] == GATEWAY || kind[w] == PARALLEL;
+                    if (ids.size() < MAX_LISTED_IDS) ids.add(0, g.nodeId[w]);
+                } while (w != v);
+                if (size == 1) {
+                    for (int k = out.start[v]; k < out.start[v + 1]; k++) {
+                        selfLoop |= out.nodes[k] == v;
+                    }
+                }
+                if ((size > 1 || selfLoop) && !gateway) {
+                    String listed = String.join(", ", ids) + (size > ids.size() ? ", ..." : "");
+                    errors.add(new ValidationError(ValidationError.CYCLE_WITHOUT_GATEWAY,
+                            "Cycle without a gateway through " + size + " node(s): " + listed, g.nodeId[v], null));
+                }
+            }
+        }
+    }
+
+    private static void checkParallelBalance(UiGraph g, byte[] kind, List<ValidationError> errors) {
+        int splits = 0;
+        int joins = 0;
+        for (int i = 0; i < g.nodeCount; i++) {
+            if (kind[i] != PARALLEL) continue;
+            if (g.outdeg[i] > 1) splits++;
+            if (g.indeg[i] > 1) joins++;
+        }
+        if (splits != joins) {
+            errors.add(new ValidationError(ValidationError.UNBALANCED_GATEWAYS,
+                    "Graph has " + splits + " parallel split(s) but " + joins + " parallel join(s)", null, null));
+        }
+    }
+
+    private static ValidationError nodeError(UiGraph g, int i, String code, String problem) {
+        return new ValidationError(code, "Node '" + g.nodeId[i] + "' " + problem, g.nodeId[i], null);
+    }
+
+    private static String edgeName(UiGraph g, int e) {
+        return g.edgeId[e] != null ? "Edge '" + g.edgeId[e] + "'" : "Edge #" + e;
+    }
+
+    /**
+     * Compressed adjacency lists of the resolved edges, outgoing or incoming.
+     */
+    private static final class Adjacency {
+        final int[] start;
+        final int[] nodes;
+
+        Adjacency(UiGraph g, boolean outgoing) {
+            int[] from = outgoing ? g.source : g.target;
+            int[] to = outgoing ? g.target : g.source;
+            start = new int[g.nodeCount + 1];
+            int count = 0;
+            for (int e = 0; e < g.edgeCount; e++) {
+                if (from[e] >= 0 && to[e] >= 0) {
+                    start[from[e] + 1]++;
+                    count++;
+                }
+            }
+            for (int i = 0; i < g.nodeCount; i++) {
+                start[i + 1] += start[i];
+            }
+            nodes = new int[count];
+            int[] fill = start.clone();
+            for (int e = 0; e < g.edgeCount; e++) {
+                if (from[e] >= 0 && to[e] >= 0) {
+                    nodes[fill[from[e]]++] = to[e];
+                }
+            }
+        }
+    }
+}
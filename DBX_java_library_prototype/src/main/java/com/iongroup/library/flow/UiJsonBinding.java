@@ -0,0 +1,314 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds UI JSON nodes and edges to {@link UiNode} and {@link UiEdge}.
+ *
+ * From text, the deserializers walk the tokens of one node or edge straight
+ * into its record, skipping unknown fields, so no Jackson tree is built. A
+ * tree the caller already has is bound by walking it. Both read values as
+ * leniently as the tree helpers ({@link UiToFlowableConverterDBX#text},
+ * {@link UiToFlowableConverterDBX#boundsFromUi}): scalars of any type become
+ * text, numbers may be strings, a wrong type counts as missing.
+ */
+final class UiJsonBinding {
+
+    static final ObjectMapper M = new ObjectMapper()
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false)
+            .registerModule(new SimpleModule("UiJsonBinding")
+                    .addDeserializer(UiNode.class, new NodeDeserializer())
+                    .addDeserializer(UiEdge.class, new EdgeDeserializer()));
+
+    private static final ObjectReader NODE_READER = M.readerFor(UiNode.class);
+    private static final ObjectReader EDGE_READER = M.readerFor(UiEdge.class);
+
+    private UiJsonBinding() {
+    }
+
+    /**
+     * The elements of the array the parser is on, as nodes; {@code null} for
+     * elements that are not objects. Leaves the parser on the array's end.
+     */
+    static MappingIterator<UiNode> nodes(JsonParser parser) throws IOException {
+        return elements(NODE_READER, parser);
+    }
+
+    /**
+     * Node of a UI JSON tree, or {@code null} if it is not an object.
+     */
+    static UiNode node(JsonNode n) {
+        if (n == null || !n.isObject()) return null;
+        JsonNode pos = n.has("positionAbsolute") ? n.get("positionAbsolute") : n.get("position");
+        return new UiNode(UiToFlowableConverterDBX.text(n, "id"), data(n.get("data")),
+                pos != null ? pos.path("x").asDouble(0) : 0,
+                pos != null ? pos.path("y").asDouble(0) : 0,
+                n.path("width").asDouble(100),
+                n.path("height").asDouble(60));
+    }
+
+    /**
+     * The elements of the array the parser is on, as edges;
+     * {@link UiEdge#EMPTY} for elements that are not objects.
+     */
+    static MappingIterator<UiEdge> edges(JsonParser parser) throws IOException {
+        return elements(EDGE_READER, parser);
+    }
+
+    /**
+     * Edge of a UI JSON tree, {@link UiEdge#EMPTY} if it is not an object.
+     */
+    static UiEdge edge(JsonNode e) {
+        if (e == null || !e.isObject()) return UiEdge.EMPTY;
+        return new UiEdge(UiToFlowableConverterDBX.text(e, "id"),
+                UiToFlowableConverterDBX.text(e, "source"), UiToFlowableConverterDBX.text(e, "target"));
+    }
+
+    /**
+     * One iterator, and deserialization context, for all elements of an array.
+     */
+    private static <T> MappingIterator<T> elements(ObjectReader reader, JsonParser parser) throws IOException {
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return MappingIterator.emptyIterator();
+        }
+        // positioned on the first element, the iterator reads the enclosing array
+        return reader.readValues(parser);
+    }
+
+    private static UiNodeData data(JsonNode d) {
+        if (d == null || !d.isObject()) return UiNodeData.EMPTY;
+
+        List<String> selectedFields = null;
+        JsonNode selected = d.get("selectedFields");
+        if (selected != null && selected.isArray() && selected.size() > 0) {
+            List<String> fields = new ArrayList<>(selected.size());
+            selected.forEach(f -> fields.add(f.asText()));
+            selectedFields = Collections.unmodifiableList(fields);
+        }
+
+        Map<String, String> customFields = null;
+        JsonNode custom = d.get("customFields");
+        if (custom != null && custom.isObject()) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            custom.fields().forEachRemaining(f -> fields.put(f.getKey(), f.getValue().asText()));
+            customFields = Collections.unmodifiableMap(fields);
+        }
+
+        String nodeType = UiNodeType.intern(UiToFlowableConverterDBX.text(d, "nodeType"));
+        return new UiNodeData(nodeType, UiNodeType.of(nodeType), UiToFlowableConverterDBX.text(d, "label"),
+                UiToFlowableConverterDBX.text(d, "delegationId"), UiToFlowableConverterDBX.text(d, "delegationName"),
+                UiToFlowableConverterDBX.text(d, "delegationType"), selectedFields, customFields);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final class NodeDeserializer extends JsonDeserializer<UiNode> {
+
+        @Override
+        public UiNode deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                p.skipChildren();
+                return null;
+            }
+            String id = null;
+            UiNodeData data = UiNodeData.EMPTY;
+            double[] position = null;
+            double[] positionAbsolute = null;
+            double width = 100;
+            double height = 60;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = text(p);
+                    case "data" -> data = data(p);
+                    case "position" -> position = point(p);
+                    case "positionAbsolute" -> positionAbsolute = point(p);
+                    case "width" -> width = number(p, 100);
+                    case "height" -> height = number(p, 60);
+                    default -> p.skipChildren();
+                }
+            }
+
+            double[] pos = positionAbsolute != null ? positionAbsolute : position;
+            return pos != null
+                    ? new UiNode(id, data, pos[0], pos[1], width, height)
+                    : new UiNode(id, data, 0, 0, width, height);
+        }
+
+        private static UiNodeData data(JsonParser p) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                p.skipChildren();
+                return UiNodeData.EMPTY;
+            }
+            String nodeType = null;
+            String label = null;
+            String delegationId = null;
+            String delegationName = null;
+            String delegationType = null;
+            List<String> selectedFields = null;
+            Map<String, String> customFields = null;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                switch (field) {
+                    case "nodeType" -> nodeType = UiNodeType.intern(text(p));
+                    case "label" -> label = text(p);
+                    case "delegationId" -> delegationId = text(p);
+                    case "delegationName" -> delegationName = text(p);
+                    case "delegationType" -> delegationType = text(p);
+                    case "selectedFields" -> selectedFields = selectedFields(p);
+                    case "customFields" -> customFields = customFields(p);
+                    default -> p.skipChildren();
+                }
+            }
+            return new UiNodeData(nodeType, UiNodeType.of(nodeType), label,
+                    delegationId, delegationName, delegationType, selectedFields, customFields);
+        }
+
+        private static List<String> selectedFields(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                fields.add(asText(p));
+            }
+            return fields.isEmpty() ? null : Collections.unmodifiableList(fields);
+        }
+
+        private static Map<String, String> customFields(JsonParser p) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                p.skipChildren();
+                return null;
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                p.nextToken();
+                fields.put(name, asText(p));
+            }
+            return Collections.unmodifiableMap(fields);
+        }
+
+        /**
+         * {@code x} and {@code y} of a position; a present position that is
+         * not an object is the origin.
+         */
+        private static double[] point(JsonParser p) throws IOException {
+            double[] point = new double[2];
+            if (!p.isExpectedStartObjectToken()) {
+                p.skipChildren();
+                return point;
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                switch (field) {
+                    case "x" -> point[0] = number(p, 0);
+                    case "y" -> point[1] = number(p, 0);
+                    default -> p.skipChildren();
+                }
+            }
+            return point;
+        }
+    }
+
+    private static final class EdgeDeserializer extends JsonDeserializer<UiEdge> {
+
+        @Override
+        public UiEdge deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                p.skipChildren();
+                return UiEdge.EMPTY;
+            }
+            String id = null;
+            String source = null;
+            String target = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = text(p);
+                    case "source" -> source = text(p);
+                    case "target" -> target = text(p);
+                    default -> p.skipChildren();
+                }
+            }
+            return new UiEdge(id, source, target);
+        }
+
+        @Override
+        public UiEdge getNullValue(DeserializationContext ctxt) {
+            return UiEdge.EMPTY;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Value as text, {@code null} for JSON null (see {@link UiToFlowableConverterDBX#text}).
+     */
+    private static String text(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : asText(p);
+    }
+
+    /**
+     * Value as {@link JsonNode#asText()} gives it: containers are {@code ""}.
+     */
+    private static String asText(JsonParser p) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_STRING:
+                return p.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return p.getNumberValue().toString();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_NULL:
+                return p.getText();
+            default:
+                p.skipChildren();
+                return "";
+        }
+    }
+
+    /**
+     * Value as {@link JsonNode#asDouble(double)} gives it.
+     */
+    private static double number(JsonParser p, double defaultValue) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return p.getDoubleValue();
+            case VALUE_STRING:
+                return NumberInput.parseAsDouble(p.getText(), defaultValue);
+            case VALUE_TRUE:
+                return 1;
+            case VALUE_FALSE:
+                return 0;
+            default:
+                p.skipChildren();
+                return defaultValue;
+        }
+    }
+}
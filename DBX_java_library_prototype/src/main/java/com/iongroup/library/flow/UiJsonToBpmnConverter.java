@@ -1,54 +1,186 @@
 package com.iongroup.library.flow;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.editor.language.json.converter.BpmnJsonConverter;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
- * DBX library entry point: convert UI JSON -> Flowable JSON -> BPMN XML
+ * DBX library entry point: convert UI JSON -> BPMN XML
+ *
+ * The UI JSON is bound into a compact graph ({@link UiGraph}) without building
+ * a Jackson tree, then compiled straight into a BpmnModel
+ * ({@link UiToBpmnModelCompiler}) and written as XML once. Graphs the compiler
+ * does not cover go through the Flowable editor JSON instead. The editor JSON
+ * of a compiled graph is only built when {@link ConversionResult#getFlowableJson()}
+ * is called. {@link #convert(InputStream, String, OutputStream)} streams both
+ * sides ({@link UiGraph}, {@link UiGraphBpmnWriter}); XML is always written
+ * straight to the output ({@link BpmnXmlWriter}).
  */
 public class UiJsonToBpmnConverter {
 
-    private static final ObjectMapper M = new ObjectMapper();
-
     public static class ConversionResult {
         public final byte[] bpmnXml;
-        public final ObjectNode flowableJson;
-        public final BpmnModel bpmnModel;
+
+        private final UiGraph graph;
+        private final ConverterTemplate cfg;
+        private BpmnModel bpmnModel;
+        private ObjectNode flowableJson;
 
         public ConversionResult(byte[] bpmnXml, ObjectNode flowableJson, BpmnModel bpmnModel) {
+            this(bpmnXml, flowableJson, bpmnModel, null, null);
+        }
+
+        /**
+         * Result holding only the XML of {@code graph}; the model and the
+         * editor JSON are built from the graph when asked for.
+         */
+        ConversionResult(byte[] bpmnXml, UiGraph graph, ConverterTemplate cfg) {
+            this(bpmnXml, null, null, graph, cfg);
+        }
+
+        private ConversionResult(byte[] bpmnXml, ObjectNode flowableJson, BpmnModel bpmnModel,
+                UiGraph graph, ConverterTemplate cfg) {
             this.bpmnXml = bpmnXml;
             this.flowableJson = flowableJson;
             this.bpmnModel = bpmnModel;
+            this.graph = graph;
+            this.cfg = cfg;
+        }
+
+        /**
+         * BpmnModel of the converted graph, built on first access when only
+         * the XML was kept (see {@link ConversionCache}).
+         */
+        public synchronized BpmnModel getBpmnModel() {
+            if (bpmnModel == null && graph != null) {
+                bpmnModel = UiToBpmnModelCompiler.compile(graph, cfg);
+                if (bpmnModel == null) {
+                    bpmnModel = editorModel(getFlowableJson());
+                }
+            }
+            return bpmnModel;
+        }
+
+        /**
+         * Flowable editor JSON of the converted graph, built on first access
+         * when the graph was compiled directly.
+         */
+        public synchronized ObjectNode getFlowableJson() {
+            if (flowableJson == null && graph != null) {
+                flowableJson = UiToFlowableConverterDBX.convert(graph.toUiJson(), cfg);
+            }
+            return flowableJson;
+        }
+
+        /**
+         * Id of the converted process, without building the model.
+         */
+        public String getProcessId() {
+            if (cfg != null) {
+                return cfg.getProcessId();
+            }
+            BpmnModel model = getBpmnModel();
+            return model != null && model.getMainProcess() != null ? model.getMainProcess().getId() : null;
         }
     }
 
     public static ConversionResult convert(String uiJsonStr, String configJsonStr) throws Exception {
-        JsonNode uiNode = M.readTree(uiJsonStr);
+        return convert(UiGraph.read(uiJsonStr), ConverterTemplate.forJson(configJsonStr));
+    }
+
+    /**
+     * Convert UI JSON as received, e.g. a request body, without decoding it
+     * to a String first.
+     */
+    public static ConversionResult convert(byte[] uiJson, String configJsonStr) throws Exception {
+        return convert(UiGraph.read(uiJson), ConverterTemplate.forJson(configJsonStr));
+    }
 
-        UiToFlowableConverterDBX.ConverterConfig cfg = UiToFlowableConverterDBX.ConverterConfig.defaultConfig();
-        if (configJsonStr != null && !configJsonStr.isBlank()) {
-            JsonNode cfgNode = M.readTree(configJsonStr);
-            cfg.applyFromJson(cfgNode);
+    /**
+     * Convert UI JSON read from {@code uiJson}, which is left open.
+     */
+    public static ConversionResult convert(InputStream uiJson, String configJsonStr) throws Exception {
+        return convert(UiGraph.read(uiJson), ConverterTemplate.forJson(configJsonStr));
+    }
+
+    /**
+     * Convert a UI JSON tree the caller already has, e.g. one bound by a web
+     * framework.
+     */
+    public static ConversionResult convert(JsonNode uiJson, String configJsonStr) throws Exception {
+        return convert(UiGraph.read(uiJson), ConverterTemplate.forJson(configJsonStr));
+    }
+
+    /**
+     * Convert with a compiled config, e.g. one registered with
+     * {@link ConverterTemplate#register(String, UiToFlowableConverterDBX.ConverterConfig)}.
+     */
+    public static ConversionResult convertWithTemplate(String uiJsonStr, ConverterTemplate template) throws Exception {
+        return convert(UiGraph.read(uiJsonStr), template);
+    }
+
+    /**
+     * Streaming variant: reads the UI JSON from {@code uiJson} and writes the
+     * BPMN XML to {@code out}. Only a compact form of the graph is held in
+     * memory. Neither stream is closed.
+     */
+    public static void convert(InputStream uiJson, String configJsonStr, OutputStream out) throws Exception {
+        convert(UiGraph.read(uiJson), ConverterTemplate.forJson(configJsonStr), out);
+    }
+
+    /**
+     * Streaming variant for a graph that was already read: writes the BPMN
+     * XML to {@code out}, which is left open, without holding the document.
+     */
+    public static void convert(UiGraph graph, ConverterTemplate cfg, OutputStream out) throws Exception {
+        if (!UiGraphBpmnWriter.write(graph, cfg, out)) {
+            // not compilable: the editor JSON model is written without an intermediate byte[]
+            BpmnXmlWriter.write(editorModel(UiToFlowableConverterDBX.convert(graph.toUiJson(), cfg)), out);
         }
+    }
 
-        ObjectNode flowableJson = UiToFlowableConverterDBX.convert(uiNode, cfg);
+    /**
+     * Streaming variant writing to a channel, e.g. a file or socket channel,
+     * which is left open.
+     */
+    public static void convert(InputStream uiJson, String configJsonStr, WritableByteChannel out) throws Exception {
+        convert(uiJson, configJsonStr, Channels.newOutputStream(out));
+    }
+
+    /**
+     * Convert a graph that was already read, e.g. one that was validated
+     * first ({@link UiGraphValidator#validate(UiGraph, ConverterTemplate)}).
+     */
+    public static ConversionResult convert(UiGraph graph, ConverterTemplate cfg) {
+        BpmnModel compiled = UiToBpmnModelCompiler.compile(graph, cfg);
+        if (compiled != null) {
+            byte[] xml = JsonToBpmn2ConverterDBX.toXml(compiled);
+            return new ConversionResult(xml, null, compiled, graph, cfg);
+        }
 
-        // Convert to BpmnModel using Flowable converter
-        org.flowable.editor.language.json.converter.BpmnJsonConverter jsonConverter = new org.flowable.editor.language.json.converter.BpmnJsonConverter();
-        BpmnModel model = jsonConverter.convertToBpmnModel(flowableJson);
+        // Fallback: UI JSON -> Flowable editor JSON -> BpmnModel
+        ObjectNode flowableJson = UiToFlowableConverterDBX.convert(graph.toUiJson(), cfg);
+        BpmnModel model = editorModel(flowableJson);
+        byte[] xml = JsonToBpmn2ConverterDBX.toXml(model);
+
+        return new ConversionResult(xml, flowableJson, model, graph, cfg);
+    }
+
+    static BpmnModel editorModel(ObjectNode flowableJson) {
+        BpmnModel model = new BpmnJsonConverter().convertToBpmnModel(flowableJson);
 
         if (model == null || model.getProcesses().isEmpty()) {
             throw new IllegalStateException("No BPMN processes generated from Flowable JSON");
         }
 
-        // Generate XML bytes (enrichment performed by JsonToBpmn2ConverterDBX)
-        String flowableStr = M.writeValueAsString(flowableJson);
-        byte[] xml = JsonToBpmn2ConverterDBX.convertJsonToBpmn(flowableStr);
-
-        return new ConversionResult(xml, flowableJson, model);
+        // Dispatcher wiring and extension elements (see JsonToBpmn2ConverterDBX)
+        JsonToBpmn2ConverterDBX.enrichTasks(flowableJson, model);
+        return model;
     }
 }
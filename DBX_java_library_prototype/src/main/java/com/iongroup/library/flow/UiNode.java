@@ -0,0 +1,14 @@
+package com.iongroup.library.flow;
+
+import com.iongroup.library.flow.UiToFlowableConverterDBX.Bounds;
+
+/**
+ * One UI node with its layout resolved: {@code positionAbsolute} if present,
+ * else {@code position}; width 100 and height 60 when not given.
+ */
+record UiNode(String id, UiNodeData data, double x, double y, double width, double height) {
+
+    Bounds bounds() {
+        return new Bounds(x, y, x + width, y + height);
+    }
+}
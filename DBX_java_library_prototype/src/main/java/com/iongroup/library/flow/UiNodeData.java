@@ -0,0 +1,34 @@
+package com.iongroup.library.flow;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code data} of a UI node, as far as the converters use it.
+ *
+ * @param nodeType       {@code data.nodeType} as written, or {@code null}
+ * @param type           {@code nodeType} mapped to the types handled specially
+ * @param selectedFields non-empty {@code selectedFields} array, else {@code null}
+ * @param customFields   {@code customFields} object in document order, else {@code null}
+ */
+record UiNodeData(
+        String nodeType,
+        UiNodeType type,
+        String label,
+        String delegationId,
+        String delegationName,
+        String delegationType,
+        List<String> selectedFields,
+        Map<String, String> customFields) {
+
+    /** A node without (object) {@code data}. */
+    static final UiNodeData EMPTY = new UiNodeData(null, UiNodeType.OTHER, null, null, null, null, null, null);
+
+    /**
+     * Selected fields joined with commas, as the {@code requiredFields}
+     * property of a user task, or {@code null}.
+     */
+    String requiredFields() {
+        return selectedFields != null ? String.join(",", selectedFields) : null;
+    }
+}
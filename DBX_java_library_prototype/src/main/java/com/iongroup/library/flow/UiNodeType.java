@@ -0,0 +1,65 @@
+package com.iongroup.library.flow;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The UI node types the converters treat specially. Any other
+ * {@code data.nodeType} is {@link #OTHER} and only matters through the
+ * configured node type mapping.
+ */
+enum UiNodeType {
+
+    START("start"),
+    END("end"),
+    SERVICE("service"),
+    USER("user"),
+    SCRIPT("script"),
+    PARALLEL("parallel"),
+    OTHER(null);
+
+    private static final Map<String, UiNodeType> BY_KEY = new HashMap<>();
+
+    static {
+        for (UiNodeType t : values()) {
+            if (t.key != null) BY_KEY.put(t.key, t);
+        }
+    }
+
+    /** Lower case node type, as used for the config's node type mapping. */
+    final String key;
+
+    UiNodeType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Type of a {@code data.nodeType}, ignoring case.
+     */
+    static UiNodeType of(String nodeType) {
+        if (nodeType == null) return OTHER;
+        UiNodeType t = BY_KEY.get(nodeType);
+        if (t == null) t = BY_KEY.get(nodeType.toLowerCase(Locale.ROOT));
+        return t != null ? t : OTHER;
+    }
+
+    /**
+     * Lower case key of a {@code data.nodeType} for the node type mapping,
+     * {@code ""} for none. Known types give the shared constant.
+     */
+    static String key(String nodeType) {
+        if (nodeType == null) return "";
+        UiNodeType t = of(nodeType);
+        return t != OTHER ? t.key : nodeType.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The shared constant for a node type written exactly as a known key,
+     * else {@code nodeType} itself.
+     */
+    static String intern(String nodeType) {
+        UiNodeType t = nodeType != null ? BY_KEY.get(nodeType) : null;
+        return t != null ? t.key : nodeType;
+    }
+}
@@ -0,0 +1,460 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.Bounds;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.ConverterConfig;
+import com.iongroup.library.flow.UiToFlowableConverterDBX.NodeTypeConfig;
+import org.flowable.bpmn.model.Activity;
+import org.flowable.bpmn.model.BpmnDiEdge;
+import org.flowable.bpmn.model.BpmnModel;
+import org.flowable.bpmn.model.EndEvent;
+import org.flowable.bpmn.model.ExclusiveGateway;
+import org.flowable.bpmn.model.FlowNode;
+import org.flowable.bpmn.model.Gateway;
+import org.flowable.bpmn.model.GraphicInfo;
+import org.flowable.bpmn.model.ImplementationType;
+import org.flowable.bpmn.model.InclusiveGateway;
+import org.flowable.bpmn.model.ParallelGateway;
+import org.flowable.bpmn.model.Process;
+import org.flowable.bpmn.model.ScriptTask;
+import org.flowable.bpmn.model.SequenceFlow;
+import org.flowable.bpmn.model.ServiceTask;
+import org.flowable.bpmn.model.StartEvent;
+import org.flowable.bpmn.model.UserTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles the UI graph straight into a Flowable {@link BpmnModel}, without
+ * building, serializing and re-parsing the editor JSON.
+ *
+ * Node properties are resolved exactly as for the editor JSON
+ * ({@link UiToFlowableConverterDBX#resolveNode}) and read the way Flowable's
+ * BpmnJsonConverter reads them for the stencils below. Service and user tasks
+ * then get the dispatcher wiring and DBX extension elements
+ * ({@link JsonToBpmn2ConverterDBX#enrich}). Edge waypoints are the same shape
+ * intersections the editor converter computes, solved analytically.
+ *
+ * {@link #compile} returns {@code null} when the graph uses another stencil or
+ * a structured editor property (listeners, assignments, field injections,
+ * multi-instance, ...); callers then fall back to the editor JSON pipeline.
+ */
+public class UiToBpmnModelCompiler {
+
+    private static final String EXPORTER = "Flowable Open Source Modeler";
+    private static final String DEFAULT_NAMESPACE = "http://flowable.org/test";
+
+    /** Editor docker of every generated edge (see UiToFlowableConverterDBX). */
+    static final double DOCKER = 15;
+
+    /** Outline width of shapes for edge intersections, as in BpmnJsonConverter. */
+    private static final double LINE_WIDTH = 0.05d;
+
+    private static final Set<String> CIRCLES = Set.of("StartNoneEvent", "EndNoneEvent");
+    private static final Set<String> GATEWAYS = Set.of("ParallelGateway", "ExclusiveGateway", "InclusiveGateway");
+
+    /** Editor properties whose structured values only the editor JSON converter handles. */
+    private static final Set<String> STRUCTURED_PROPERTIES = Set.of(
+            "executionlisteners",
+            "tasklisteners",
+            "formproperties",
+            "formreference",
+            "usertaskassignment",
+            "servicetaskfields",
+            "servicetaskexceptions",
+            "sequencefloworder"
+    );
+
+    /**
+     * Compile a UI graph, or return {@code null} if it needs the editor JSON pipeline.
+     */
+    public static BpmnModel compile(JsonNode uiJson, ConverterConfig cfg) {
+        return compile(uiJson, ConverterTemplate.compile(cfg));
+    }
+
+    /**
+     * Same as {@link #compile(JsonNode, ConverterConfig)} with a compiled config.
+     */
+    public static BpmnModel compile(JsonNode uiJson, ConverterTemplate cfg) {
+        return compile(UiGraph.read(uiJson), cfg);
+    }
+
+    /**
+     * Same as {@link #compile(JsonNode, ConverterTemplate)} for a graph already
+     * bound from the UI JSON.
+     */
+    static BpmnModel compile(UiGraph g, ConverterTemplate cfg) {
+        BpmnModel model = newModel(cfg);
+        Process process = newProcess(cfg);
+
+        Shape[] shapes = new Shape[g.nodeCount];
+        for (int i = 0; i < g.nodeCount; i++) {
+            NodeTypeConfig node = g.resolve(i, cfg);
+
+            FlowNode element = compileNode(g.nodeId[i], node);
+            if (element == null) {
+                return null;
+            }
+
+            GraphicInfo bounds = bounds(g.bounds(i));
+            model.addGraphicInfo(element.getId(), bounds);
+
+            shapes[i] = new Shape(node.stencilId, element, bounds);
+        }
+
+        if (shapes.length == 0) {
+            throw new IllegalStateException("No BPMN processes generated from Flowable JSON");
+        }
+        for (Shape shape : shapes) {
+            process.addFlowElement(shape.element);
+        }
+
+        for (int e = 0; e < g.edgeCount; e++) {
+            if (g.source[e] < 0 || g.target[e] < 0) continue;
+
+            Shape source = shapes[g.source[e]];
+            Shape target = shapes[g.target[e]];
+            String flowId = g.flowId(e);
+
+            SequenceFlow flow = new SequenceFlow(source.element.getId(), target.element.getId());
+            flow.setId(flowId);
+            process.addFlowElement(flow);
+            source.element.getOutgoingFlows().add(flow);
+            target.element.getIncomingFlows().add(flow);
+
+            addEdgeDI(model, flowId, source, target);
+        }
+
+        model.addProcess(process);
+        return model;
+    }
+
+    /**
+     * Empty model with the definitions attributes of the configured process.
+     */
+    static BpmnModel newModel(ConverterTemplate cfg) {
+        BpmnModel model = new BpmnModel();
+        model.setExporter(EXPORTER);
+        String namespace = cfg.namespace;
+        model.setTargetNamespace(namespace != null && !namespace.isEmpty() ? namespace : DEFAULT_NAMESPACE);
+        return model;
+    }
+
+    static Process newProcess(ConverterTemplate cfg) {
+        Process process = new Process();
+        process.setId(cfg.processId);
+        process.setName(cfg.processName);
+        return process;
+    }
+
+    /**
+     * Flow node of one resolved UI node with its id, name, dispatcher wiring and
+     * extension elements, or {@code null} when the stencil or a property is not covered.
+     */
+    static FlowNode compileNode(String origId, NodeTypeConfig node) {
+        JsonNode props = node.properties;
+        FlowNode element = createElement(node.stencilId, props);
+        if (element == null) {
+            return null;
+        }
+
+        String overrideId = string(props, "overrideid");
+        element.setId(overrideId != null && !overrideId.isEmpty()
+                ? overrideId.trim() : UiToFlowableConverterDBX.sanitize(origId));
+        element.setName(string(props, "name"));
+        element.setDocumentation(string(props, "documentation"));
+        JsonToBpmn2ConverterDBX.enrich(element, props);
+        return element;
+    }
+
+    static GraphicInfo bounds(Bounds b) {
+        GraphicInfo bounds = new GraphicInfo();
+        bounds.setX(b.ulx);
+        bounds.setY(b.uly);
+        bounds.setWidth(b.lrx - b.ulx);
+        bounds.setHeight(b.lry - b.uly);
+        return bounds;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static FlowNode createElement(String stencilId, JsonNode props) {
+        for (String key : STRUCTURED_PROPERTIES) {
+            if (string(props, key) != null) {
+                return null;
+            }
+        }
+
+        switch (stencilId) {
+            case "StartNoneEvent": {
+                StartEvent start = new StartEvent();
+                start.setInitiator(string(props, "initiator"));
+                String formKey = string(props, "formkeydefinition");
+                if (formKey != null && !formKey.isEmpty()) {
+                    start.setFormKey(formKey);
+                }
+                String validateFormFields = string(props, "formfieldvalidation");
+                if (validateFormFields != null && !validateFormFields.isEmpty()) {
+                    start.setValidateFormFields(validateFormFields);
+                }
+                if (!bool(props, "interrupting")) {
+                    start.setInterrupting(false);
+                }
+                return start;
+            }
+            case "EndNoneEvent":
+                return new EndEvent();
+            case "ServiceTask": {
+                ServiceTask task = new ServiceTask();
+                String className = string(props, "servicetaskclass");
+                String expression = string(props, "servicetaskexpression");
+                String delegateExpression = string(props, "servicetaskdelegateexpression");
+                if (className != null && !className.isEmpty()) {
+                    task.setImplementationType(ImplementationType.IMPLEMENTATION_TYPE_CLASS);
+                    task.setImplementation(className);
+                } else if (expression != null && !expression.isEmpty()) {
+                    task.setImplementationType(ImplementationType.IMPLEMENTATION_TYPE_EXPRESSION);
+                    task.setImplementation(expression);
+                } else if (delegateExpression != null && !delegateExpression.isEmpty()) {
+                    task.setImplementationType(ImplementationType.IMPLEMENTATION_TYPE_DELEGATEEXPRESSION);
+                    task.setImplementation(delegateExpression);
+                }
+                task.setTriggerable(bool(props, "servicetasktriggerable"));
+                String resultVariable = string(props, "servicetaskresultvariable");
+                if (resultVariable != null && !resultVariable.isEmpty()) {
+                    task.setResultVariableName(resultVariable);
+                }
+                task.setUseLocalScopeForResultVariable(bool(props, "servicetaskuselocalscopeforresultvariable"));
+                task.setStoreResultVariableAsTransient(bool(props, "servicetaskstoreresultvariabletransient"));
+                String retryCycle = string(props, "servicetaskfailedjobretrytimecycle");
+                if (retryCycle != null && !retryCycle.isEmpty()) {
+                    task.setFailedJobRetryTimeCycleValue(retryCycle);
+                }
+                task.setSkipExpression(string(props, "skipexpression"));
+                return activity(task, props);
+            }
+            case "UserTask": {
+                UserTask task = new UserTask();
+                task.setPriority(string(props, "prioritydefinition"));
+                String formKey = string(props, "formkeydefinition");
+                if (formKey != null && !formKey.isEmpty()) {
+                    task.setFormKey(formKey);
+                }
+                task.setValidateFormFields(string(props, "formfieldvalidation"));
+                task.setDueDate(string(props, "duedatedefinition"));
+                task.setBusinessCalendarName(string(props, "calendarname"));
+                task.setCategory(string(props, "categorydefinition"));
+                task.setTaskIdVariableName(string(props, "taskidvariablename"));
+                task.setSkipExpression(string(props, "skipexpression"));
+                return activity(task, props);
+            }
+            case "ScriptTask": {
+                ScriptTask task = new ScriptTask();
+                task.setScriptFormat(string(props, "scriptformat"));
+                task.setScript(string(props, "scripttext"));
+                task.setSkipExpression(string(props, "skipexpression"));
+                task.setAutoStoreVariables(bool(props, "scriptautostorevariables"));
+                return activity(task, props);
+            }
+            case "ParallelGateway":
+                return gateway(new ParallelGateway(), props);
+            case "ExclusiveGateway":
+                return gateway(new ExclusiveGateway(), props);
+            case "InclusiveGateway":
+                return gateway(new InclusiveGateway(), props);
+            default:
+                return null;
+        }
+    }
+
+    private static Activity activity(Activity activity, JsonNode props) {
+        String multiInstanceType = string(props, "multiinstance_type");
+        if (multiInstanceType != null && !multiInstanceType.isEmpty() && !"none".equalsIgnoreCase(multiInstanceType)) {
+            return null;
+        }
+        activity.setAsynchronous(bool(props, "asynchronousdefinition"));
+        activity.setNotExclusive(!bool(props, "exclusivedefinition"));
+        activity.setForCompensation(bool(props, "isforcompensation"));
+        return activity;
+    }
+
+    private static Gateway gateway(Gateway gateway, JsonNode props) {
+        gateway.setAsynchronous(bool(props, "asynchronousdefinition"));
+        gateway.setNotExclusive(!bool(props, "exclusivedefinition"));
+        return gateway;
+    }
+
+    /**
+     * Property value as the editor converter reads it: missing, JSON null and
+     * the text "null" are all {@code null}.
+     */
+    private static String string(JsonNode props, String key) {
+        JsonNode v = props.get(key);
+        return v == null || "null".equalsIgnoreCase(v.asText()) ? null : v.asText();
+    }
+
+    private static boolean bool(JsonNode props, String key) {
+        String v = string(props, key);
+        return "yes".equalsIgnoreCase(v) || "true".equalsIgnoreCase(v);
+    }
+
+    // ------------------------------------------------------------------------
+    // Edge DI
+    // ------------------------------------------------------------------------
+
+    private static void addEdgeDI(BpmnModel model, String flowId, Shape source, Shape target) {
+        List<GraphicInfo> waypoints = waypoints(source.stencilId, source.bounds, target.stencilId, target.bounds);
+
+        BpmnDiEdge edge = new BpmnDiEdge();
+        edge.setWaypoints(waypoints);
+        edge.setSourceDockerInfo(point(DOCKER, DOCKER));
+        edge.setTargetDockerInfo(point(DOCKER, DOCKER));
+        model.addEdgeInfo(flowId, edge);
+        model.addFlowGraphicInfoList(flowId, waypoints);
+    }
+
+    /**
+     * Start and end point of an edge between two shapes; both ends are docked
+     * at {@link #DOCKER}.
+     */
+    static List<GraphicInfo> waypoints(String sourceStencilId, GraphicInfo source,
+            String targetStencilId, GraphicInfo target) {
+        double x1 = source.getX() + DOCKER;
+        double y1 = source.getY() + DOCKER;
+        double x2 = target.getX() + DOCKER;
+        double y2 = target.getY() + DOCKER;
+
+        List<GraphicInfo> waypoints = new ArrayList<>(2);
+        waypoints.add(intersection(sourceStencilId, source, x1, y1, x2, y2, x1, y1));
+        waypoints.add(intersection(targetStencilId, target, x1, y1, x2, y2, x2, y2));
+        return waypoints;
+    }
+
+    /**
+     * Upper-left corner of the part of the segment crossing the shape outline
+     * (a {@link #LINE_WIDTH} wide border), or the given point when the segment
+     * does not cross it. This is the point the editor converter computes with
+     * java.awt areas, solved analytically.
+     */
+    private static GraphicInfo intersection(String stencilId, GraphicInfo shape,
+            double x1, double y1, double x2, double y2, double x, double y) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double[] outer = clip(stencilId, shape, 0, x1, y1, dx, dy);
+        if (outer == null) {
+            return point(x, y);
+        }
+        double[] inner = clip(stencilId, shape, LINE_WIDTH, x1, y1, dx, dy);
+        double[] pieces = inner == null
+                ? new double[] {outer[0], outer[1]}
+                : new double[] {outer[0], inner[0], inner[1], outer[1]};
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < pieces.length; i += 2) {
+            if (pieces[i + 1] > pieces[i]) {
+                minX = Math.min(minX, Math.min(x1 + pieces[i] * dx, x1 + pieces[i + 1] * dx));
+                minY = Math.min(minY, Math.min(y1 + pieces[i] * dy, y1 + pieces[i + 1] * dy));
+            }
+        }
+        return minX == Double.POSITIVE_INFINITY ? point(x, y) : point(minX, minY);
+    }
+
+    /**
+     * Interval {t0, t1} of the segment {@code (x1 + t*dx, y1 + t*dy), 0 <= t <= 1}
+     * lying inside the shape shrunk by {@code inset}, or {@code null}.
+     */
+    private static double[] clip(String stencilId, GraphicInfo g, double inset,
+            double x1, double y1, double dx, double dy) {
+        double[] t = {0, 1};
+
+        if (CIRCLES.contains(stencilId)) {
+            // events are drawn as a circle around the docker
+            double r = DOCKER - inset;
+            double ox = x1 - (g.getX() + DOCKER);
+            double oy = y1 - (g.getY() + DOCKER);
+            double a = dx * dx + dy * dy;
+            double b = 2 * (ox * dx + oy * dy);
+            double c = ox * ox + oy * oy - r * r;
+            if (a == 0) {
+                return c <= 0 ? t : null;
+            }
+            double disc = b * b - 4 * a * c;
+            if (disc < 0) {
+                return null;
+            }
+            double sq = Math.sqrt(disc);
+            t[0] = Math.max(t[0], (-b - sq) / (2 * a));
+            t[1] = Math.min(t[1], (-b + sq) / (2 * a));
+            return t[0] <= t[1] ? t : null;
+        }
+
+        if (GATEWAYS.contains(stencilId)) {
+            // |x - cx| / hw + |y - cy| / hh <= 1
+            double hw = g.getWidth() / 2 - inset;
+            double hh = g.getHeight() / 2 - inset;
+            if (hw <= 0 || hh <= 0) {
+                return null;
+            }
+            double ox = x1 - (g.getX() + g.getWidth() / 2);
+            double oy = y1 - (g.getY() + g.getHeight() / 2);
+            for (int sx = -1; sx <= 1; sx += 2) {
+                for (int sy = -1; sy <= 1; sy += 2) {
+                    double p = sx * dx / hw + sy * dy / hh;
+                    double q = 1 - sx * ox / hw - sy * oy / hh;
+                    if (!clip(t, p, q)) {
+                        return null;
+                    }
+                }
+            }
+            return t;
+        }
+
+        double left = g.getX() + inset;
+        double top = g.getY() + inset;
+        double right = g.getX() + g.getWidth() - inset;
+        double bottom = g.getY() + g.getHeight() - inset;
+        return clip(t, -dx, x1 - left) && clip(t, dx, right - x1)
+                && clip(t, -dy, y1 - top) && clip(t, dy, bottom - y1) ? t : null;
+    }
+
+    /**
+     * Restrict {@code t} to {@code p * t <= q}; false when nothing is left.
+     */
+    private static boolean clip(double[] t, double p, double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if (p < 0) {
+            t[0] = Math.max(t[0], r);
+        } else {
+            t[1] = Math.min(t[1], r);
+        }
+        return t[0] <= t[1];
+    }
+
+    static GraphicInfo point(double x, double y) {
+        GraphicInfo p = new GraphicInfo();
+        p.setX(x);
+        p.setY(y);
+        return p;
+    }
+
+    /**
+     * A compiled node with its stencil and diagram bounds.
+     */
+    private static final class Shape {
+        final String stencilId;
+        final FlowNode element;
+        final GraphicInfo bounds;
+
+        Shape(String stencilId, FlowNode element, GraphicInfo bounds) {
+            this.stencilId = stencilId;
+            this.element = element;
+            this.bounds = bounds;
+        }
+    }
+}
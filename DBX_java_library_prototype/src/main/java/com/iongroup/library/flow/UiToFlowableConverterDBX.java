@@ -16,17 +16,14 @@ public class UiToFlowableConverterDBX {
     private static final ObjectMapper M = new ObjectMapper()
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-    private static void copyIfPresent(JsonNode src, ObjectNode dst, String field) {
-        JsonNode v = src.get(field);
-        if (v != null && !v.isNull()) {
-            dst.put(field, v.asText());
-        }
-    }
-
     // -------------------------------
     // Core conversion
     // -------------------------------
     public static ObjectNode convert(JsonNode uiJson, ConverterConfig cfg) {
+        return convert(uiJson, ConverterTemplate.compile(cfg));
+    }
+
+    public static ObjectNode convert(JsonNode uiJson, ConverterTemplate cfg) {
 
         ArrayNode uiNodes = arrayOrEmpty(uiJson.get("nodes"));
         ArrayNode uiEdges = arrayOrEmpty(uiJson.get("edges"));
@@ -49,69 +46,10 @@ public class UiToFlowableConverterDBX {
             String origId = text(n, "id");
             if (origId == null) continue;
 
-            JsonNode data = n.path("data");
-
-            String nodeType = text(data, "nodeType");
-            String label = text(data, "label");
-            if (label == null || label.isEmpty()) {
-                label = nodeType != null ? capitalize(nodeType) : "Node";
-            }
-
-            NodeTypeConfig mapping = cfg.nodeTypeMap.getOrDefault(
-                nvl(nodeType).toLowerCase(Locale.ROOT),
-                NodeTypeConfig.of("ServiceTask", obj("name", label))
-            );
-
-            ObjectNode properties = M.createObjectNode();
-            properties.setAll(mapping.properties);
-
-            copyIfPresent(data, properties, "delegationId");
-            copyIfPresent(data, properties, "delegationName");
-            copyIfPresent(data, properties, "delegationType");
-
-            if ("user".equalsIgnoreCase(nodeType)) {
-                JsonNode selected = data.get("selectedFields");
-                if (selected != null && selected.isArray() && selected.size() > 0) {
-                    List<String> fields = new ArrayList<>();
-                    selected.forEach(f -> fields.add(f.asText()));
-                    properties.put("requiredFields", String.join(",", fields));
-                }
-            }
-
-            JsonNode customFields = data.get("customFields");
-            if (customFields != null && customFields.isObject()) {
-                Iterator<Map.Entry<String, JsonNode>> it = customFields.fields();
-                while (it.hasNext()) {
-                    Map.Entry<String, JsonNode> e = it.next();
-                    String uiKey = e.getKey();
-                    String value = e.getValue().asText();
-                    String flowableKey;
-                    if ("AMOUNT".equals(uiKey)) {
-                        flowableKey = "requestedAmountLimit";
-                    } else {
-                        flowableKey = uiKey;
-                    }
-                    properties.put(flowableKey, value);
-                }
-            }
-
-            if (properties.get("name") == null && !"start".equalsIgnoreCase(nodeType) && !"end".equalsIgnoreCase(nodeType)) {
-                properties.put("name", label);
-            }
-
-            if ("parallel".equalsIgnoreCase(nodeType)) {
-                int indeg = inEdgesByNode.getOrDefault(origId, Collections.emptyList()).size();
-                int outdeg = outEdgesByNode.getOrDefault(origId, Collections.emptyList()).size();
-                if (outdeg > 1 && indeg <= 1) {
-                    properties.put("name", "Parallel Split");
-                } else if (indeg > 1 && outdeg <= 1) {
-                    properties.put("name", "Parallel Join");
-                }
-            }
-
-            if (cfg.nodeOverrides.containsKey(origId)) {
-                deepMerge(properties, cfg.nodeOverrides.get(origId));
-            }
+            int indeg = inEdgesByNode.getOrDefault(origId, Collections.emptyList()).size();
+            int outdeg = outEdgesByNode.getOrDefault(origId, Collections.emptyList()).size();
+            NodeTypeConfig mapping = resolveNode(n, cfg, indeg, outdeg);
+            ObjectNode properties = mapping.properties;
 
             Bounds b = boundsFromUi(n);
             ObjectNode bounds = M.createObjectNode();
@@ -183,9 +121,9 @@ public class UiToFlowableConverterDBX {
         canvas.put("resourceId", "canvas");
         canvas.set("stencil", obj("id", "BPMNDiagram"));
         canvas.set("properties", obj(
-            "process_id", cfg.process.processId,
-            "name", cfg.process.name,
-            "process_namespace", cfg.process.namespace
+            "process_id", cfg.processId,
+            "name", cfg.processName,
+            "process_namespace", cfg.namespace
         ));
 
         ArrayNode childShapes = M.createArrayNode();
@@ -207,6 +145,74 @@ public class UiToFlowableConverterDBX {
         return canvas;
     }
 
+    /**
+     * Stencil and editor properties of one UI node, given its in/out degree.
+     * Shared with {@link UiToBpmnModelCompiler} so both paths see the same properties.
+     */
+    static NodeTypeConfig resolveNode(JsonNode n, ConverterTemplate cfg, int indeg, int outdeg) {
+        UiNode node = UiJsonBinding.node(n);
+        return resolveNode(node != null ? node.id() : null, node != null ? node.data() : UiNodeData.EMPTY,
+                cfg, indeg, outdeg);
+    }
+
+    /**
+     * Same as {@link #resolveNode(JsonNode, ConverterTemplate, int, int)} for a
+     * node already bound from the UI JSON (see {@link UiGraph}).
+     */
+    static NodeTypeConfig resolveNode(String origId, UiNodeData data, ConverterTemplate cfg, int indeg, int outdeg) {
+        String nodeType = data.nodeType();
+        UiNodeType type = data.type();
+
+        String label = data.label();
+        if (label == null || label.isEmpty()) {
+            label = nodeType != null ? capitalize(nodeType) : "Node";
+        }
+
+        ConverterTemplate.NodeTemplate mapping = cfg.nodeType(UiNodeType.key(nodeType));
+        String stencilId = mapping != null ? mapping.stencilId : ConverterTemplate.DEFAULT_STENCIL;
+        ObjectNode properties = mapping != null ? mapping.newProperties() : obj("name", label);
+
+        if (data.delegationId() != null) properties.put("delegationId", data.delegationId());
+        if (data.delegationName() != null) properties.put("delegationName", data.delegationName());
+        if (data.delegationType() != null) properties.put("delegationType", data.delegationType());
+
+        if (type == UiNodeType.USER && data.selectedFields() != null) {
+            properties.put("requiredFields", data.requiredFields());
+        }
+
+        if (data.customFields() != null) {
+            for (Map.Entry<String, String> field : data.customFields().entrySet()) {
+                String uiKey = field.getKey();
+                String flowableKey;
+                if ("AMOUNT".equals(uiKey)) {
+                    flowableKey = "requestedAmountLimit";
+                } else {
+                    flowableKey = uiKey;
+                }
+                properties.put(flowableKey, field.getValue());
+            }
+        }
+
+        if (properties.get("name") == null && type != UiNodeType.START && type != UiNodeType.END) {
+            properties.put("name", label);
+        }
+
+        if (type == UiNodeType.PARALLEL) {
+            if (outdeg > 1 && indeg <= 1) {
+                properties.put("name", "Parallel Split");
+            } else if (indeg > 1 && outdeg <= 1) {
+                properties.put("name", "Parallel Join");
+            }
+        }
+
+        ObjectNode override = cfg.nodeOverride(origId);
+        if (override != null) {
+            deepMerge(properties, override);
+        }
+
+        return NodeTypeConfig.of(stencilId, properties);
+    }
+
     // -------------------------------
     // Config types & utilities
     // -------------------------------
@@ -333,7 +339,7 @@ public class UiToFlowableConverterDBX {
 
     static class Bounds { double ulx, uly, lrx, lry; Bounds(double ulx, double uly, double lrx, double lry) { this.ulx = ulx; this.uly = uly; this.lrx = lrx; this.lry = lry; }}
 
-    private static Bounds boundsFromUi(JsonNode n) {
+    static Bounds boundsFromUi(JsonNode n) {
         JsonNode pos = n.has("positionAbsolute") ? n.get("positionAbsolute") : n.get("position");
         double x = pos != null ? pos.path("x").asDouble(0) : 0;
         double y = pos != null ? pos.path("y").asDouble(0) : 0;
@@ -380,7 +386,7 @@ public class UiToFlowableConverterDBX {
         return p;
     }
 
-    private static String text(JsonNode n, String field) {
+    static String text(JsonNode n, String field) {
         if (n == null || n.isMissingNode()) return null;
         JsonNode v = n.get(field);
         return v != null && !v.isNull() ? v.asText() : null;
@@ -391,15 +397,14 @@ public class UiToFlowableConverterDBX {
         return t != null ? t : def;
     }
 
-    private static ArrayNode arrayOrEmpty(JsonNode n) {
+    static ArrayNode arrayOrEmpty(JsonNode n) {
         return (n != null && n.isArray()) ? (ArrayNode) n : M.createArrayNode();
     }
 
-    private static String nvl(String s) { return s == null ? "" : s; }
 
     private static String capitalize(String s) { if (s == null || s.isEmpty()) return s; return Character.toUpperCase(s.charAt(0)) + s.substring(1); }
 
-    private static String sanitize(String id) {
+    static String sanitize(String id) {
         if (id == null) return "id";
         StringBuilder sb = new StringBuilder();
         for (char c : id.toCharArray()) {
@@ -418,7 +423,7 @@ public class UiToFlowableConverterDBX {
             if (v != null && v.isObject() && a.has(k) && a.get(k).isObject()) {
                 deepMerge((ObjectNode) a.get(k), (ObjectNode) v);
             } else {
-                a.set(k, v);
+                a.set(k, v != null ? v.deepCopy() : null);
             }
         }
     }
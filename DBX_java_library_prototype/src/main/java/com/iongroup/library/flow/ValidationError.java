@@ -0,0 +1,59 @@
+package com.iongroup.library.flow;
+
+/**
+ * One problem found by {@link UiGraphValidator}.
+ * Serializable to JSON for REST endpoints.
+ */
+public class ValidationError {
+
+    public static final String EMPTY_GRAPH = "GRAPH_001";
+    public static final String DANGLING_EDGE = "GRAPH_002";
+    public static final String MISSING_START = "GRAPH_003";
+    public static final String MISSING_END = "GRAPH_004";
+    public static final String START_HAS_INCOMING = "GRAPH_005";
+    public static final String END_HAS_OUTGOING = "GRAPH_006";
+    public static final String UNREACHABLE_NODE = "GRAPH_007";
+    public static final String NO_PATH_TO_END = "GRAPH_008";
+    public static final String CYCLE_WITHOUT_GATEWAY = "GRAPH_009";
+    public static final String UNBALANCED_GATEWAYS = "GRAPH_010";
+    public static final String UNKNOWN_OPERATION = "GRAPH_011";
+
+    private final String code;
+    private final String message;
+    private final String nodeId;
+    private final String edgeId;
+
+    public ValidationError(String code, String message, String nodeId, String edgeId) {
+        this.code = code;
+        this.message = message;
+        this.nodeId = nodeId;
+        this.edgeId = edgeId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * UI node the error is about, or {@code null}.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * UI edge the error is about, or {@code null}.
+     */
+    public String getEdgeId() {
+        return edgeId;
+    }
+
+    @Override
+    public String toString() {
+        return code + ": " + message;
+    }
+}
@@ -0,0 +1,57 @@
+package com.iongroup.library.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide execution metrics per workflow operation.
+ *
+ * The dispatcher records every invocation: count, errors by
+ * {@code BusinessException} error code and a latency histogram.
+ * Recording never locks.
+ */
+public final class OperationMetrics {
+
+    private static final Map<String, OperationStats> STATS = new ConcurrentHashMap<>();
+
+    private OperationMetrics() {
+    }
+
+    /**
+     * Record one invocation.
+     *
+     * @param errorCode error code of the failure, ignored when {@code failed} is false
+     */
+    public static void record(String operationId, String category, long nanos, boolean failed, String errorCode) {
+        OperationStats stats = STATS.get(operationId);
+        if (stats == null) {
+            stats = STATS.computeIfAbsent(operationId, id -> new OperationStats(id, category));
+        }
+        stats.record(nanos, errorCode, failed);
+    }
+
+    /**
+     * Snapshot of all operations invoked so far, sorted by operation id.
+     */
+    public static List<OperationMetricsSnapshot> snapshot() {
+        List<OperationMetricsSnapshot> result = new ArrayList<>(STATS.size());
+        STATS.values().forEach(s -> result.add(s.snapshot()));
+        result.sort(Comparator.comparing(OperationMetricsSnapshot::getOperationId));
+        return result;
+    }
+
+    /**
+     * Snapshot of one operation, or {@code null} if it was never invoked.
+     */
+    public static OperationMetricsSnapshot snapshot(String operationId) {
+        OperationStats stats = STATS.get(operationId);
+        return stats != null ? stats.snapshot() : null;
+    }
+
+    public static void reset() {
+        STATS.values().forEach(OperationStats::reset);
+    }
+}
@@ -0,0 +1,76 @@
+package com.iongroup.library.metrics;
+
+import java.util.Map;
+
+/**
+ * Point-in-time metrics of one operation (latencies in milliseconds).
+ * Serializable to JSON for REST endpoints.
+ */
+public class OperationMetricsSnapshot {
+
+    private final String operationId;
+    private final String category;
+    private final long invocations;
+    private final long errors;
+    private final Map<String, Long> errorsByCode;
+    private final double meanMs;
+    private final double p50Ms;
+    private final double p95Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    public OperationMetricsSnapshot(String operationId, String category, long invocations, long errors,
+            Map<String, Long> errorsByCode, double meanMs, double p50Ms, double p95Ms, double p99Ms,
+            double maxMs) {
+        this.operationId = operationId;
+        this.category = category;
+        this.invocations = invocations;
+        this.errors = errors;
+        this.errorsByCode = errorsByCode;
+        this.meanMs = meanMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public Map<String, Long> getErrorsByCode() {
+        return errorsByCode;
+    }
+
+    public double getMeanMs() {
+        return meanMs;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public double getP95Ms() {
+        return p95Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+}
@@ -0,0 +1,63 @@
+package com.iongroup.library.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters and latency histogram of one operation.
+ */
+public final class OperationStats {
+
+    static final String UNKNOWN_ERROR_CODE = "UNKNOWN";
+
+    private final String operationId;
+    private final String category;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorsByCode = new ConcurrentHashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationStats(String operationId, String category) {
+        this.operationId = operationId;
+        this.category = category;
+    }
+
+    void record(long nanos, String errorCode, boolean failed) {
+        invocations.increment();
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+            errorsByCode.computeIfAbsent(errorCode != null ? errorCode : UNKNOWN_ERROR_CODE,
+                    k -> new LongAdder()).increment();
+        }
+    }
+
+    public OperationMetricsSnapshot snapshot() {
+        Map<String, Long> codes = new TreeMap<>();
+        errorsByCode.forEach((code, n) -> codes.put(code, n.sum()));
+        return new OperationMetricsSnapshot(
+                operationId,
+                category,
+                invocations.sum(),
+                errors.sum(),
+                codes,
+                toMillis(latency.getMean()),
+                toMillis(latency.getValueAtPercentile(50)),
+                toMillis(latency.getValueAtPercentile(95)),
+                toMillis(latency.getValueAtPercentile(99)),
+                toMillis(latency.getMax()));
+    }
+
+    void reset() {
+        invocations.reset();
+        errors.reset();
+        errorsByCode.clear();
+        latency.reset();
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
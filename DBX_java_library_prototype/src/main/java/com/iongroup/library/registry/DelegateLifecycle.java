@@ -0,0 +1,19 @@
+package com.iongroup.library.registry;
+
+/**
+ * How the dispatcher obtains a delegate instance for an operation.
+ *
+ * - SINGLETON: one shared instance; the delegate must be stateless and thread-safe
+ * - PROTOTYPE: a new instance per execution (safe default for delegates with state)
+ */
+public enum DelegateLifecycle {
+    /**
+     * One instance is created on first use and reused for every execution.
+     */
+    SINGLETON,
+
+    /**
+     * A new instance is created for every execution through a cached constructor handle.
+     */
+    PROTOTYPE
+}
@@ -0,0 +1,99 @@
+package com.iongroup.library.registry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Supplies delegate instances for one registered operation. Instances are
+ * either a {@code JavaDelegate} or a {@code FutureJavaDelegate}.
+ *
+ * The no-arg constructor is looked up once as a {@link MethodHandle}; no
+ * reflection happens on the execution path.
+ */
+public abstract class DelegateProvider {
+
+    private static final MethodType NO_ARG_DELEGATE = MethodType.methodType(Object.class);
+
+    /**
+     * Return the delegate to execute, creating it if the lifecycle requires.
+     */
+    public abstract Object get();
+
+    public abstract DelegateLifecycle getLifecycle();
+
+    /**
+     * Build a provider for the given class.
+     *
+     * @throws NoSuchMethodException  if there is no public no-arg constructor
+     * @throws IllegalAccessException if the constructor is not accessible
+     */
+    static DelegateProvider create(Class<?> clazz, DelegateLifecycle lifecycle)
+            throws NoSuchMethodException, IllegalAccessException {
+        MethodHandle constructor = MethodHandles.publicLookup()
+                .findConstructor(clazz, MethodType.methodType(void.class))
+                .asType(NO_ARG_DELEGATE);
+        return lifecycle == DelegateLifecycle.SINGLETON
+                ? new Singleton(constructor)
+                : new Prototype(constructor);
+    }
+
+    static Object instantiate(MethodHandle constructor) {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Delegate constructor failed", t);
+        }
+    }
+
+    private static final class Prototype extends DelegateProvider {
+
+        private final MethodHandle constructor;
+
+        Prototype(MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object get() {
+            return instantiate(constructor);
+        }
+
+        @Override
+        public DelegateLifecycle getLifecycle() {
+            return DelegateLifecycle.PROTOTYPE;
+        }
+    }
+
+    private static final class Singleton extends DelegateProvider {
+
+        private final MethodHandle constructor;
+        private volatile Object instance;
+
+        Singleton(MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object get() {
+            Object d = instance;
+            if (d == null) {
+                synchronized (this) {
+                    d = instance;
+                    if (d == null) {
+                        d = instantiate(constructor);
+                        instance = d;
+                    }
+                }
+            }
+            return d;
+        }
+
+        @Override
+        public DelegateLifecycle getLifecycle() {
+            return DelegateLifecycle.SINGLETON;
+        }
+    }
+}
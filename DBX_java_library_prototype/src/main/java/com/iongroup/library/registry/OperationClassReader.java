@@ -0,0 +1,250 @@
+package com.iongroup.library.registry;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@link WorkFlowOperation} metadata straight from class file bytes,
+ * without loading or initializing the class.
+ *
+ * Only the constant pool is parsed for classes that do not reference the
+ * annotation, so non-operation classes are rejected cheaply.
+ */
+final class OperationClassReader {
+
+    private static final byte[] ANNOTATION_DESCRIPTOR =
+            ("L" + WorkFlowOperation.class.getName().replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private final ByteBuffer in;
+    private int[] offsets;
+
+    private OperationClassReader(byte[] classBytes) {
+        this.in = ByteBuffer.wrap(classBytes);
+    }
+
+    /**
+     * Descriptor of an operation class, or {@code null} when the class is not
+     * a concrete, public class annotated with {@link WorkFlowOperation}.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    static OperationDescriptor read(byte[] classBytes) {
+        try {
+            return new OperationClassReader(classBytes).read();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or malformed class file", e);
+        }
+    }
+
+    private OperationDescriptor read() {
+        if (in.getInt() != 0xCAFEBABE) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        in.position(in.position() + 4); // minor, major version
+        if (!readConstantPool()) {
+            return null;
+        }
+
+        int access = u2();
+        String className = utf8(u2At(offsets[u2()])).replace('/', '.');
+        skip(2); // super class
+        skip(2 * u2()); // interfaces
+        skipMembers(); // fields
+        skipMembers(); // methods
+
+        Map<String, Object> values = null;
+        for (int attributes = u2(); attributes > 0 && values == null; attributes--) {
+            String name = utf8(u2());
+            int length = in.getInt();
+            int end = in.position() + length;
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                values = readOperationAnnotation();
+            }
+            in.position(end);
+        }
+        if (values == null) {
+            return null;
+        }
+        if ((access & ACC_PUBLIC) == 0 || (access & (ACC_INTERFACE | ACC_ABSTRACT)) != 0) {
+            System.err.println("Ignoring @WorkFlowOperation on non-public or abstract class: " + className);
+            return null;
+        }
+
+        OperationDescriptor descriptor = new OperationDescriptor(
+                (String) values.get("id"),
+                (String) values.get("description"),
+                strings(values.get("inputs")),
+                strings(values.get("outputs")),
+                className,
+                (String) values.get("category"),
+                values.containsKey("type") ? DelegationType.valueOf((String) values.get("type")) : null,
+                strings(values.get("selectableFields")),
+                strings(values.get("customizableFields")));
+        if (values.containsKey("lifecycle")) {
+            descriptor.setLifecycle(DelegateLifecycle.valueOf((String) values.get("lifecycle")));
+        }
+        return descriptor;
+    }
+
+    /**
+     * Record entry offsets; returns whether the annotation descriptor occurs.
+     */
+    private boolean readConstantPool() {
+        int count = u2();
+        offsets = new int[count];
+        boolean referenced = false;
+        for (int i = 1; i < count; i++) {
+            int tag = in.get();
+            offsets[i] = in.position();
+            switch (tag) {
+                case 1: // Utf8
+                    int length = u2();
+                    referenced |= matches(in.position(), length, ANNOTATION_DESCRIPTOR);
+                    skip(length);
+                    break;
+                case 7: case 8: case 16: case 19: case 20: // Class, String, MethodType, Module, Package
+                    skip(2);
+                    break;
+                case 15: // MethodHandle
+                    skip(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    skip(4);
+                    break;
+                case 5: case 6: // Long, Double take two slots
+                    skip(8);
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        return referenced;
+    }
+
+    private Map<String, Object> readOperationAnnotation() {
+        Map<String, Object> result = null;
+        for (int n = u2(); n > 0; n--) {
+            boolean operation = isAnnotationDescriptor(u2());
+            Map<String, Object> values = operation ? new HashMap<>() : null;
+            for (int pairs = u2(); pairs > 0; pairs--) {
+                String name = utf8(u2());
+                Object value = elementValue();
+                if (values != null) {
+                    values.put(name, value);
+                }
+            }
+            if (operation) {
+                result = values;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Strings for {@code s}, enum constant names for {@code e}, lists for
+     * arrays; other element kinds are skipped and returned as {@code null}.
+     */
+    private Object elementValue() {
+        int tag = in.get();
+        switch (tag) {
+            case 's':
+                return utf8(u2());
+            case 'e':
+                skip(2); // enum type
+                return utf8(u2());
+            case '[':
+                int n = u2();
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    list.add(elementValue());
+                }
+                return list;
+            case '@':
+                skip(2);
+                for (int pairs = u2(); pairs > 0; pairs--) {
+                    skip(2);
+                    elementValue();
+                }
+                return null;
+            default: // primitives and class literals
+                skip(2);
+                return null;
+        }
+    }
+
+    private void skipMembers() {
+        for (int members = u2(); members > 0; members--) {
+            skip(6); // access, name, descriptor
+            for (int attributes = u2(); attributes > 0; attributes--) {
+                skip(2);
+                skip(in.getInt());
+            }
+        }
+    }
+
+    private boolean isAnnotationDescriptor(int index) {
+        int offset = offsets[index];
+        return matches(offset + 2, u2At(offset), ANNOTATION_DESCRIPTOR);
+    }
+
+    private boolean matches(int offset, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (in.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String utf8(int index) {
+        int offset = offsets[index];
+        int length = u2At(offset);
+        // Class files use modified UTF-8, which is what readUTF expects (length prefix included)
+        try {
+            return new DataInputStream(new ByteArrayInputStream(in.array(), offset, length + 2)).readUTF();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> strings(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (Object item : (List<Object>) value) {
+            result.add((String) item);
+        }
+        return List.copyOf(result);
+    }
+
+    private int u2() {
+        return Short.toUnsignedInt(in.getShort());
+    }
+
+    private int u2At(int offset) {
+        return Short.toUnsignedInt(in.getShort(offset));
+    }
+
+    private void skip(int bytes) {
+        in.position(in.position() + bytes);
+    }
+}
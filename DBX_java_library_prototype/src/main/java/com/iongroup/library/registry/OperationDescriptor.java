@@ -19,6 +19,7 @@ public class OperationDescriptor {
     private DelegationType delegationType; // Type of delegation (SERVICE, SCRIPT, USER_TASK)
     private List<String> selectableFields;
     private List<String> customizableFields;
+    private DelegateLifecycle lifecycle = DelegateLifecycle.PROTOTYPE; // How the dispatcher instantiates the delegate
 
     public OperationDescriptor() {
     }
@@ -140,6 +141,14 @@ public class OperationDescriptor {
         return customizableFields;
     }
 
+    public DelegateLifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    public void setLifecycle(DelegateLifecycle lifecycle) {
+        this.lifecycle = lifecycle;
+    }
+
     public String getCategory() {
         return category;
     }
@@ -0,0 +1,197 @@
+package com.iongroup.library.registry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Compact, build-time generated index of all {@link WorkFlowOperation} classes.
+ *
+ * The index is written by {@code WorkFlowOperationProcessor} while the library is
+ * compiled and packaged as {@value #RESOURCE}. Loading it replaces the runtime
+ * JAR scan: no class is loaded or initialized to discover operations.
+ *
+ * Format (UTF-8, one operation per line, fields separated by TAB):
+ * <pre>
+ * id  delegateClass  category  type  description  inputs  outputs  selectableFields  customizableFields  lifecycle
+ * </pre>
+ * List fields are comma separated. Backslash, TAB, newline, carriage return and
+ * comma are escaped with a backslash. Lines starting with '#' are comments.
+ */
+public final class OperationIndex {
+
+    public static final String RESOURCE = "META-INF/dbx/workflow-operations.idx";
+
+    public static final String HEADER = "# DBX workflow operation index v1";
+
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char LIST_SEPARATOR = ',';
+
+    private OperationIndex() {
+    }
+
+    /**
+     * Load and merge every index visible to the given classloader.
+     * Returns an empty list when no index is packaged.
+     */
+    public static List<OperationDescriptor> load(ClassLoader classLoader) throws IOException {
+        List<OperationDescriptor> result = new ArrayList<>();
+        Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+        while (resources.hasMoreElements()) {
+            try (InputStream in = resources.nextElement().openStream()) {
+                result.addAll(read(in));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse a single index stream.
+     */
+    public static List<OperationDescriptor> read(InputStream in) throws IOException {
+        List<OperationDescriptor> result = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            List<String> f = split(line, FIELD_SEPARATOR);
+            if (f.size() < 9) {
+                throw new IOException("Malformed operation index line: " + line);
+            }
+            OperationDescriptor descriptor = new OperationDescriptor(
+                    unescape(f.get(0)),
+                    unescape(f.get(4)),
+                    readList(f.get(5)),
+                    readList(f.get(6)),
+                    unescape(f.get(1)),
+                    unescape(f.get(2)),
+                    DelegationType.valueOf(unescape(f.get(3))),
+                    readList(f.get(7)),
+                    readList(f.get(8)));
+            if (f.size() > 9 && !f.get(9).isEmpty()) {
+                descriptor.setLifecycle(DelegateLifecycle.valueOf(unescape(f.get(9))));
+            }
+            result.add(descriptor);
+        }
+        return result;
+    }
+
+    /**
+     * Encode one index line. Used by the annotation processor.
+     */
+    public static String line(String id, String delegateClass, String category, String type,
+            String description, List<String> inputs, List<String> outputs,
+            List<String> selectableFields, List<String> customizableFields, String lifecycle) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(escape(id)).append(FIELD_SEPARATOR)
+                .append(escape(delegateClass)).append(FIELD_SEPARATOR)
+                .append(escape(category)).append(FIELD_SEPARATOR)
+                .append(escape(type)).append(FIELD_SEPARATOR)
+                .append(escape(description)).append(FIELD_SEPARATOR);
+        appendList(sb, inputs).append(FIELD_SEPARATOR);
+        appendList(sb, outputs).append(FIELD_SEPARATOR);
+        appendList(sb, selectableFields).append(FIELD_SEPARATOR);
+        appendList(sb, customizableFields).append(FIELD_SEPARATOR)
+                .append(escape(lifecycle));
+        return sb.toString();
+    }
+
+    /**
+     * Encode a descriptor read back from an index.
+     */
+    public static String line(OperationDescriptor d) {
+        return line(d.getId(), d.getDelegateClass(), d.getCategory(), d.getDelegationType().name(),
+                d.getDescription(), d.getInputs(), d.getOutputs(), d.getSelectableFields(),
+                d.getCustomizableFields(), d.getLifecycle() == null ? "" : d.getLifecycle().name());
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static StringBuilder appendList(StringBuilder sb, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(LIST_SEPARATOR);
+            sb.append(escape(values.get(i)));
+        }
+        return sb;
+    }
+
+    private static List<String> readList(String field) {
+        if (field.isEmpty()) return Collections.emptyList();
+        List<String> raw = split(field, LIST_SEPARATOR);
+        List<String> values = new ArrayList<>(raw.size());
+        for (String v : raw) values.add(unescape(v));
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Split on an unescaped separator; escapes are kept for {@link #unescape}.
+     */
+    private static List<String> split(String s, char separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == separator) {
+                parts.add(s.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(s.substring(start));
+        return parts;
+    }
+
+    private static String escape(String s) {
+        if (s == null) return "";
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String rep = switch (c) {
+                case '\\' -> "\\\\";
+                case '\t' -> "\\t";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case ',' -> "\\,";
+                default -> null;
+            };
+            if (rep != null && sb == null) {
+                sb = new StringBuilder(s.length() + 8).append(s, 0, i);
+            }
+            if (sb != null) {
+                if (rep != null) sb.append(rep);
+                else sb.append(c);
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                sb.append(switch (n) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> n;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,228 @@
+package com.iongroup.library.registry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Directory of operation plugin JARs that is watched for changes.
+ *
+ * Every {@code *.jar} in the directory is scanned in its own classloader
+ * (see {@link PluginJarScanner}); changed JARs are scanned in parallel and
+ * unchanged ones are reused. After each scan the registry is republished
+ * with {@link RegistryConfiguration#publishPlugins}, a single atomic swap:
+ * the dispatcher keeps using the previous snapshot until the new one is
+ * complete and never waits for a reload.
+ *
+ * Process definitions already deployed resolve their operations again on
+ * first use after a reload (see OperationBindingParseHandler). Replaced
+ * plugins are released once the new snapshot is published: their
+ * classloader is closed and their shadow copy deleted.
+ *
+ * <pre>
+ * OperationPluginDirectory plugins = OperationPluginDirectory.watch(Path.of("plugins"));
+ * ...
+ * plugins.close();
+ * </pre>
+ */
+public final class OperationPluginDirectory implements Closeable {
+
+    /** Quiet period that groups the events of one copy or build into a single reload. */
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Path directory;
+    private final PluginJarScanner scanner;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    // Guarded by this; scanned plugins by JAR path
+    private Map<Path, LoadedPlugin> loaded = Map.of();
+
+    private OperationPluginDirectory(Path directory, boolean watch) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        Files.createDirectories(this.directory);
+        Path shadowDir = Files.createTempDirectory("dbx-plugins");
+        shadowDir.toFile().deleteOnExit();
+        this.scanner = new PluginJarScanner(shadowDir);
+
+        if (watch) {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            this.directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            this.watcher = new Thread(this::watchLoop, "dbx-plugin-watcher");
+            this.watcher.setDaemon(true);
+        } else {
+            this.watchService = null;
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * Load the plugins in {@code directory} once, without watching it.
+     */
+    public static OperationPluginDirectory load(Path directory) throws IOException {
+        OperationPluginDirectory plugins = new OperationPluginDirectory(directory, false);
+        plugins.reload();
+        return plugins;
+    }
+
+    /**
+     * Load the plugins in {@code directory} and reload them whenever a JAR
+     * is added, replaced or removed.
+     */
+    public static OperationPluginDirectory watch(Path directory) throws IOException {
+        OperationPluginDirectory plugins = new OperationPluginDirectory(directory, true);
+        plugins.reload();
+        plugins.watcher.start();
+        return plugins;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Rescan the directory and publish a new registry snapshot.
+     *
+     * @return the published snapshot
+     */
+    public synchronized RegistrySnapshot reload() throws IOException {
+        List<Path> jars;
+        try (Stream<Path> files = Files.list(directory)) {
+            jars = files.filter(p -> p.getFileName().toString().endsWith(".jar") && Files.isRegularFile(p))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        Map<Path, LoadedPlugin> previous = loaded;
+        Queue<UncheckedIOException> failures = new ConcurrentLinkedQueue<>();
+        List<LoadedPlugin> plugins = jars.parallelStream()
+                .map(jar -> {
+                    try {
+                        return load(jar, previous.get(jar));
+                    } catch (UncheckedIOException e) {
+                        failures.add(e);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (!failures.isEmpty()) {
+            // plugins scanned in this pass are never published
+            for (LoadedPlugin plugin : plugins) {
+                if (plugin != previous.get(plugin.jar)) plugin.source.release();
+            }
+            throw failures.peek().getCause();
+        }
+
+        Map<Path, LoadedPlugin> next = new HashMap<>();
+        List<OperationSource> sources = new ArrayList<>(plugins.size());
+        for (LoadedPlugin plugin : plugins) {
+            next.put(plugin.jar, plugin);
+            sources.add(plugin.source);
+        }
+        loaded = next;
+
+        RegistrySnapshot snapshot = RegistryConfiguration.publishPlugins(sources);
+        System.out.println("Loaded " + sources.size() + " plugin JARs from " + directory
+                + ", " + snapshot.size() + " operations registered");
+        return snapshot;
+    }
+
+    /**
+     * Stop watching. Operations already published stay registered.
+     */
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private LoadedPlugin load(Path jar, LoadedPlugin previous) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(jar, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (previous != null && previous.modified == modified && previous.size == attrs.size()) {
+                return previous;
+            }
+            OperationSource source = scanner.scan(jar);
+            System.out.println("Scanned plugin " + jar.getFileName() + ": "
+                    + source.getOperations().size() + " operations");
+            return new LoadedPlugin(jar, modified, attrs.size(), source);
+        } catch (NoSuchFileException e) {
+            return null; // removed while scanning; the delete event triggers another reload
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan plugin " + jar, e);
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = drain(key);
+                // Wait until the directory is quiet so partially written JARs are not scanned
+                WatchKey more;
+                while ((more = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(more);
+                }
+                if (!relevant) {
+                    continue;
+                }
+                try {
+                    reload();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Plugin reload failed, keeping previous registry: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean relevant = key.pollEvents().stream().anyMatch(event ->
+                event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || event.context().toString().endsWith(".jar"));
+        key.reset();
+        return relevant;
+    }
+
+    private static final class LoadedPlugin {
+        final Path jar;
+        final long modified;
+        final long size;
+        final OperationSource source;
+
+        LoadedPlugin(Path jar, long modified, long size, OperationSource source) {
+            this.jar = jar;
+            this.modified = modified;
+            this.size = size;
+            this.source = source;
+        }
+    }
+}
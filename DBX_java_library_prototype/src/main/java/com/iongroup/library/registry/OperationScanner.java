@@ -0,0 +1,176 @@
+package com.iongroup.library.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Classpath discovery of {@link WorkFlowOperation} classes.
+ *
+ * Every classpath root that contains one of the base packages is scanned:
+ * exploded directories ({@code target/classes}), plain JARs and JARs nested
+ * in a Spring Boot fat JAR. Roots that ship a build-time
+ * {@link OperationIndex} are skipped because their operations are read from
+ * the index. Annotation metadata is read from the class bytes
+ * ({@link OperationClassReader}), so no class is loaded here; roots are
+ * scanned in parallel.
+ */
+final class OperationScanner {
+
+    private OperationScanner() {
+    }
+
+    static List<OperationDescriptor> scan(ClassLoader classLoader, Collection<String> basePackages)
+            throws IOException {
+        Set<String> indexedRoots = new HashSet<>();
+        for (URL index : Collections.list(classLoader.getResources(OperationIndex.RESOURCE))) {
+            indexedRoots.add(rootOf(index.toString(), OperationIndex.RESOURCE));
+        }
+
+        Map<String, URL> roots = new LinkedHashMap<>();
+        for (String basePackage : basePackages) {
+            String path = basePackage.replace('.', '/');
+            for (URL url : Collections.list(classLoader.getResources(path))) {
+                if (!indexedRoots.contains(rootOf(url.toString(), path))) {
+                    roots.putIfAbsent(url.toString(), url);
+                }
+            }
+        }
+
+        try {
+            return roots.values().parallelStream()
+                    .flatMap(url -> scanRoot(url).stream())
+                    .sorted(Comparator.comparing(OperationDescriptor::getId))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String rootOf(String url, String resourcePath) {
+        String s = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        return s.endsWith(resourcePath) ? s.substring(0, s.length() - resourcePath.length()) : s;
+    }
+
+    private static List<OperationDescriptor> scanRoot(URL url) {
+        try {
+            List<OperationDescriptor> found = "file".equals(url.getProtocol())
+                    ? scanDirectory(Paths.get(url.toURI()))
+                    : scanArchive(url);
+            for (OperationDescriptor descriptor : found) {
+                System.out.println("Registered: " + descriptor.getDelegateClass());
+            }
+            return found;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan " + url, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid classpath URL: " + url, e);
+        }
+    }
+
+    private static List<OperationDescriptor> scanDirectory(Path dir) throws IOException {
+        List<OperationDescriptor> result = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.filter(OperationScanner::isClassFile)::iterator) {
+                add(result, Files.readAllBytes(file), file.toString());
+            }
+        }
+        return result;
+    }
+
+    private static List<OperationDescriptor> scanArchive(URL url) throws IOException, URISyntaxException {
+        String spec = url.toString();
+        int first = spec.indexOf("!/");
+        int second = first < 0 ? -1 : spec.indexOf("!/", first + 2);
+        if (spec.startsWith("jar:file:") && second >= 0) {
+            // jar:file:app.jar!/BOOT-INF/lib/lib.jar!/pkg when no nested JAR handler is installed
+            Path outer = Paths.get(new URL(spec.substring("jar:".length(), first)).toURI());
+            try (JarFile outerJar = new JarFile(outer.toFile())) {
+                JarEntry inner = outerJar.getJarEntry(spec.substring(first + 2, second));
+                if (inner == null) {
+                    return List.of();
+                }
+                try (JarInputStream in = new JarInputStream(outerJar.getInputStream(inner))) {
+                    return scanStream(in, spec.substring(second + 2));
+                }
+            }
+        }
+
+        // Plain JARs, and nested JARs through the handler of the Spring Boot launcher
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            System.err.println("Unsupported classpath root, skipped: " + url);
+            return List.of();
+        }
+        JarURLConnection jar = (JarURLConnection) connection;
+        jar.setUseCaches(false);
+        String prefix = jar.getEntryName() == null ? "" : jar.getEntryName();
+
+        List<OperationDescriptor> result = new ArrayList<>();
+        try (JarFile jarFile = jar.getJarFile()) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().startsWith(prefix) && isClassFile(entry.getName())) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        add(result, in.readAllBytes(), entry.getName());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<OperationDescriptor> scanStream(JarInputStream in, String prefix) throws IOException {
+        List<OperationDescriptor> result = new ArrayList<>();
+        JarEntry entry;
+        while ((entry = in.getNextJarEntry()) != null) {
+            if (entry.getName().startsWith(prefix) && isClassFile(entry.getName())) {
+                add(result, in.readAllBytes(), entry.getName());
+            }
+        }
+        return result;
+    }
+
+    private static void add(List<OperationDescriptor> result, byte[] classBytes, String source) {
+        try {
+            OperationDescriptor descriptor = OperationClassReader.read(classBytes);
+            if (descriptor != null) {
+                result.add(descriptor);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Could not read class file " + source + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isClassFile(Path file) {
+        return isClassFile(file.getFileName().toString());
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.contains("$") && !name.endsWith("module-info.class")
+                && !name.endsWith("package-info.class");
+    }
+}
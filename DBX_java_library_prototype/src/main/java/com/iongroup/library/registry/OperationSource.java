@@ -0,0 +1,74 @@
+package com.iongroup.library.registry;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operations contributed by one origin (the library itself or a plugin JAR)
+ * together with the classloader that resolves their delegate classes.
+ *
+ * Each operation is resolved once and shared by every snapshot built from
+ * this source, so a plugin reload keeps the library's delegates. A plugin
+ * source is {@link #release() released} once no published snapshot uses it.
+ */
+final class OperationSource {
+
+    private final String name;
+    private final ClassLoader classLoader;
+    private final List<OperationDescriptor> operations;
+    // shadow copy of a plugin JAR, or null
+    private final Path copy;
+    private final Map<OperationDescriptor, RegisteredOperation> resolved = new IdentityHashMap<>();
+
+    OperationSource(String name, ClassLoader classLoader, List<OperationDescriptor> operations) {
+        this(name, classLoader, operations, null);
+    }
+
+    OperationSource(String name, ClassLoader classLoader, List<OperationDescriptor> operations, Path copy) {
+        this.name = name;
+        this.classLoader = classLoader;
+        this.operations = List.copyOf(operations);
+        this.copy = copy;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    List<OperationDescriptor> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Resolved form of one of {@link #getOperations()}.
+     */
+    synchronized RegisteredOperation resolve(OperationDescriptor descriptor) {
+        return resolved.computeIfAbsent(descriptor, d -> RegisteredOperation.resolve(d, classLoader));
+    }
+
+    /**
+     * Close a plugin's classloader and delete its shadow copy. Classes it
+     * already loaded stay usable by executions still running them.
+     */
+    void release() {
+        try {
+            if (classLoader instanceof URLClassLoader && copy != null) {
+                ((URLClassLoader) classLoader).close();
+            }
+            if (copy != null) {
+                Files.deleteIfExists(copy);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not release plugin " + name + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.iongroup.library.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Discovers the operations of one plugin JAR in its own classloader.
+ *
+ * The JAR is copied to a private shadow directory first, so the original file
+ * can be replaced or deleted while its classes are still in use. The copy
+ * is deleted when the source is released. The plugin's
+ * build-time index is used when present; otherwise the class files in the JAR
+ * are read for {@link WorkFlowOperation} metadata without loading them.
+ */
+final class PluginJarScanner {
+
+    private static final AtomicInteger COPIES = new AtomicInteger();
+
+    private final Path shadowDir;
+
+    PluginJarScanner(Path shadowDir) {
+        this.shadowDir = shadowDir;
+    }
+
+    OperationSource scan(Path jar) throws IOException {
+        String fileName = jar.getFileName().toString();
+        Path copy = shadowDir.resolve(COPIES.incrementAndGet() + "-" + fileName);
+        Files.copy(jar, copy, StandardCopyOption.REPLACE_EXISTING);
+        copy.toFile().deleteOnExit();
+
+        URLClassLoader loader = new URLClassLoader(
+                "dbx-plugin:" + fileName,
+                new URL[] { copy.toUri().toURL() },
+                RegistryConfiguration.class.getClassLoader());
+        OperationSource source = null;
+        try {
+            List<OperationDescriptor> operations = readIndex(loader);
+            if (operations == null) {
+                operations = scanClasses(copy);
+            }
+            source = new OperationSource(fileName, loader, operations, copy);
+            return source;
+        } finally {
+            if (source == null) {
+                new OperationSource(fileName, loader, List.of(), copy).release();
+            }
+        }
+    }
+
+    private static List<OperationDescriptor> readIndex(URLClassLoader loader) throws IOException {
+        // findResource only looks inside this JAR, not in the parent loader
+        URL index = loader.findResource(OperationIndex.RESOURCE);
+        if (index == null) {
+            return null;
+        }
+        try (InputStream in = index.openStream()) {
+            return OperationIndex.read(in);
+        }
+    }
+
+    private static List<OperationDescriptor> scanClasses(Path jar) throws IOException {
+        List<OperationDescriptor> result = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (!name.endsWith(".class") || name.contains("$") || name.endsWith("module-info.class")) {
+                    continue;
+                }
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    OperationDescriptor descriptor = OperationClassReader.read(in.readAllBytes());
+                    if (descriptor != null) {
+                        result.add(descriptor);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Could not read plugin class " + name + ": " + e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+package com.iongroup.library.registry;
+
+import org.flowable.engine.delegate.FutureJavaDelegate;
+import org.flowable.engine.delegate.JavaDelegate;
+
+/**
+ * A registered operation together with its resolved delegate class.
+ *
+ * Instances are created once when the registry snapshot is built and are
+ * immutable, so they can be shared by all dispatcher invocations.
+ */
+public final class RegisteredOperation {
+
+    private final OperationDescriptor descriptor;
+    private final Class<?> delegateClass;
+    private final boolean async;
+    private final DelegateProvider provider;
+    private final String errorCode;
+    private final String errorMessage;
+
+    private RegisteredOperation(OperationDescriptor descriptor, Class<?> delegateClass,
+            DelegateProvider provider, String errorCode, String errorMessage) {
+        this.descriptor = descriptor;
+        this.delegateClass = delegateClass;
+        this.async = delegateClass != null && FutureJavaDelegate.class.isAssignableFrom(delegateClass);
+        this.provider = provider;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Resolve the descriptor's delegate class without initializing it.
+     * Resolution failures are kept and reported when the operation is dispatched.
+     */
+    static RegisteredOperation resolve(OperationDescriptor descriptor, ClassLoader classLoader) {
+        String className = descriptor.getDelegateClass();
+        if (className == null || className.isBlank()) {
+            return new RegisteredOperation(descriptor, null, null, "DISPATCHER_003",
+                    "Operation " + descriptor.getId() + " has no delegateClass defined");
+        }
+        try {
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            if (!JavaDelegate.class.isAssignableFrom(clazz) && !FutureJavaDelegate.class.isAssignableFrom(clazz)) {
+                return new RegisteredOperation(descriptor, null, null, "DISPATCHER_004",
+                        "Delegate class implements neither JavaDelegate nor FutureJavaDelegate: " + className);
+            }
+            DelegateProvider provider = DelegateProvider.create(clazz, descriptor.getLifecycle());
+            return new RegisteredOperation(descriptor, clazz, provider, null, null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return new RegisteredOperation(descriptor, null, null, "DISPATCHER_004",
+                    "Delegate class has no public no-arg constructor: " + className);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return new RegisteredOperation(descriptor, null, null, "DISPATCHER_004",
+                    "Could not load delegate class: " + className);
+        }
+    }
+
+    public String getId() {
+        return descriptor.getId();
+    }
+
+    public OperationDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Resolved delegate class, or {@code null} when resolution failed.
+     */
+    public Class<?> getDelegateClass() {
+        return delegateClass;
+    }
+
+    /**
+     * Whether the delegate is a {@link FutureJavaDelegate} whose work runs
+     * off the engine thread. Future delegates take precedence when a class
+     * implements both interfaces.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Provider honouring the operation's {@link DelegateLifecycle}, or
+     * {@code null} when resolution failed.
+     */
+    public DelegateProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Dispatcher error code explaining why resolution failed, or {@code null}.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Why the delegate class could not be resolved, or {@code null}.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -5,16 +5,11 @@ import org.reflections.scanners.Scanners;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.stream.Collectors;
-import java.io.File;
-import java.net.URL;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.HashSet;
 
 /**
  * Configuration-like helper in the library to register all annotated workflow
@@ -24,6 +19,8 @@ public class RegistryConfiguration {
 
     private static final String BASE_PACKAGE = "com.iongroup.library.adapter.flowable";
 
+    private static final String PACKAGES_PROPERTY = "dbx.operations.packages";
+
     public static void main(String[] args) {
 
         // 1. Print all operations
@@ -47,77 +44,146 @@ public class RegistryConfiguration {
                 .forEach(op -> System.out.println(op.getId() + " (" + op.getDelegateClass() + ")"));
     }
 
+    private static volatile RegistrySnapshot snapshot;
+
+    // Guarded by RegistryConfiguration.class; only used to build new snapshots
+    private static OperationSource librarySource;
+    private static List<OperationSource> pluginSources = List.of();
+
+    /**
+     * Current registry snapshot. Discovery runs once per classloader; the
+     * snapshot is safely published and shared by all callers afterwards.
+     *
+     * Plugin reloads replace the snapshot with a single volatile write, so
+     * readers see either the old or the new registry, never a partial one.
+     */
+    public static RegistrySnapshot getSnapshot() {
+        RegistrySnapshot s = snapshot;
+        if (s == null) {
+            synchronized (RegistryConfiguration.class) {
+                s = snapshot;
+                if (s == null) {
+                    s = buildSnapshot();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Replace all plugin operations and publish a new snapshot. Library
+     * operations always take precedence over plugin operations with the same id,
+     * and keep the delegates they were resolved with. Plugin sources no longer
+     * published are released.
+     */
+    static RegistrySnapshot publishPlugins(List<OperationSource> plugins) {
+        synchronized (RegistryConfiguration.class) {
+            List<OperationSource> previous = pluginSources;
+            pluginSources = List.copyOf(plugins);
+            RegistrySnapshot s = buildSnapshot();
+            snapshot = s;
+            for (OperationSource source : previous) {
+                if (!pluginSources.contains(source)) {
+                    source.release();
+                }
+            }
+            return s;
+        }
+    }
+
+    private static RegistrySnapshot buildSnapshot() {
+        if (librarySource == null) {
+            librarySource = new OperationSource("library", RegistryConfiguration.class.getClassLoader(),
+                    loadOperations());
+        }
+        List<OperationSource> sources = new ArrayList<>(pluginSources.size() + 1);
+        sources.add(librarySource);
+        sources.addAll(pluginSources);
+        return new RegistrySnapshot(sources);
+    }
+
+    /**
+     * All registered operations as an immutable list.
+     */
     public static List<OperationDescriptor> getAllOperations() {
-        List<OperationDescriptor> result = new ArrayList<>();
+        return getSnapshot().getOperations();
+    }
 
+    /**
+     * O(1) lookup of an operation and its resolved delegate class.
+     *
+     * @return the operation, or {@code null} when no operation has this id
+     */
+    public static RegisteredOperation getOperation(String id) {
+        return getSnapshot().get(id);
+    }
+
+    /**
+     * Operations from the build-time indexes written by WorkFlowOperationProcessor,
+     * plus a bytecode scan of classpath roots that were compiled without it
+     * (see {@link OperationScanner}).
+     */
+    private static List<OperationDescriptor> loadOperations() {
+        ClassLoader classLoader = RegistryConfiguration.class.getClassLoader();
+        List<OperationDescriptor> result = new ArrayList<>();
         try {
-            // Get the JAR location from the classloader
-            URL jarUrl = RegistryConfiguration.class.getProtectionDomain()
-                    .getCodeSource().getLocation();
-
-            System.out.println("JAR location: " + jarUrl);
-
-            String packagePath = BASE_PACKAGE.replace('.', '/');
-
-            try (JarFile jarFile = new JarFile(new File(jarUrl.toURI()))) {
-                Enumeration<JarEntry> entries = jarFile.entries();
-
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    String name = entry.getName();
-
-                    // Match only .class files in our target package
-                    if (name.startsWith(packagePath) && name.endsWith(".class") && !name.contains("$")) {
-                        // Convert path to class name: com/foo/Bar.class -> com.foo.Bar
-                        String className = name.replace('/', '.').replace(".class", "");
-
-                        try {
-                            Class<?> clazz = Class.forName(className,
-                                    false,
-                                    Thread.currentThread().getContextClassLoader());
-
-                            if (clazz.isAnnotationPresent(WorkFlowOperation.class)) {
-                                WorkFlowOperation anno = clazz.getAnnotation(WorkFlowOperation.class);
-                                result.add(new OperationDescriptor(
-                                        anno.id(),
-                                        anno.description(),
-                                        List.of(anno.inputs()),
-                                        List.of(anno.outputs()),
-                                        clazz.getName(),
-                                        anno.category(),
-                                        anno.type(),
-                                        List.of(anno.selectableFields()),
-                                        List.of(anno.customizableFields())));
-                                System.out.println("Registered: " + className);
-                            }
-                        } catch (ClassNotFoundException e) {
-                            System.err.println("Could not load class: " + className);
-                        }
-                    }
-                }
+            List<OperationDescriptor> indexed = OperationIndex.load(classLoader);
+            if (!indexed.isEmpty()) {
+                System.out.println("Loaded " + indexed.size() + " operations from " + OperationIndex.RESOURCE);
+                result.addAll(indexed);
             }
         } catch (Exception e) {
-            throw new RuntimeException("Failed to scan for WorkFlowOperation annotations", e);
+            System.err.println("Could not read " + OperationIndex.RESOURCE + ": " + e.getMessage());
         }
 
-        System.out.println("Total operations found: " + result.size());
+        try {
+            List<OperationDescriptor> scanned = OperationScanner.scan(classLoader, basePackages());
+            if (!scanned.isEmpty()) {
+                System.out.println("Total operations found by scanning: " + scanned.size());
+                result.addAll(scanned);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to scan for WorkFlowOperation annotations", e);
+        }
         return result;
     }
 
+    /**
+     * Packages scanned for operations: {@value #BASE_PACKAGE} plus the
+     * comma-separated {@code dbx.operations.packages} system property.
+     */
+    static Set<String> basePackages() {
+        Set<String> packages = new LinkedHashSet<>();
+        packages.add(BASE_PACKAGE);
+        String extra = System.getProperty(PACKAGES_PROPERTY, "");
+        for (String p : extra.split(",")) {
+            if (!p.isBlank()) {
+                packages.add(p.trim());
+            }
+        }
+        return packages;
+    }
+
     /**
      * Filter operations by delegation type
      */
     public static List<OperationDescriptor> getOperationsByType(DelegationType type) {
-        return getAllOperations().stream()
-                .filter(op -> op.getDelegationType() == type)
-                .collect(Collectors.toList());
+        return getSnapshot().getByType(type);
+    }
+
+    /**
+     * Filter operations by category
+     */
+    public static List<OperationDescriptor> getOperationsByCategory(String category) {
+        return getSnapshot().getByCategory(category);
     }
 
     /**
      * Count all registered operations
      */
     public static int getOperationCount() {
-        return getAllOperations().size();
+        return getSnapshot().size();
     }
 
     /**
@@ -0,0 +1,95 @@
+package com.iongroup.library.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of all registered operations.
+ *
+ * Built once and published through a volatile field in
+ * {@link RegistryConfiguration}; readers never lock.
+ */
+public final class RegistrySnapshot {
+
+    private final List<OperationDescriptor> operations;
+    private final Map<String, RegisteredOperation> byId;
+    private final Map<DelegationType, List<OperationDescriptor>> byType;
+    private final Map<String, List<OperationDescriptor>> byCategory;
+
+    /**
+     * Build from several sources; on duplicate ids the earlier source wins.
+     */
+    RegistrySnapshot(List<OperationSource> sources) {
+        Map<String, RegisteredOperation> index = new HashMap<>();
+        List<OperationDescriptor> unique = new ArrayList<>();
+        for (OperationSource source : sources) {
+            for (OperationDescriptor descriptor : source.getOperations()) {
+                if (index.containsKey(descriptor.getId())) {
+                    System.err.println("Duplicate operation id ignored: " + descriptor.getId()
+                            + " (" + descriptor.getDelegateClass() + " from " + source.getName() + ")");
+                    continue;
+                }
+                index.put(descriptor.getId(), source.resolve(descriptor));
+                unique.add(descriptor);
+            }
+        }
+        this.operations = List.copyOf(unique);
+        this.byId = Map.copyOf(index);
+
+        Map<DelegationType, List<OperationDescriptor>> types = new EnumMap<>(DelegationType.class);
+        Map<String, List<OperationDescriptor>> categories = new LinkedHashMap<>();
+        for (OperationDescriptor descriptor : operations) {
+            if (descriptor.getDelegationType() != null) {
+                types.computeIfAbsent(descriptor.getDelegationType(), t -> new ArrayList<>()).add(descriptor);
+            }
+            if (descriptor.getCategory() != null) {
+                categories.computeIfAbsent(descriptor.getCategory(), c -> new ArrayList<>()).add(descriptor);
+            }
+        }
+        types.replaceAll((t, list) -> List.copyOf(list));
+        categories.replaceAll((c, list) -> List.copyOf(list));
+        this.byType = Collections.unmodifiableMap(types);
+        this.byCategory = Collections.unmodifiableMap(categories);
+    }
+
+    public List<OperationDescriptor> getOperations() {
+        return operations;
+    }
+
+    /**
+     * O(1) lookup by operation id, or {@code null} when unknown.
+     */
+    public RegisteredOperation get(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Operations of one delegation type (empty list when there are none).
+     */
+    public List<OperationDescriptor> getByType(DelegationType type) {
+        return byType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Operations of one category (empty list when there are none).
+     */
+    public List<OperationDescriptor> getByCategory(String category) {
+        return byCategory.getOrDefault(category, List.of());
+    }
+
+    /**
+     * Categories in registration order.
+     */
+    public List<String> getCategories() {
+        return List.copyOf(byCategory.keySet());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
@@ -24,4 +24,9 @@ public @interface WorkFlowOperation {
     String[] selectableFields() default {};
 
     String[] customizableFields() default {};
+
+    /**
+     * Use SINGLETON only for stateless, thread-safe delegates.
+     */
+    DelegateLifecycle lifecycle() default DelegateLifecycle.PROTOTYPE;
 }
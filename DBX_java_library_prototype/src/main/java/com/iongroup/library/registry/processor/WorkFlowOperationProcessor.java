@@ -0,0 +1,197 @@
+package com.iongroup.library.registry.processor;
+
+import com.iongroup.library.registry.OperationDescriptor;
+import com.iongroup.library.registry.OperationIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compile-time processor for {@code @WorkFlowOperation}.
+ *
+ * Collects every annotated delegate and writes {@link OperationIndex#RESOURCE}
+ * into the class output, so the registry never has to scan the JAR at runtime.
+ * Duplicate operation ids and non-instantiable classes fail the build.
+ *
+ * An incremental build only sees the classes it recompiles, so entries of the
+ * existing index are kept while their class is still annotated.
+ */
+@SupportedAnnotationTypes(WorkFlowOperationProcessor.ANNOTATION)
+public class WorkFlowOperationProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "com.iongroup.library.registry.WorkFlowOperation";
+
+    // Sorted by id so the generated index is reproducible between builds
+    private final Map<String, String> lines = new TreeMap<>();
+    private final Set<String> classes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                collect((TypeElement) element);
+            }
+        }
+
+        if (roundEnv.processingOver() && !lines.isEmpty()) {
+            mergePreviousIndex();
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS
+                || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !type.getModifiers().contains(Modifier.PUBLIC)) {
+            error(type, "@WorkFlowOperation must be placed on a public, non-abstract class");
+            return;
+        }
+
+        Map<String, AnnotationValue> values = annotationValues(type);
+        String id = string(values.get("id"));
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+
+        if (lines.containsKey(id)) {
+            error(type, "Duplicate @WorkFlowOperation id '" + id + "'");
+            return;
+        }
+        classes.add(className);
+
+        lines.put(id, OperationIndex.line(
+                id,
+                className,
+                string(values.get("category")),
+                enumConstant(values.get("type")),
+                string(values.get("description")),
+                strings(values.get("inputs")),
+                strings(values.get("outputs")),
+                strings(values.get("selectableFields")),
+                strings(values.get("customizableFields")),
+                enumConstant(values.get("lifecycle"))));
+    }
+
+    /**
+     * Keep the entries of the index already in the class output whose class was
+     * not recompiled and still carries the annotation.
+     */
+    private void mergePreviousIndex() {
+        List<OperationDescriptor> previous;
+        try (InputStream in = processingEnv.getFiler()
+                .getResource(StandardLocation.CLASS_OUTPUT, "", OperationIndex.RESOURCE).openInputStream()) {
+            previous = OperationIndex.read(in);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Ignoring previous " + OperationIndex.RESOURCE + ": " + e.getMessage());
+            return;
+        }
+
+        for (OperationDescriptor d : previous) {
+            if (classes.contains(d.getDelegateClass()) || !isAnnotated(d.getDelegateClass())) {
+                continue;
+            }
+            if (lines.containsKey(d.getId())) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Duplicate @WorkFlowOperation id '" + d.getId() + "' (also on " + d.getDelegateClass() + ")");
+                continue;
+            }
+            lines.put(d.getId(), OperationIndex.line(d));
+        }
+    }
+
+    private boolean isAnnotated(String binaryName) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+        if (type == null) return false;
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (ANNOTATION.equals(mirror.getAnnotationType().toString())) return true;
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", OperationIndex.RESOURCE);
+            try (Writer w = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                w.write(OperationIndex.HEADER);
+                w.write('\n');
+                for (String line : lines.values()) {
+                    w.write(line);
+                    w.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + OperationIndex.RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+     * Explicit and default values of the {@code @WorkFlowOperation} on the type.
+     */
+    private Map<String, AnnotationValue> annotationValues(TypeElement type) {
+        Map<String, AnnotationValue> result = new TreeMap<>();
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!ANNOTATION.equals(mirror.getAnnotationType().toString())) continue;
+            Map<? extends ExecutableElement, ? extends AnnotationValue> withDefaults =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            withDefaults.forEach((k, v) -> result.put(k.getSimpleName().toString(), v));
+        }
+        return result;
+    }
+
+    private static String string(AnnotationValue v) {
+        return v == null ? "" : String.valueOf(v.getValue());
+    }
+
+    private static String enumConstant(AnnotationValue v) {
+        return v == null ? "" : ((Element) v.getValue()).getSimpleName().toString();
+    }
+
+    private static List<String> strings(AnnotationValue v) {
+        if (v == null) return Collections.emptyList();
+        List<?> raw = (List<?>) v.getValue();
+        List<String> out = new ArrayList<>(raw.size());
+        for (Object o : raw) out.add(String.valueOf(((AnnotationValue) o).getValue()));
+        return out;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -1,6 +1,8 @@
 package com.iongroup.library.runtime;
 
+import com.iongroup.library.adapter.flowable.OperationBindingParseHandler;
 import org.flowable.engine.*;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.flowable.engine.runtime.ProcessInstance;
 import org.flowable.task.api.Task;
 
@@ -11,12 +13,15 @@ public class FlowableRunner {
 
     public static void main(String[] args) {
 
-        ProcessEngineConfiguration cfg =
-            ProcessEngineConfiguration
+        ProcessEngineConfigurationImpl cfg =
+            (ProcessEngineConfigurationImpl) ProcessEngineConfiguration
                 .createStandaloneInMemProcessEngineConfiguration()
                 .setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE)
                 .setAsyncExecutorActivate(false);
 
+        // Resolve delegationIds once at deploy time instead of per execution
+        OperationBindingParseHandler.register(cfg);
+
         ProcessEngine processEngine = cfg.buildProcessEngine();
 
         RepositoryService repositoryService = processEngine.getRepositoryService();
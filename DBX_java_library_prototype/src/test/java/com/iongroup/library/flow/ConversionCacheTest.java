@@ -0,0 +1,104 @@
+package com.iongroup.library.flow;
+
+import com.iongroup.library.flow.UiJsonToBpmnConverter.ConversionResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConversionCacheTest {
+
+    private static final ConverterTemplate TEMPLATE = ConverterTemplate.defaults();
+
+    @Test
+    void keyIgnoresFieldOrderAndEditorFields() throws Exception {
+        ConversionCache cache = new ConversionCache(1 << 20);
+        String plain = "{\"nodes\":[" + node("s", "start", "Start", 0) + "," + node("e", "end", "End", 200) + "],"
+                + "\"edges\":[{\"id\":\"f\",\"source\":\"s\",\"target\":\"e\"}]}";
+        String reordered = "{\"edges\":[{\"target\":\"e\",\"selected\":true,\"source\":\"s\",\"id\":\"f\"}],"
+                + "\"nodes\":[{\"style\":{\"color\":\"red\"},\"data\":{\"label\":\"Start\",\"nodeType\":\"start\"},"
+                + "\"height\":40,\"width\":40,\"position\":{\"y\":0,\"x\":0},\"id\":\"s\",\"selected\":true},"
+                + node("e", "end", "End", 200) + "]}";
+
+        ConversionResult first = cache.convertWithTemplate(plain, TEMPLATE);
+        ConversionResult second = cache.convertWithTemplate(reordered, TEMPLATE);
+
+        assertSame(first.bpmnXml, second.bpmnXml);
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void contentAndTemplateChangesMiss() throws Exception {
+        ConversionCache cache = new ConversionCache(1 << 20);
+        cache.convertWithTemplate(graph("A", 0), TEMPLATE);
+
+        assertNull(cache.get(UiGraph.read(graph("B", 0)), TEMPLATE));
+        assertNull(cache.get(UiGraph.read(graph("A", 0)),
+                ConverterTemplate.forJson("{\"nodeTypeMap\":{\"user\":{\"stencil\":\"ServiceTask\"}}}")));
+        assertNotNull(cache.get(UiGraph.read(graph("A", 0)), TEMPLATE));
+    }
+
+    @Test
+    void layoutIsPartOfKeyUnlessIgnored() throws Exception {
+        ConversionCache cache = new ConversionCache(1 << 20);
+        ConversionCache ignoringLayout = new ConversionCache(1 << 20, true);
+        cache.convertWithTemplate(graph("A", 0), TEMPLATE);
+        ignoringLayout.convertWithTemplate(graph("A", 0), TEMPLATE);
+
+        UiGraph moved = UiGraph.read(graph("A", 300));
+
+        assertNull(cache.get(moved, TEMPLATE));
+        assertNotNull(ignoringLayout.get(moved, TEMPLATE));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByWeight() throws Exception {
+        long weight = weightOf(graph("A", 0));
+        ConversionCache cache = new ConversionCache(2 * weight + weight / 2);
+
+        cache.convertWithTemplate(graph("A", 0), TEMPLATE);
+        cache.convertWithTemplate(graph("B", 0), TEMPLATE);
+        assertNotNull(cache.get(UiGraph.read(graph("A", 0)), TEMPLATE)); // A is now the most recent
+        cache.convertWithTemplate(graph("C", 0), TEMPLATE);
+
+        assertNull(cache.get(UiGraph.read(graph("B", 0)), TEMPLATE));
+        assertNotNull(cache.get(UiGraph.read(graph("A", 0)), TEMPLATE));
+        assertNotNull(cache.get(UiGraph.read(graph("C", 0)), TEMPLATE));
+        ConversionCacheStats stats = cache.stats();
+        assertEquals(2, stats.getEntries());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2 * weight, stats.getBytes());
+    }
+
+    @Test
+    void skipsEntriesLargerThanTheCache() throws Exception {
+        ConversionCache cache = new ConversionCache(weightOf(graph("A", 0)) - 1);
+
+        cache.convertWithTemplate(graph("A", 0), TEMPLATE);
+
+        assertEquals(0, cache.stats().getEntries());
+        assertEquals(0, cache.stats().getBytes());
+    }
+
+    private static long weightOf(String json) throws Exception {
+        ConversionCache probe = new ConversionCache(1 << 20);
+        probe.convertWithTemplate(json, TEMPLATE);
+        return probe.stats().getBytes();
+    }
+
+    // same shape and label length, so every variant has the same weight
+    private static String graph(String label, int x) {
+        return "{\"nodes\":[" + node("s", "start", "Start", 0) + "," + node("u", "user", label, x) + ","
+                + node("e", "end", "End", 400) + "],\"edges\":["
+                + "{\"id\":\"f1\",\"source\":\"s\",\"target\":\"u\"},"
+                + "{\"id\":\"f2\",\"source\":\"u\",\"target\":\"e\"}]}";
+    }
+
+    private static String node(String id, String type, String label, int x) {
+        return "{\"id\":\"" + id + "\",\"position\":{\"x\":" + x + ",\"y\":0},\"width\":40,\"height\":40,"
+                + "\"data\":{\"nodeType\":\"" + type + "\",\"label\":\"" + label + "\"}}";
+    }
+}
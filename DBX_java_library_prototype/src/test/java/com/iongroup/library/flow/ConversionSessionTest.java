@@ -0,0 +1,191 @@
+package com.iongroup.library.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversionSessionTest {
+
+    private static final ObjectMapper M = new ObjectMapper();
+
+    private final Map<String, ObjectNode> nodes = new LinkedHashMap<>();
+    private final Map<String, ObjectNode> edges = new LinkedHashMap<>();
+    private int nextId;
+
+    @Test
+    void outputMatchesFullConversionAfterRandomEdits() throws Exception {
+        Random random = new Random(42);
+        ConverterTemplate template = ConverterTemplate.defaults();
+
+        String previous = "start";
+        addNode(previous, "start", 0, 0);
+        for (int i = 0; i < 20; i++) {
+            String id = newId("node");
+            addNode(id, i % 5 == 0 ? "parallel" : i % 2 == 0 ? "service" : "user", 220 * (i + 1), 0);
+            addEdge(newId("edge"), previous, id);
+            previous = id;
+        }
+        addNode("end", "end", 220 * 21, 0);
+        addEdge(newId("edge"), previous, "end");
+
+        ConversionSession session = new ConversionSession(graph(), template);
+        assertSameXml(session, template, 0);
+
+        for (int step = 1; step <= 300; step++) {
+            session.apply(randomEdits(random));
+            assertSameXml(session, template, step);
+        }
+    }
+
+    @Test
+    void rejectedBatchLeavesSessionUnchanged() throws Exception {
+        ConverterTemplate template = ConverterTemplate.defaults();
+        addNode("start", "start", 0, 0);
+        addNode("end", "end", 220, 0);
+        addEdge("e1", "start", "end");
+        ConversionSession session = new ConversionSession(graph(), template);
+        byte[] before = session.toXml();
+
+        ArrayNode edits = M.createArrayNode();
+        ObjectNode task = M.createObjectNode().put("id", "task");
+        task.putObject("data").put("nodeType", "user");
+        edits.add(edit("add", "node", task));
+        edits.add(edit("remove", "edge", M.getNodeFactory().textNode("e1")));
+        edits.add(edit("update", "edge", M.createObjectNode().put("id", "e1").put("source", "start").put("target", "task")));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> session.apply(edits));
+        assertEquals("Edit 2: Unknown edge 'e1'", error.getMessage());
+        assertEquals(0, session.getVersion());
+        assertEquals(2, session.getNodeCount());
+        assertArrayEquals(before, session.toXml());
+
+        edits.remove(2);
+        assertEquals(2, session.apply(edits));
+    }
+
+    private ArrayNode randomEdits(Random random) {
+        ArrayNode edits = M.createArrayNode();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            List<String> nodeIds = new ArrayList<>(nodes.keySet());
+            List<String> edgeIds = new ArrayList<>(edges.keySet());
+            String nodeId = nodeIds.get(random.nextInt(nodeIds.size()));
+            boolean task = !nodeId.equals("start") && !nodeId.equals("end");
+            switch (random.nextInt(6)) {
+                case 0: {
+                    ObjectNode node = nodes.get(nodeId).deepCopy();
+                    ((ObjectNode) node.get("position")).put("x", random.nextInt(5000)).put("y", random.nextInt(2000) - 1000);
+                    edits.add(edit("update", "node", update(node)));
+                    break;
+                }
+                case 1: {
+                    ObjectNode node = nodes.get(nodeId).deepCopy();
+                    ((ObjectNode) node.get("data")).put("label", "Renamed " + random.nextInt(100));
+                    edits.add(edit("update", "node", update(node)));
+                    break;
+                }
+                case 2: {
+                    String id = newId("node");
+                    String type = random.nextBoolean() ? "parallel" : random.nextBoolean() ? "service" : "user";
+                    edits.add(edit("add", "node", addNode(id, type, random.nextInt(5000), random.nextInt(2000))));
+                    break;
+                }
+                case 3: {
+                    if (!task) break;
+                    // the UI removes a node's edges with it
+                    for (String edgeId : edgeIds) {
+                        ObjectNode edge = edges.get(edgeId);
+                        if (nodeId.equals(edge.get("source").asText()) || nodeId.equals(edge.get("target").asText())) {
+                            edges.remove(edgeId);
+                            edits.add(edit("remove", "edge", M.getNodeFactory().textNode(edgeId)));
+                        }
+                    }
+                    nodes.remove(nodeId);
+                    edits.add(edit("remove", "node", M.getNodeFactory().textNode(nodeId)));
+                    break;
+                }
+                case 4: {
+                    String target = nodeIds.get(random.nextInt(nodeIds.size()));
+                    if (nodeId.equals("end") || target.equals("start")) break;
+                    edits.add(edit("add", "edge", addEdge(newId("edge"), nodeId, target)));
+                    break;
+                }
+                default: {
+                    if (edgeIds.isEmpty()) break;
+                    String edgeId = edgeIds.get(random.nextInt(edgeIds.size()));
+                    edges.remove(edgeId);
+                    edits.add(edit("remove", "edge", M.getNodeFactory().textNode(edgeId)));
+                    break;
+                }
+            }
+        }
+        return edits;
+    }
+
+    private void assertSameXml(ConversionSession session, ConverterTemplate template, int step) throws Exception {
+        byte[] full = UiJsonToBpmnConverter.convertWithTemplate(graph().toString(), template).bpmnXml;
+        assertEquals(new String(full, StandardCharsets.UTF_8), new String(session.toXml(), StandardCharsets.UTF_8),
+                "after edit batch " + step);
+    }
+
+    private ObjectNode graph() {
+        ObjectNode root = M.createObjectNode();
+        ArrayNode nodeArray = root.putArray("nodes");
+        nodes.values().forEach(n -> nodeArray.add(n.deepCopy()));
+        ArrayNode edgeArray = root.putArray("edges");
+        edges.values().forEach(e -> edgeArray.add(e.deepCopy()));
+        return root;
+    }
+
+    private ObjectNode addNode(String id, String type, int x, int y) {
+        ObjectNode node = M.createObjectNode();
+        node.put("id", id).put("type", "custom");
+        node.putObject("position").put("x", x).put("y", y);
+        ObjectNode data = node.putObject("data");
+        data.put("nodeType", type).put("label", type + " " + id);
+        if (type.equals("service")) {
+            data.put("delegationId", "IssueCreditCard").put("delegationType", "SERVICE");
+        } else if (type.equals("user")) {
+            data.put("delegationId", "EnterCustomerDetails").put("delegationType", "USER_TASK");
+            data.putArray("selectedFields").add("EMAIL");
+        }
+        boolean gateway = type.equals("parallel");
+        node.put("width", gateway ? 50 : 160).put("height", gateway ? 50 : 80);
+        nodes.put(id, node);
+        return node.deepCopy();
+    }
+
+    private ObjectNode update(ObjectNode node) {
+        nodes.put(node.get("id").asText(), node);
+        return node.deepCopy();
+    }
+
+    private ObjectNode addEdge(String id, String source, String target) {
+        ObjectNode edge = M.createObjectNode().put("id", id).put("source", source).put("target", target);
+        edges.put(id, edge);
+        return edge.deepCopy();
+    }
+
+    private static ObjectNode edit(String op, String field, JsonNode value) {
+        ObjectNode edit = M.createObjectNode().put("op", op);
+        edit.set(field, value);
+        return edit;
+    }
+
+    private String newId(String prefix) {
+        return prefix + "_" + nextId++;
+    }
+}
@@ -0,0 +1,76 @@
+package com.iongroup.library.flow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UiGraphBpmnWriterTest {
+
+    @Test
+    void streamMatchesModel() throws Exception {
+        assertSameOutput(graph(
+                node("s", "start", 0) + "," + node("p1", "parallel", 200) + "," + node("a", "user", 400) + ","
+                        + node("b", "service", 400) + "," + node("p2", "parallel", 600) + "," + node("e", "end", 800),
+                edge("f1", "s", "p1") + "," + edge("f2", "p1", "a") + "," + edge("f3", "p1", "b") + ","
+                        + edge("f4", "a", "p2") + "," + edge("f5", "b", "p2") + "," + edge(null, "p2", "e")));
+    }
+
+    @Test
+    void duplicateEdgeIdsMatchModel() throws Exception {
+        String xml = assertSameOutput(graph(
+                node("s", "start", 0) + "," + node("a", "user", 200) + "," + node("e", "end", 400),
+                edge("dup", "s", "a") + "," + edge("dup", "a", "e")));
+
+        assertEquals(1, count(xml, "id=\"BPMNEdge_dup\""));
+    }
+
+    @Test
+    void duplicateNodeIdsMatchModel() throws Exception {
+        String xml = assertSameOutput(graph(
+                node("s", "start", 0) + "," + node("a", "user", 200) + "," + node("a", "user", 300) + ","
+                        + node("e", "end", 400),
+                edge("f1", "s", "a") + "," + edge("f2", "a", "e")));
+
+        assertEquals(1, count(xml, "id=\"BPMNShape_a\""));
+    }
+
+    private static String assertSameOutput(String json) throws Exception {
+        UiGraph graph = UiGraph.read(json);
+        ConverterTemplate template = ConverterTemplate.defaults();
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        assertTrue(UiGraphBpmnWriter.write(graph, template, streamed));
+        ByteArrayOutputStream model = new ByteArrayOutputStream();
+        BpmnXmlWriter.write(UiToBpmnModelCompiler.compile(graph, template), model);
+
+        String xml = model.toString(StandardCharsets.UTF_8);
+        assertEquals(xml, streamed.toString(StandardCharsets.UTF_8));
+        return xml;
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String graph(String nodes, String edges) {
+        return "{\"nodes\":[" + nodes + "],\"edges\":[" + edges + "]}";
+    }
+
+    private static String node(String id, String type, int x) {
+        return "{\"id\":\"" + id + "\",\"position\":{\"x\":" + x + ",\"y\":0},\"width\":100,\"height\":80,"
+                + "\"data\":{\"nodeType\":\"" + type + "\",\"label\":\"" + id + "\"}}";
+    }
+
+    private static String edge(String id, String source, String target) {
+        return "{" + (id != null ? "\"id\":\"" + id + "\"," : "")
+                + "\"source\":\"" + source + "\",\"target\":\"" + target + "\"}";
+    }
+}
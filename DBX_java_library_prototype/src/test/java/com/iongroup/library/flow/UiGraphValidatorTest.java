@@ -0,0 +1,133 @@
+package com.iongroup.library.flow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UiGraphValidatorTest {
+
+    @Test
+    void acceptsBalancedGraph() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + node("p1", "parallel") + "," + node("a", "user") + ","
+                        + node("b", "user") + "," + node("p2", "parallel") + "," + node("e", "end"),
+                edge("e1", "s", "p1") + "," + edge("e2", "p1", "a") + "," + edge("e3", "p1", "b") + ","
+                        + edge("e4", "a", "p2") + "," + edge("e5", "b", "p2") + "," + edge("e6", "p2", "e"));
+
+        assertEquals(List.of(), validate(json));
+    }
+
+    @Test
+    void reportsDanglingEdge() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + node("a", "user") + "," + node("e", "end"),
+                edge("e1", "s", "a") + "," + edge("e2", "a", "e") + "," + edge("e3", "a", "missing"));
+
+        List<ValidationError> errors = validate(json);
+
+        assertEquals(List.of(ValidationError.DANGLING_EDGE), codes(errors));
+        assertEquals("e3", errors.get(0).getEdgeId());
+    }
+
+    @Test
+    void reportsCycleWithoutGateway() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + node("a", "user") + "," + node("b", "service") + ","
+                        + node("c", "user") + "," + node("e", "end"),
+                edge("e1", "s", "a") + "," + edge("e2", "a", "b") + "," + edge("e3", "b", "c") + ","
+                        + edge("e4", "c", "a") + "," + edge("e5", "b", "e"));
+
+        List<ValidationError> errors = validate(json);
+
+        assertTrue(codes(errors).contains(ValidationError.CYCLE_WITHOUT_GATEWAY), errors.toString());
+    }
+
+    @Test
+    void acceptsCycleThroughGateway() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + node("a", "user") + "," + node("g", "exclusive") + "," + node("e", "end"),
+                edge("e1", "s", "a") + "," + edge("e2", "a", "g") + "," + edge("e3", "g", "a") + ","
+                        + edge("e4", "g", "e"));
+        ConverterTemplate template = ConverterTemplate.forJson(
+                "{\"nodeTypeMap\":{\"exclusive\":{\"stencil\":\"ExclusiveGateway\"}}}");
+
+        assertEquals(List.of(), UiGraphValidator.validate(json, template, id -> true));
+    }
+
+    @Test
+    void reportsUnbalancedSplit() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + node("p", "parallel") + "," + node("a", "user") + ","
+                        + node("b", "user") + "," + node("e1", "end") + "," + node("e2", "end"),
+                edge("f1", "s", "p") + "," + edge("f2", "p", "a") + "," + edge("f3", "p", "b") + ","
+                        + edge("f4", "a", "e1") + "," + edge("f5", "b", "e2"));
+
+        assertEquals(List.of(ValidationError.UNBALANCED_GATEWAYS), codes(validate(json)));
+    }
+
+    @Test
+    void reportsMissingStartAndEnd() throws Exception {
+        String json = graph(node("a", "user") + "," + node("b", "service"), edge("e1", "a", "b"));
+
+        List<String> codes = codes(validate(json));
+
+        assertTrue(codes.contains(ValidationError.MISSING_START), codes.toString());
+        assertTrue(codes.contains(ValidationError.MISSING_END), codes.toString());
+    }
+
+    @Test
+    void reportsUnreachableNode() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + node("a", "user") + "," + node("b", "user") + "," + node("e", "end"),
+                edge("e1", "s", "a") + "," + edge("e2", "a", "e") + "," + edge("e3", "b", "e"));
+
+        List<ValidationError> errors = validate(json);
+
+        assertEquals(List.of(ValidationError.UNREACHABLE_NODE), codes(errors));
+        assertEquals("b", errors.get(0).getNodeId());
+    }
+
+    @Test
+    void reportsAllUnknownOperations() throws Exception {
+        String json = graph(
+                node("s", "start") + "," + task("a", "Known") + "," + task("b", "Missing") + ","
+                        + task("c", "AlsoMissing") + "," + node("e", "end"),
+                edge("e1", "s", "a") + "," + edge("e2", "a", "b") + "," + edge("e3", "b", "c") + ","
+                        + edge("e4", "c", "e"));
+
+        List<ValidationError> errors = UiGraphValidator.validate(json, ConverterTemplate.defaults(), "Known"::equals);
+
+        assertEquals(List.of(ValidationError.UNKNOWN_OPERATION, ValidationError.UNKNOWN_OPERATION), codes(errors));
+        assertEquals(List.of("b", "c"), errors.stream().map(ValidationError::getNodeId).collect(Collectors.toList()));
+    }
+
+    private static List<ValidationError> validate(String json) throws Exception {
+        // every operation counts as registered
+        return UiGraphValidator.validate(json, ConverterTemplate.defaults(), id -> true);
+    }
+
+    private static List<String> codes(List<ValidationError> errors) {
+        return errors.stream().map(ValidationError::getCode).collect(Collectors.toList());
+    }
+
+    private static String graph(String nodes, String edges) {
+        return "{\"nodes\":[" + nodes + "],\"edges\":[" + edges + "]}";
+    }
+
+    private static String node(String id, String type) {
+        return "{\"id\":\"" + id + "\",\"data\":{\"nodeType\":\"" + type + "\",\"label\":\"" + id + "\"}}";
+    }
+
+    private static String task(String id, String delegationId) {
+        return "{\"id\":\"" + id + "\",\"data\":{\"nodeType\":\"service\",\"label\":\"" + id
+                + "\",\"delegationId\":\"" + delegationId + "\"}}";
+    }
+
+    private static String edge(String id, String source, String target) {
+        return "{\"id\":\"" + id + "\",\"source\":\"" + source + "\",\"target\":\"" + target + "\"}";
+    }
+}
@@ -0,0 +1,73 @@
+package com.iongroup.library.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (long v = 0; v < 64; v++) {
+            assertEquals(v, LatencyHistogram.index(v));
+            assertEquals(v, LatencyHistogram.highestEquivalent((int) v));
+        }
+    }
+
+    @Test
+    void bucketsCoverEveryValueWithinPrecision() {
+        Random random = new Random(7);
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (random.nextLong() >>> 1) >>> random.nextInt(63);
+        }
+        samples[0] = Long.MAX_VALUE;
+        samples[1] = 64;
+
+        for (long v : samples) {
+            int index = LatencyHistogram.index(v);
+            long high = LatencyHistogram.highestEquivalent(index);
+            assertTrue(high >= v, v + " above its bucket bound " + high);
+            assertTrue(high - v <= v / 32, v + " too far from its bucket bound " + high);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalent(index - 1) < v, v + " also fits bucket " + (index - 1));
+            }
+        }
+    }
+
+    @Test
+    void indexIsMonotonicAcrossBucketBoundaries() {
+        int previous = -1;
+        for (long v = 0; v < 1 << 16; v++) {
+            int index = LatencyHistogram.index(v);
+            assertTrue(index == previous || index == previous + 1, "gap at " + v);
+            previous = index;
+        }
+    }
+
+    @Test
+    void percentilesStayWithinPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            h.record(v * 1_000);
+        }
+
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000_000, h.getMax());
+        assertEquals(5_000_500, h.getMean(), 0.001);
+        assertWithin(5_000_000, h.getValueAtPercentile(50));
+        assertWithin(9_900_000, h.getValueAtPercentile(99));
+        assertEquals(10_000_000, h.getValueAtPercentile(100));
+
+        h.reset();
+        assertEquals(0, h.getValueAtPercentile(50));
+        assertEquals(0, h.getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 32, expected + " vs " + actual);
+    }
+}
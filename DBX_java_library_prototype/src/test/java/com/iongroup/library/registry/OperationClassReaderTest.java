@@ -0,0 +1,50 @@
+package com.iongroup.library.registry;
+
+import com.iongroup.library.adapter.flowable.OperationDispatcherDelegate;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OperationClassReaderTest {
+
+    @Test
+    void readsSameDescriptorsAsCompiledIndex() throws Exception {
+        List<OperationDescriptor> indexed = OperationIndex.load(getClass().getClassLoader());
+        assertFalse(indexed.isEmpty(), "no " + OperationIndex.RESOURCE + " on the test classpath");
+
+        for (OperationDescriptor expected : indexed) {
+            OperationDescriptor actual = OperationClassReader.read(classBytes(expected.getDelegateClass()));
+            assertEquals(OperationIndex.line(expected), OperationIndex.line(actual), expected.getId());
+        }
+    }
+
+    @Test
+    void ignoresClassesWithoutOperation() throws Exception {
+        assertNull(OperationClassReader.read(classBytes(OperationDispatcherDelegate.class.getName())));
+        assertNull(OperationClassReader.read(classBytes(OperationIndex.class.getName())));
+    }
+
+    @Test
+    void rejectsMalformedClassFiles() throws Exception {
+        byte[] bytes = classBytes(OperationIndex.class.getName());
+
+        assertThrows(IllegalArgumentException.class, () -> OperationClassReader.read(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+        assertThrows(IllegalArgumentException.class, () -> OperationClassReader.read(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+
+    private static byte[] classBytes(String className) throws IOException {
+        String resource = className.replace('.', '/') + ".class";
+        try (InputStream in = OperationClassReaderTest.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("No class file for " + className);
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.iongroup.library.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OperationIndexTest {
+
+    @Test
+    void escapedFieldsRoundTrip() throws Exception {
+        String line = OperationIndex.line("Op\\1", "com.example.Op$Inner", "a,b", "SERVICE",
+                "tab\there\nnew line\r", List.of("x,y", "z\\"), List.of(), List.of("s"), List.of("c1", "c2"),
+                "SINGLETON");
+
+        OperationDescriptor d = read(OperationIndex.HEADER + "\n" + line + "\n").get(0);
+
+        assertEquals("Op\\1", d.getId());
+        assertEquals("com.example.Op$Inner", d.getDelegateClass());
+        assertEquals("a,b", d.getCategory());
+        assertEquals(DelegationType.SERVICE, d.getDelegationType());
+        assertEquals("tab\there\nnew line\r", d.getDescription());
+        assertEquals(List.of("x,y", "z\\"), d.getInputs());
+        assertEquals(List.of(), d.getOutputs());
+        assertEquals(List.of("s"), d.getSelectableFields());
+        assertEquals(List.of("c1", "c2"), d.getCustomizableFields());
+        assertEquals(DelegateLifecycle.SINGLETON, d.getLifecycle());
+        // what the processor writes back when it merges an existing index
+        assertEquals(line, OperationIndex.line(d));
+    }
+
+    @Test
+    void missingLifecycleDefaultsToPrototype() throws Exception {
+        String line = OperationIndex.line("Op", "com.example.Op", "", "USER_TASK", "", List.of(), List.of(),
+                List.of(), List.of(), "");
+
+        OperationDescriptor d = read(line).get(0);
+
+        assertEquals(DelegateLifecycle.PROTOTYPE, d.getLifecycle());
+        assertEquals(DelegationType.USER_TASK, d.getDelegationType());
+    }
+
+    @Test
+    void rejectsTruncatedLine() {
+        assertThrows(IOException.class, () -> read("Op\tcom.example.Op\tcat\n"));
+    }
+
+    private static List<OperationDescriptor> read(String index) throws Exception {
+        return OperationIndex.read(new ByteArrayInputStream(index.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.iongroup.backend.config;
+
+import com.iongroup.library.flow.BatchConverter;
+import com.iongroup.library.flow.ConversionCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache of UI JSON -> BPMN conversions shared by the conversion endpoints.
+ * Repeated posts of an unchanged graph are served without reconverting.
+ * Batch conversions run on their own pool, one worker per core by default.
+ */
+@Configuration
+public class ConversionConfig {
+
+    @Bean
+    public ConversionCache conversionCache(
+            @Value("${dbx.conversion.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${dbx.conversion.cache.ignore-layout:false}") boolean ignoreLayout) {
+        return new ConversionCache(maxBytes, ignoreLayout);
+    }
+
+    @Bean(destroyMethod = "close")
+    public BatchConverter batchConverter(
+            @Value("${dbx.conversion.batch.parallelism:0}") int parallelism) {
+        return new BatchConverter(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
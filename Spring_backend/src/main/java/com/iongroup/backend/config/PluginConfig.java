@@ -0,0 +1,26 @@
+package com.iongroup.backend.config;
+
+import com.iongroup.library.registry.OperationPluginDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Watches the operation plugin directory when {@code dbx.plugins.dir} is set.
+ * Operations from JARs dropped into the directory are registered without a
+ * restart; /api/delegations picks up the new registry snapshot automatically.
+ */
+@Configuration
+@ConditionalOnProperty(name = "dbx.plugins.dir")
+public class PluginConfig {
+
+    @Bean(destroyMethod = "close")
+    public OperationPluginDirectory operationPluginDirectory(@Value("${dbx.plugins.dir}") String dir)
+            throws IOException {
+        return OperationPluginDirectory.watch(Path.of(dir));
+    }
+}
@@ -0,0 +1,54 @@
+package com.iongroup.backend.config;
+
+import com.iongroup.library.adapter.flowable.OperationBindingParseHandler;
+import org.flowable.engine.ProcessEngine;
+import org.flowable.engine.ProcessEngineConfiguration;
+import org.flowable.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.flowable.engine.impl.cfg.StandaloneProcessEngineConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Embedded Flowable engine that runs converted processes.
+ *
+ * The engine uses the application's DataSource (in-memory H2 unless
+ * {@code spring.datasource.*} says otherwise), or its own connection pool when
+ * {@code dbx.engine.jdbc-url} is set. Parsed process definitions are kept in an
+ * LRU cache of {@code dbx.engine.process-definition-cache-limit} entries;
+ * evicted ones are parsed again from the database on their next use.
+ */
+@Configuration
+public class ProcessEngineConfig {
+
+    @Bean(destroyMethod = "close")
+    public ProcessEngine processEngine(ObjectProvider<DataSource> dataSource,
+            @Value("${dbx.engine.jdbc-url:}") String jdbcUrl,
+            @Value("${dbx.engine.jdbc-username:sa}") String jdbcUsername,
+            @Value("${dbx.engine.jdbc-password:}") String jdbcPassword,
+            @Value("${dbx.engine.process-definition-cache-limit:256}") int processDefinitionCacheLimit,
+            @Value("${dbx.engine.history:audit}") String history,
+            @Value("${dbx.engine.async-executor.enabled:false}") boolean asyncExecutor) {
+
+        ProcessEngineConfigurationImpl cfg = new StandaloneProcessEngineConfiguration();
+        if (jdbcUrl.isBlank()) {
+            cfg.setDataSource(dataSource.getObject());
+        } else {
+            cfg.setJdbcUrl(jdbcUrl);
+            cfg.setJdbcUsername(jdbcUsername);
+            cfg.setJdbcPassword(jdbcPassword);
+        }
+        cfg.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE);
+        cfg.setHistory(history);
+        cfg.setAsyncExecutorActivate(asyncExecutor);
+        cfg.setProcessDefinitionCacheLimit(processDefinitionCacheLimit);
+
+        // Resolve delegationIds once at deploy time instead of per execution
+        OperationBindingParseHandler.register(cfg);
+
+        return cfg.buildProcessEngine();
+    }
+}
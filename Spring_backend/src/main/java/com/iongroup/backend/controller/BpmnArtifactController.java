@@ -0,0 +1,71 @@
+package com.iongroup.backend.controller;
+
+import com.iongroup.backend.model.BpmnArtifact;
+import com.iongroup.backend.service.BpmnArtifactStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converted BPMN artifacts, by the SHA-256 of their XML
+ */
+@RestController
+@RequestMapping("/api/flowable/artifacts")
+public class BpmnArtifactController {
+
+    private final BpmnArtifactStore artifactStore;
+
+    public BpmnArtifactController(BpmnArtifactStore artifactStore) {
+        this.artifactStore = artifactStore;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listArtifacts() {
+        List<BpmnArtifact> artifacts = artifactStore.list();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", artifacts.size() + " artifacts, " + artifactStore.getTotalBytes() + " bytes on disk",
+                "data", artifacts));
+    }
+
+    /**
+     * BPMN XML of an artifact
+     * GET /api/flowable/artifacts/{sha256}
+     *
+     * Clients accepting gzip get the stored file as-is.
+     */
+    @GetMapping("/{sha256}")
+    public ResponseEntity<?> getArtifact(@PathVariable String sha256,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        BpmnArtifact artifact = artifactStore.get(sha256);
+        if (artifact == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "Unknown BPMN artifact: " + sha256));
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .eTag("\"" + artifact.getSha256() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        Path gz = artifactStore.compressedFile(sha256);
+        if (gz != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            StreamingResponseBody compressed = out -> Files.copy(gz, out);
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(artifact.getStoredBytes())
+                    .body(compressed);
+        }
+
+        StreamingResponseBody xml = out -> artifactStore.writeXml(sha256, out);
+        return ok.contentLength(artifact.getSize()).body(xml);
+    }
+}
@@ -0,0 +1,186 @@
+package com.iongroup.backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.iongroup.backend.model.ConversionJobStatus;
+import com.iongroup.backend.service.ConversionJobService;
+import com.iongroup.library.flow.ConverterTemplate;
+import com.iongroup.library.flow.UiGraph;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous conversions of UI flow graphs to BPMN
+ *
+ * Submitting a graph returns a job id right away; the conversion runs on
+ * the bounded job pool ({@link ConversionJobService}) instead of the request
+ * thread. Clients poll the job or subscribe to its Server-Sent Events, then
+ * fetch the BPMN XML.
+ */
+@RestController
+@RequestMapping("/api/flowable/jobs")
+public class ConversionJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionJobController.class);
+
+    // seconds a rejected client should wait before resubmitting
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final ConversionJobService conversionJobs;
+    private final long eventsTimeoutMillis;
+
+    public ConversionJobController(ConversionJobService conversionJobs,
+            @Value("${dbx.conversion.jobs.events-timeout-ms:300000}") long eventsTimeoutMillis) {
+        this.conversionJobs = conversionJobs;
+        this.eventsTimeoutMillis = eventsTimeoutMillis;
+    }
+
+    /**
+     * Submit a conversion job
+     * POST /api/flowable/jobs?priority=HIGH|NORMAL|LOW
+     * Request body: UI graph JSON
+     *
+     * 202 with the job status, or 429 when the queue is full. The queue is
+     * checked before the body is read.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> submit(HttpServletRequest request,
+            @RequestParam(defaultValue = "NORMAL") String priority) {
+
+        ConversionJobService.Priority jobPriority;
+        try {
+            jobPriority = ConversionJobService.Priority.valueOf(priority.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Unsupported priority: " + priority + " (expected HIGH, NORMAL or LOW)"));
+        }
+
+        try (ConversionJobService.Reservation reservation = conversionJobs.reserve()) {
+            UiGraph graph = UiGraph.read(request.getInputStream());
+            ConversionJobStatus status = reservation.submit(graph, ConverterTemplate.defaults(), jobPriority);
+            logger.info("Queued conversion job {} ({} nodes, priority {})",
+                    status.getJobId(), status.getNodeCount(), status.getPriority());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/flowable/jobs/" + status.getJobId()))
+                    .body(Map.of(
+                            "success", true,
+                            "message", "Conversion job queued",
+                            "data", status));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage()));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Malformed UI JSON: " + e.getOriginalMessage()));
+        } catch (Exception e) {
+            logger.error("Error submitting conversion job", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getStatus(@PathVariable String jobId) {
+        ConversionJobStatus status = conversionJobs.getStatus(jobId);
+        if (status == null) {
+            return unknownJob(jobId);
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", status.getMessage(),
+                "data", status));
+    }
+
+    /**
+     * BPMN XML of a succeeded job
+     * GET /api/flowable/jobs/{jobId}/result
+     *
+     * 409 while the job is still running or when it failed.
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> getResult(@PathVariable String jobId) {
+        ConversionJobStatus status = conversionJobs.getStatus(jobId);
+        if (status == null) {
+            return unknownJob(jobId);
+        }
+        byte[] bpmnXml = conversionJobs.getResult(jobId);
+        if (bpmnXml == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "message", "Conversion job is " + status.getState() + ": " + status.getMessage(),
+                    "data", status));
+        }
+        StreamingResponseBody xml = out -> out.write(bpmnXml);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .contentLength(bpmnXml.length)
+                .body(xml);
+    }
+
+    /**
+     * Status events of a job
+     * GET /api/flowable/jobs/{jobId}/events
+     *
+     * One "status" event with the current status, then one per state change;
+     * the stream ends after SUCCEEDED or FAILED.
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String jobId) {
+        if (conversionJobs.getStatus(jobId) == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMillis);
+        Consumer<ConversionJobStatus> listener = status -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .id(status.getState())
+                        .data(status, MediaType.APPLICATION_JSON));
+                if (status.isFinished()) {
+                    emitter.complete();
+                }
+            } catch (IOException e) {
+                // client went away; the service drops the listener
+                throw new UncheckedIOException(e);
+            }
+        };
+        emitter.onCompletion(() -> conversionJobs.unsubscribe(jobId, listener));
+        emitter.onTimeout(() -> conversionJobs.unsubscribe(jobId, listener));
+        emitter.onError(e -> conversionJobs.unsubscribe(jobId, listener));
+
+        if (!conversionJobs.subscribe(jobId, listener)) {
+            // expired since the check above
+            emitter.complete();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static ResponseEntity<?> unknownJob(String jobId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "success", false,
+                "message", "Unknown or expired conversion job: " + jobId));
+    }
+}
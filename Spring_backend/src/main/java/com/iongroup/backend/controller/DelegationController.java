@@ -1,8 +1,8 @@
 package com.iongroup.backend.controller;
 
+import com.iongroup.backend.model.CachedPayload;
 import com.iongroup.backend.service.DelegationService;
 import com.iongroup.library.registry.DelegationType;
-import com.iongroup.library.registry.OperationDescriptor;
 import com.iongroup.library.registry.RegistryConfiguration;
 import com.iongroup.library.registry.WorkFlowOperation;
 
@@ -10,6 +10,10 @@ import java.io.File;
 import java.net.URL;
 
 import org.reflections.util.ClasspathHelper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,13 +38,10 @@ public class DelegationController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<?> getAllDelegations() {
-        List<OperationDescriptor> delegations = delegationService.getAllDelegations();
-        System.out.println(delegations);
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Successfully retrieved all delegations",
-                "data", delegations));
+    public ResponseEntity<?> getAllDelegations(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serve(delegationService.getAllPayload(), ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/debug2")
@@ -80,14 +81,12 @@ public class DelegationController {
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<?> getDelegationsByType(@PathVariable String type) {
+    public ResponseEntity<?> getDelegationsByType(@PathVariable String type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
             DelegationType delegationType = DelegationType.valueOf(type.toUpperCase());
-            List<OperationDescriptor> delegations = delegationService.getDelegationsByType(delegationType);
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Successfully retrieved " + delegations.size() + " delegations of type " + type,
-                    "data", delegations));
+            return serve(delegationService.getTypePayload(delegationType), ifNoneMatch, acceptEncoding);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -96,6 +95,19 @@ public class DelegationController {
         }
     }
 
+    @GetMapping("/category/{category}")
+    public ResponseEntity<?> getDelegationsByCategory(@PathVariable String category,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CachedPayload payload = delegationService.getCategoryPayload(category);
+        if (payload == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "No delegations in category: " + category));
+        }
+        return serve(payload, ifNoneMatch, acceptEncoding);
+    }
+
     @GetMapping("/count")
     public ResponseEntity<?> getDelegationCount() {
         int count = delegationService.getDelegationCount();
@@ -128,4 +140,31 @@ public class DelegationController {
                 "urlsFound", urls.stream().map(URL::toString).collect(Collectors.toList()),
                 "urlCount", urls.size()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Write a pre-serialized payload: 304 when the client's ETag is current,
+     * the gzip variant when the client accepts it, plain JSON otherwise.
+     */
+    private static ResponseEntity<?> serve(CachedPayload payload, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = gzip ? payload.getGzipEtag() : payload.getEtag();
+
+        if (payload.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return response.body(payload.getJson());
+    }
+}
@@ -1,22 +1,53 @@
 package com.iongroup.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iongroup.backend.model.BpmnArtifact;
 import com.iongroup.backend.model.FlowableConversionResponse;
+import com.iongroup.backend.model.ProcessDeployment;
+import com.iongroup.backend.model.ProcessExecutionResult;
+import com.iongroup.backend.service.BpmnArtifactStore;
+import com.iongroup.backend.service.ConversionSessionService;
+import com.iongroup.backend.service.ProcessExecutionService;
+import com.iongroup.library.exception.BusinessException;
+import com.iongroup.library.flow.BatchConverter;
+import com.iongroup.library.flow.BatchItemResult;
+import com.iongroup.library.flow.ConversionCache;
+import com.iongroup.library.flow.ConversionCacheStats;
+import com.iongroup.library.flow.ConversionSession;
+import com.iongroup.library.flow.ConverterTemplate;
+import com.iongroup.library.flow.UiGraph;
+import com.iongroup.library.flow.UiGraphValidator;
+import com.iongroup.library.flow.ValidationError;
 import com.iongroup.library.flow.UiJsonToBpmnConverter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
  
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * REST Controller for converting UI flow graphs to BPMN and executing them
@@ -27,61 +58,170 @@ public class FlowableConversionController {
 
     private static final Logger logger = LoggerFactory.getLogger(FlowableConversionController.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ConversionCache conversionCache;
+    private final BatchConverter batchConverter;
+    private final ConversionSessionService conversionSessions;
+    private final BpmnArtifactStore artifactStore;
+    private final ProcessExecutionService processExecution;
+    private final boolean validationEnabled;
+
+    public FlowableConversionController(ConversionCache conversionCache, BatchConverter batchConverter,
+            ConversionSessionService conversionSessions, BpmnArtifactStore artifactStore,
+            ProcessExecutionService processExecution,
+            @Value("${dbx.conversion.validation.enabled:true}") boolean validationEnabled) {
+        this.conversionCache = conversionCache;
+        this.batchConverter = batchConverter;
+        this.conversionSessions = conversionSessions;
+        this.artifactStore = artifactStore;
+        this.processExecution = processExecution;
+        this.validationEnabled = validationEnabled;
+    }
 
     /**
      * Endpoint to convert UI JSON graph to BPMN and execute it
-     * POST /api/flowable/convert-and-execute
+     * POST /api/flowable/convert-and-execute?includeFlowableJson=true|false&execute=true|false
      * Request body: UI graph JSON
+     *
+     * The body is parsed once, straight from the request stream, and the
+     * same graph is validated and converted.
+     *
+     * With Accept: application/xml the BPMN XML itself is streamed back. A
+     * graph that is not cached is then converted while the response is
+     * written, so the document is never held in memory; such responses carry
+     * no ETag, since the artifact hash is only known at the end. Otherwise
+     * the JSON envelope ({success, message, bpmnXml, flowableJson}) is
+     * written field by field; the editor JSON is left out, and not built,
+     * when includeFlowableJson is false. Errors are always JSON.
+     *
+     * With execute=true the BPMN is deployed to the embedded engine, once per
+     * distinct XML, and an instance is started; the envelope then carries it
+     * as executionResult.
      */
-    @PostMapping("/convert-and-execute")
-    public ResponseEntity<FlowableConversionResponse> convertAndExecute(
-            @RequestBody Map<String, Object> uiJsonMap) {
+    @PostMapping(value = "/convert-and-execute", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> convertAndExecute(HttpServletRequest request,
+            @RequestParam(defaultValue = "true") boolean includeFlowableJson,
+            @RequestParam(defaultValue = "false") boolean execute) {
 
         try {
             logger.info("Starting conversion process for UI JSON");
 
-            // Convert incoming Map to JSON string
-            String uiJsonStr = objectMapper.writeValueAsString(uiJsonMap);
-            logger.debug("Received UI JSON (string length={}): {}", uiJsonStr.length(), uiJsonStr);
+            UiGraph graph = UiGraph.read(request.getInputStream());
+            logger.debug("Received UI graph with {} nodes and {} edges", graph.getNodeCount(), graph.getEdgeCount());
+
+            // Reject invalid graphs before converting them
+            if (validationEnabled) {
+                List<ValidationError> errors = UiGraphValidator.validate(graph, ConverterTemplate.defaults());
+                if (!errors.isEmpty()) {
+                    logger.info("Rejected UI graph with {} validation errors", errors.size());
+                    FlowableConversionResponse invalid = new FlowableConversionResponse(
+                            false,
+                            "Graph validation failed with " + errors.size() + " error(s)",
+                            null,
+                            null,
+                            null
+                    );
+                    invalid.setValidationErrors(errors);
+                    return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(invalid);
+                }
+            }
+
+            ConverterTemplate template = ConverterTemplate.defaults();
+            boolean xmlResponse = acceptsXml(request.getHeader(HttpHeaders.ACCEPT));
+            UiJsonToBpmnConverter.ConversionResult conv = null;
+            if (xmlResponse && !execute) {
+                conv = conversionCache.get(graph, template);
+                if (conv == null) {
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_XML)
+                            .body(streamConversion(graph, template));
+                }
+            }
 
-            // Use DBX library helper to convert UI JSON -> Flowable JSON -> BPMN
-            UiJsonToBpmnConverter.ConversionResult conv = UiJsonToBpmnConverter.convert(uiJsonStr, null);
-            ObjectNode flowableJson = conv.flowableJson;
+            // Use DBX library helper to convert UI JSON -> BPMN
+            if (conv == null) {
+                conv = conversionCache.convert(graph, template);
+            }
             byte[] bpmnXml = conv.bpmnXml;
             logger.debug("Conversion completed by library: BPMN bytes={}", bpmnXml.length);
 
-            // Save BPMN XML to a file in backend_converted/
-            String savedPath = null;
-            try {
-                Path outDir = Path.of("backend_converted");
-                Files.createDirectories(outDir);
-                String fname = "converted-" + System.currentTimeMillis() + ".bpmn20.xml";
-                Path outPath = outDir.resolve(fname);
-                Files.write(outPath, bpmnXml);
-                savedPath = outPath.toAbsolutePath().toString();
-                logger.info("Saved converted BPMN to {}", savedPath);
-            } catch (Exception writeErr) {
-                logger.warn("Failed to persist BPMN file locally: {}", writeErr.getMessage());
-            }
+            // Queue the BPMN for the artifact store; identical XML is stored once
+            BpmnArtifact artifact = artifactStore.store(bpmnXml, conv.getProcessId());
+            String message = "Successfully converted UI JSON to BPMN."
+                    + (artifact != null ? " Stored as artifact " + artifact.getSha256() : "");
 
-            String message = "Successfully converted UI JSON to BPMN." + (savedPath != null ? " Saved to: " + savedPath : "");
+            ProcessExecutionResult executionResult = null;
+            if (execute) {
+                ProcessDeployment deployment = artifact != null
+                        ? processExecution.deploy(artifact.getSha256(), bpmnXml)
+                        : processExecution.deploy(bpmnXml);
+                executionResult = processExecution.start(deployment, Map.of());
+                logger.info("Started process instance {} of {}",
+                        executionResult.getProcessInstanceId(), deployment.getProcessDefinitionId());
+            }
+            ProcessExecutionResult started = executionResult;
 
-            FlowableConversionResponse response = new FlowableConversionResponse(
-                    true,
-                    message,
-                    new String(bpmnXml, StandardCharsets.UTF_8),
-                    flowableJson,
-                    null
-            );
+            if (xmlResponse) {
+                StreamingResponseBody xml = out -> out.write(bpmnXml);
+                ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_XML)
+                        .contentLength(bpmnXml.length);
+                if (artifact != null) {
+                    ok.eTag("\"" + artifact.getSha256() + "\"");
+                }
+                return ok.body(xml);
+            }
 
-            return ResponseEntity.ok(response);
+            // built before the response starts, so a failure still gets a 500
+            ObjectNode flowableJson = includeFlowableJson ? conv.getFlowableJson() : null;
+            StreamingResponseBody envelope = out -> {
+                try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                    gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    gen.writeStartObject();
+                    gen.writeBooleanField("success", true);
+                    gen.writeStringField("message", message);
+                    gen.writeFieldName("bpmnXml");
+                    gen.writeUTF8String(bpmnXml, 0, bpmnXml.length);
+                    gen.writeFieldName("flowableJson");
+                    if (flowableJson != null) {
+                        gen.writeTree(flowableJson);
+                    } else {
+                        gen.writeNull();
+                    }
+                    gen.writeFieldName("executionResult");
+                    gen.writeObject(started);
+                    gen.writeNullField("validationErrors");
+                    gen.writeEndObject();
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(envelope);
 
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new FlowableConversionResponse(
+                            false,
+                            "Malformed UI JSON: " + e.getOriginalMessage(),
+                            null,
+                            null,
+                            null
+                    ));
         } catch (Exception e) {
-            logger.error("Error during BPMN conversion", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            BusinessException error = execute ? ProcessExecutionService.operationError(e) : null;
+            HttpStatus status = error != null
+                    ? ProcessExecutionController.status(error)
+                    : HttpStatus.INTERNAL_SERVER_ERROR;
+            if (status.is5xxServerError()) {
+                logger.error("Error during BPMN conversion", e);
+            } else {
+                logger.info("Rejected process execution: {}", error.getMessage());
+            }
+            return ResponseEntity.status(status)
+                    .contentType(MediaType.APPLICATION_JSON)
                     .body(new FlowableConversionResponse(
                             false,
-                            "Error: " + e.getMessage(),
+                            error != null ? "Process execution failed: " + error.getMessage() : "Error: " + e.getMessage(),
                             null,
                             null,
                             null
@@ -89,7 +229,284 @@ public class FlowableConversionController {
         }
     }
 
-    // Process execution removed: controller only converts and saves BPMN files now.
+    /**
+     * Convert {@code graph} straight into the response, storing the XML as
+     * an artifact on its way through.
+     */
+    private StreamingResponseBody streamConversion(UiGraph graph, ConverterTemplate template) {
+        return out -> {
+            try (BpmnArtifactStore.ArtifactOutput xml = artifactStore.tee(out)) {
+                UiJsonToBpmnConverter.convert(graph, template, xml);
+                BpmnArtifact artifact = xml.commit(template.getProcessId());
+                logger.debug("Streamed BPMN conversion, artifact {}", artifact != null ? artifact.getSha256() : null);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                // the response has started, so the client only sees it cut short
+                logger.error("Error during streamed BPMN conversion", e);
+                throw new IOException("BPMN conversion failed", e);
+            }
+        };
+    }
+
+    /**
+     * Whether the client ranks an XML type above JSON; a bare wildcard gets
+     * the JSON envelope.
+     */
+    private static boolean acceptsXml(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        double xml = 0;
+        double json = 0;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.isWildcardType()) continue;
+                if (type.isCompatibleWith(MediaType.APPLICATION_XML) || type.isCompatibleWith(MediaType.TEXT_XML)) {
+                    xml = Math.max(xml, type.getQualityValue());
+                }
+                if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    json = Math.max(json, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return xml > json;
+    }
+
+    /**
+     * Endpoint to validate a UI JSON graph without converting it
+     * POST /api/flowable/validate
+     * Request body: UI graph JSON
+     */
+    @PostMapping(value = "/validate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> validate(HttpServletRequest request) {
+        try {
+            UiGraph graph = UiGraph.read(request.getInputStream());
+            List<ValidationError> errors = UiGraphValidator.validate(graph, ConverterTemplate.defaults());
+            return ResponseEntity.ok(Map.of(
+                    "success", errors.isEmpty(),
+                    "message", errors.isEmpty() ? "Graph is valid" : "Graph has " + errors.size() + " error(s)",
+                    "data", errors));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Malformed UI JSON: " + e.getOriginalMessage()));
+        } catch (Exception e) {
+            logger.error("Error during graph validation", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Convert many UI graphs in parallel
+     * POST /api/flowable/convert-batch?format=ndjson|zip
+     * Request body: JSON array of UI graphs, or NDJSON (one graph per line)
+     *
+     * Results stream back in input order: one NDJSON line per graph
+     * ({index, success, message, bpmnXml}), or a ZIP with one BPMN file per
+     * converted graph plus results.ndjson. Failed graphs do not fail the batch.
+     */
+    @PostMapping(value = "/convert-batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<?> convertBatch(HttpServletRequest request,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        boolean zip = "zip".equalsIgnoreCase(format);
+        if (!zip && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Unsupported batch format: " + format + " (expected ndjson or zip)"));
+        }
+        boolean ndjsonInput = request.getContentType() != null && request.getContentType().startsWith(NDJSON);
+
+        StreamingResponseBody body = out -> {
+            Iterator<BatchConverter.GraphSource> graphs = ndjsonInput
+                    ? BatchConverter.ndjson(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))
+                    : BatchConverter.jsonArray(request.getInputStream());
+            try {
+                int failed = zip ? writeZip(graphs, out) : writeNdjson(graphs, out);
+                logger.info("Batch conversion finished with {} failed graphs", failed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Batch conversion interrupted");
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(zip ? MediaType.parseMediaType("application/zip") : MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, zip ? "attachment; filename=\"converted.zip\"" : "inline")
+                .body(body);
+    }
+
+    private int writeNdjson(Iterator<BatchConverter.GraphSource> graphs, OutputStream out) throws InterruptedException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            return batchConverter.convert(graphs, ConverterTemplate.defaults(), item -> {
+                try {
+                    writeItem(gen, item, true);
+                    gen.writeRaw('\n');
+                    gen.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int writeZip(Iterator<BatchConverter.GraphSource> graphs, OutputStream out) throws InterruptedException {
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            ByteArrayOutputStream results = new ByteArrayOutputStream();
+            JsonGenerator gen = objectMapper.getFactory().createGenerator(results);
+            int failed = batchConverter.convert(graphs, ConverterTemplate.defaults(), item -> {
+                try {
+                    if (item.isSuccess()) {
+                        zip.putNextEntry(new ZipEntry("converted-" + item.getIndex() + ".bpmn20.xml"));
+                        zip.write(item.getBpmnXml());
+                        zip.closeEntry();
+                    }
+                    writeItem(gen, item, false);
+                    gen.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            gen.close();
+            zip.putNextEntry(new ZipEntry("results.ndjson"));
+            results.writeTo(zip);
+            zip.closeEntry();
+            return failed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeItem(JsonGenerator gen, BatchItemResult item, boolean withXml) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("index", item.getIndex());
+        gen.writeBooleanField("success", item.isSuccess());
+        gen.writeStringField("message", item.getMessage());
+        if (withXml && item.getBpmnXml() != null) {
+            gen.writeFieldName("bpmnXml");
+            gen.writeUTF8String(item.getBpmnXml(), 0, item.getBpmnXml().length);
+        }
+        gen.writeEndObject();
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        ConversionCacheStats stats = conversionCache.stats();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Conversion cache holds " + stats.getEntries() + " results",
+                "data", stats));
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> clearCache() {
+        conversionCache.clear();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Conversion cache cleared"));
+    }
+
+    /**
+     * Open an incremental conversion session
+     * POST /api/flowable/sessions
+     * Request body: UI graph JSON
+     *
+     * Later edits of the graph are sent to PATCH /sessions/{id} and only
+     * reconvert the nodes and edges they touch; the BPMN XML is read from
+     * GET /sessions/{id}/bpmn.
+     */
+    @PostMapping("/sessions")
+    public ResponseEntity<?> openSession(@RequestBody JsonNode uiJson) {
+        try {
+            String sessionId = conversionSessions.open(uiJson, ConverterTemplate.defaults());
+            return sessionResponse(sessionId, conversionSessions.get(sessionId).getVersion(),
+                    "Conversion session opened");
+        } catch (Exception e) {
+            logger.error("Error opening conversion session", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Apply graph edits to a session and return its new version
+     * PATCH /api/flowable/sessions/{sessionId}
+     * Request body: JSON array of edits, e.g.
+     * [{"op":"update","node":{...}}, {"op":"remove","edge":"e3"}]
+     *
+     * All edits are applied, or none when one of them is invalid (400).
+     */
+    @PatchMapping("/sessions/{sessionId}")
+    public ResponseEntity<?> editSession(@PathVariable String sessionId, @RequestBody JsonNode edits) {
+        ConversionSession session = conversionSessions.get(sessionId);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "Unknown or expired conversion session: " + sessionId));
+        }
+        try {
+            long version = session.apply(edits);
+            return sessionResponse(sessionId, version, "Applied " + edits.size() + " edit(s)");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error during incremental conversion", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * BPMN XML of a session's current graph, streamed
+     * GET /api/flowable/sessions/{sessionId}/bpmn
+     *
+     * The ETag is the session version the XML was written from.
+     */
+    @GetMapping("/sessions/{sessionId}/bpmn")
+    public ResponseEntity<?> getSessionBpmn(@PathVariable String sessionId, HttpServletResponse response)
+            throws Exception {
+        ConversionSession session = conversionSessions.get(sessionId);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "Unknown or expired conversion session: " + sessionId));
+        }
+        response.setContentType(MediaType.APPLICATION_XML_VALUE);
+        // the version header goes out before the XML, under the same session lock
+        session.write(response.getOutputStream(),
+                version -> response.setHeader(HttpHeaders.ETAG, "\"" + version + "\""));
+        return null;
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<?> closeSession(@PathVariable String sessionId) {
+        boolean closed = conversionSessions.close(sessionId);
+        return ResponseEntity.status(closed ? HttpStatus.OK : HttpStatus.NOT_FOUND).body(Map.of(
+                "success", closed,
+                "message", closed ? "Conversion session closed" : "Unknown conversion session: " + sessionId));
+    }
+
+    private static ResponseEntity<?> sessionResponse(String sessionId, long version, String message) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("sessionId", sessionId);
+        data.put("version", version);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", message,
+                "data", data));
+    }
 
     // Enrichment helper removed: DBX library produces enriched BPMN XML.
 }
@@ -0,0 +1,47 @@
+package com.iongroup.backend.controller;
+
+import com.iongroup.library.metrics.OperationMetrics;
+import com.iongroup.library.metrics.OperationMetricsSnapshot;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics/operations")
+public class MetricsController {
+
+    @GetMapping
+    public ResponseEntity<?> getOperationMetrics() {
+        List<OperationMetricsSnapshot> metrics = OperationMetrics.snapshot();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Metrics for " + metrics.size() + " operations",
+                "data", metrics));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getOperationMetrics(@PathVariable String id) {
+        OperationMetricsSnapshot metrics = OperationMetrics.snapshot(id);
+        if (metrics == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "success", false,
+                    "message", "No metrics recorded for operation: " + id));
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Metrics for operation " + id,
+                "data", metrics));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<?> resetOperationMetrics() {
+        OperationMetrics.reset();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Operation metrics reset"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.iongroup.backend.controller;
+
+import com.iongroup.backend.model.ProcessDeployment;
+import com.iongroup.backend.model.ProcessExecutionResult;
+import com.iongroup.backend.service.BpmnArtifactStore;
+import com.iongroup.backend.service.ProcessExecutionService;
+import com.iongroup.library.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converted processes deployed to the embedded engine, by the SHA-256 of
+ * their BPMN XML
+ */
+@RestController
+@RequestMapping("/api/flowable/processes")
+public class ProcessExecutionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessExecutionController.class);
+
+    private final ProcessExecutionService processExecution;
+    private final BpmnArtifactStore artifactStore;
+
+    public ProcessExecutionController(ProcessExecutionService processExecution, BpmnArtifactStore artifactStore) {
+        this.processExecution = processExecution;
+        this.artifactStore = artifactStore;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listDeployments() {
+        List<ProcessDeployment> deployments = processExecution.listDeployments();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", deployments.size() + " deployed processes",
+                "data", deployments));
+    }
+
+    /**
+     * Start an instance of a converted process
+     * POST /api/flowable/processes/{sha256}/instances
+     * Request body: process variables (optional)
+     *
+     * Processes not deployed yet are deployed from the stored artifact. A
+     * process naming an operation that is no longer registered gets 409,
+     * one rejected by an operation 400.
+     */
+    @PostMapping("/{sha256}/instances")
+    public ResponseEntity<?> startInstance(@PathVariable String sha256,
+            @RequestBody(required = false) Map<String, Object> variables) {
+        try {
+            ProcessDeployment deployment = processExecution.getDeployment(sha256);
+            if (deployment == null) {
+                ByteArrayOutputStream xml = new ByteArrayOutputStream();
+                if (!artifactStore.writeXml(sha256, xml)) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                            "success", false,
+                            "message", "Unknown BPMN artifact: " + sha256));
+                }
+                deployment = processExecution.deploy(sha256, xml.toByteArray());
+            }
+
+            ProcessExecutionResult result = processExecution.start(deployment,
+                    variables != null ? variables : Map.of());
+            logger.info("Started process instance {} of {}",
+                    result.getProcessInstanceId(), deployment.getProcessDefinitionId());
+            return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", result.isEnded() ? "Process instance completed" : "Process instance started",
+                    "data", result));
+
+        } catch (IOException | RuntimeException e) {
+            BusinessException error = ProcessExecutionService.operationError(e);
+            HttpStatus status = error != null ? status(error) : HttpStatus.INTERNAL_SERVER_ERROR;
+            if (status.is5xxServerError()) {
+                logger.error("Failed to start process {}", sha256, e);
+            } else {
+                logger.info("Rejected start of process {}: {}", sha256, error.getMessage());
+            }
+            return ResponseEntity.status(status).body(Map.of(
+                    "success", false,
+                    "message", "Process execution failed: " + (error != null ? error : e).getMessage()));
+        }
+    }
+
+    /**
+     * Status for an operation failure: unknown operations are the stored
+     * process's fault, rejections the caller's, and broken operations ours.
+     */
+    static HttpStatus status(BusinessException e) {
+        String code = e.getErrorCode();
+        if ("DISPATCHER_001".equals(code) || "DISPATCHER_002".equals(code)) {
+            // no delegationId, or no operation registered under it
+            return HttpStatus.CONFLICT;
+        }
+        if (code != null && code.startsWith("DISPATCHER_")) {
+            // delegate class missing or failing
+            return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return HttpStatus.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,61 @@
+package com.iongroup.backend.model;
+
+/**
+ * Index entry of a stored BPMN artifact, keyed by the SHA-256 of its XML.
+ * Times are epoch milliseconds.
+ */
+public class BpmnArtifact {
+    private final String sha256;
+    private final String processId;
+    private final long size;
+    private final long storedBytes;
+    private final long createdAt;
+    private volatile long lastUsedAt;
+
+    public BpmnArtifact(String sha256, String processId, long size, long storedBytes,
+                        long createdAt, long lastUsedAt) {
+        this.sha256 = sha256;
+        this.processId = processId;
+        this.size = size;
+        this.storedBytes = storedBytes;
+        this.createdAt = createdAt;
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Size of the BPMN XML.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Size of the compressed file on disk, {@code 0} until written.
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Last time the same BPMN was stored again; retention goes by this.
+     */
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(long lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
@@ -0,0 +1,94 @@
+package com.iongroup.backend.model;
+
+import com.iongroup.library.flow.ValidationError;
+
+import java.util.List;
+
+/**
+ * Snapshot of an asynchronous conversion job, as returned by the job
+ * endpoints and sent as Server-Sent Events. Times are epoch milliseconds,
+ * {@code 0} until reached.
+ */
+public class ConversionJobStatus {
+    private final String jobId;
+    private final String state;
+    private final String priority;
+    private final String message;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long submittedAt;
+    private final long startedAt;
+    private final long finishedAt;
+    private final int bpmnBytes;
+    private final List<ValidationError> validationErrors;
+
+    public ConversionJobStatus(String jobId, String state, String priority, String message,
+                               int nodeCount, int edgeCount, long submittedAt, long startedAt, long finishedAt,
+                               int bpmnBytes, List<ValidationError> validationErrors) {
+        this.jobId = jobId;
+        this.state = state;
+        this.priority = priority;
+        this.message = message;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.bpmnBytes = bpmnBytes;
+        this.validationErrors = validationErrors;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * QUEUED, VALIDATING, CONVERTING, SUCCEEDED or FAILED.
+     */
+    public String getState() {
+        return state;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Size of the converted BPMN XML, {@code 0} unless the job succeeded.
+     */
+    public int getBpmnBytes() {
+        return bpmnBytes;
+    }
+
+    public List<ValidationError> getValidationErrors() {
+        return validationErrors;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != 0;
+    }
+}
@@ -2,6 +2,8 @@ package com.iongroup.backend.model;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.iongroup.library.flow.ValidationError;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,6 +15,7 @@ public class FlowableConversionResponse {
     private String bpmnXml;
     private Map<String, Object> flowableJson;
     private Map<String, Object> executionResult;
+    private List<ValidationError> validationErrors;
 
     public FlowableConversionResponse() {}
 
@@ -66,4 +69,12 @@ public class FlowableConversionResponse {
     public void setExecutionResult(Map<String, Object> executionResult) {
         this.executionResult = executionResult;
     }
+
+    public List<ValidationError> getValidationErrors() {
+        return validationErrors;
+    }
+
+    public void setValidationErrors(List<ValidationError> validationErrors) {
+        this.validationErrors = validationErrors;
+    }
 }
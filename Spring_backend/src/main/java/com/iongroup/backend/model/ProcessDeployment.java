@@ -0,0 +1,51 @@
+package com.iongroup.backend.model;
+
+/**
+ * Flowable deployment of one distinct BPMN, keyed by the SHA-256 of its XML.
+ */
+public class ProcessDeployment {
+    private final String sha256;
+    private final String deploymentId;
+    private final String processDefinitionId;
+    private final String processDefinitionKey;
+    private final int version;
+    private final boolean newDeployment;
+
+    public ProcessDeployment(String sha256, String deploymentId, String processDefinitionId,
+                             String processDefinitionKey, int version, boolean newDeployment) {
+        this.sha256 = sha256;
+        this.deploymentId = deploymentId;
+        this.processDefinitionId = processDefinitionId;
+        this.processDefinitionKey = processDefinitionKey;
+        this.version = version;
+        this.newDeployment = newDeployment;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public String getDeploymentId() {
+        return deploymentId;
+    }
+
+    public String getProcessDefinitionId() {
+        return processDefinitionId;
+    }
+
+    public String getProcessDefinitionKey() {
+        return processDefinitionKey;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether this BPMN was deployed by the engine now, rather than found
+     * among earlier deployments.
+     */
+    public boolean isNewDeployment() {
+        return newDeployment;
+    }
+}
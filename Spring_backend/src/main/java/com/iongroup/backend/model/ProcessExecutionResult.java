@@ -0,0 +1,31 @@
+package com.iongroup.backend.model;
+
+/**
+ * Process instance started from a converted BPMN.
+ */
+public class ProcessExecutionResult {
+    private final String processInstanceId;
+    private final boolean ended;
+    private final ProcessDeployment deployment;
+
+    public ProcessExecutionResult(String processInstanceId, boolean ended, ProcessDeployment deployment) {
+        this.processInstanceId = processInstanceId;
+        this.ended = ended;
+        this.deployment = deployment;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    /**
+     * Whether the instance already completed, i.e. it has no wait states.
+     */
+    public boolean isEnded() {
+        return ended;
+    }
+
+    public ProcessDeployment getDeployment() {
+        return deployment;
+    }
+}
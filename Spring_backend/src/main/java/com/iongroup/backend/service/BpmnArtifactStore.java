@@ -0,0 +1,724 @@
+package com.iongroup.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iongroup.backend.model.BpmnArtifact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Converted BPMN, stored once per distinct XML.
+ *
+ * Artifacts are keyed by the SHA-256 of the BPMN XML and kept gzip-compressed
+ * under {@code <dir>/<first two hex digits>/<sha256>.bpmn20.xml.gz}. Storing
+ * only hashes the XML and queues it: a background writer writes queued
+ * artifacts in batches, each to a temporary file that is renamed once
+ * synced, and syncs the index and directories once per batch. Until then an
+ * artifact is served from memory. When the queue is full an artifact is not
+ * stored; the caller is never blocked on disk. XML that is streamed rather
+ * than held ({@link #tee(OutputStream)}) is compressed to a spool file on its
+ * way through, and the writer moves that file into place.
+ *
+ * The index ({@code index.ndjson}) is an append-only log of puts, touches
+ * and deletes. Storing an artifact again only updates its last use in
+ * memory; last uses are appended as touches at most once a minute, and the
+ * log is compacted to one entry per artifact once it holds several times
+ * that many, as well as on startup. Artifacts not stored again for longer
+ * than the maximum age are deleted, and least recently stored ones go first
+ * when the total size on disk exceeds the limit.
+ */
+@Service
+public class BpmnArtifactStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BpmnArtifactStore.class);
+
+    private static final String SUFFIX = ".bpmn20.xml.gz";
+    private static final String INDEX = "index.ndjson";
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final long AGE_CHECK_INTERVAL_MILLIS = 60_000;
+    private static final long TOUCH_INTERVAL_MILLIS = 60_000;
+    // compact once the log has this many entries per artifact (or per COMPACT_MIN_ENTRIES)
+    private static final int COMPACT_FACTOR = 4;
+    private static final int COMPACT_MIN_ENTRIES = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path dir;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final int batchSize;
+    private final BlockingQueue<Op> queue;
+    private final Map<String, BpmnArtifact> index = new ConcurrentHashMap<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // stored again since their last touch was logged
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // writer thread only, after startup
+    private FileChannel indexLog;
+    private long logEntries;
+    private long lastAgeCheck;
+    private long lastTouch;
+
+    public BpmnArtifactStore(
+            @Value("${dbx.artifacts.dir:backend_converted}") String dir,
+            @Value("${dbx.artifacts.max-bytes:1073741824}") long maxBytes,
+            @Value("${dbx.artifacts.max-age-ms:604800000}") long maxAgeMillis,
+            @Value("${dbx.artifacts.queue-capacity:256}") int queueCapacity,
+            @Value("${dbx.artifacts.batch-size:32}") int batchSize) {
+        this.dir = Path.of(dir);
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        try {
+            open();
+            logger.info("BPMN artifact store at {} holds {} artifacts ({} bytes)",
+                    this.dir.toAbsolutePath(), index.size(), totalBytes.get());
+        } catch (IOException e) {
+            logger.warn("BPMN artifact store disabled, cannot open {}: {}", this.dir.toAbsolutePath(), e.getMessage());
+            indexLog = null;
+        }
+
+        writer = new Thread(this::writeLoop, "bpmn-artifact-writer");
+        writer.setDaemon(true);
+        if (isEnabled()) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return indexLog != null;
+    }
+
+    /**
+     * Store {@code bpmnXml} unless the same XML is stored already. Returns
+     * at once; the file is written by the background writer.
+     *
+     * @return index entry of the artifact, {@code null} if the store is
+     *         disabled or its queue is full
+     */
+    public BpmnArtifact store(byte[] bpmnXml, String processId) {
+        if (!isEnabled() || !running) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        return add(new BpmnArtifact(sha256(bpmnXml), processId, bpmnXml.length, 0, now, now), bpmnXml, null);
+    }
+
+    /**
+     * Store XML that is streamed to {@code out} rather than held in memory:
+     * it is hashed and compressed to a temporary file on its way through, and
+     * {@link ArtifactOutput#commit(String)} then queues it like
+     * {@link #store(byte[], String)}. Closing the output without a commit
+     * discards it. When the store is disabled the XML is only passed on.
+     */
+    public ArtifactOutput tee(OutputStream out) {
+        Path spool = null;
+        if (isEnabled() && running) {
+            try {
+                spool = Files.createTempFile(dir, "spool-", ".tmp");
+            } catch (IOException e) {
+                logger.warn("Cannot spool BPMN artifact, not storing it: {}", e.getMessage());
+            }
+        }
+        return new ArtifactOutput(out, spool);
+    }
+
+    private BpmnArtifact add(BpmnArtifact artifact, byte[] xml, Path spool) {
+        String sha256 = artifact.getSha256();
+        long now = artifact.getLastUsedAt();
+
+        BpmnArtifact stored = index.get(sha256);
+        if (stored != null) {
+            discard(spool);
+            stored.setLastUsedAt(now);
+            // logged by the writer; a lost touch only makes the artifact expire earlier
+            touched.add(sha256);
+            return stored;
+        }
+
+        Pending p = new Pending(artifact, xml, spool);
+        Pending queued = pending.putIfAbsent(sha256, p);
+        if (queued != null) {
+            discard(spool);
+            queued.artifact.setLastUsedAt(now);
+            return queued.artifact;
+        }
+        if (!queue.offer(new Op(artifact, xml, spool))) {
+            pending.remove(sha256, p);
+            discard(spool);
+            logger.warn("BPMN artifact queue is full, not storing {}", sha256);
+            return null;
+        }
+        return artifact;
+    }
+
+    /**
+     * Artifact by SHA-256, or {@code null} if unknown.
+     */
+    public BpmnArtifact get(String sha256) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            return null;
+        }
+        BpmnArtifact artifact = index.get(sha256);
+        if (artifact != null) {
+            return artifact;
+        }
+        Pending p = pending.get(sha256);
+        return p != null ? p.artifact : null;
+    }
+
+    /**
+     * All artifacts, written or queued, newest first.
+     */
+    public List<BpmnArtifact> list() {
+        List<BpmnArtifact> artifacts = new ArrayList<>(index.values());
+        pending.values().forEach(p -> artifacts.add(p.artifact));
+        artifacts.sort(Comparator.comparingLong(BpmnArtifact::getCreatedAt).reversed());
+        return artifacts;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * The compressed file of a written artifact, or {@code null} if it is
+     * unknown or not written yet.
+     */
+    public Path compressedFile(String sha256) {
+        return get(sha256) != null && index.containsKey(sha256) ? file(sha256) : null;
+    }
+
+    /**
+     * Write the BPMN XML of an artifact to {@code out}.
+     *
+     * @return {@code false} if the artifact is unknown
+     */
+    public boolean writeXml(String sha256, OutputStream out) throws IOException {
+        if (get(sha256) == null) {
+            return false;
+        }
+        Pending p = pending.get(sha256);
+        if (p != null && p.xml != null) {
+            out.write(p.xml);
+            return true;
+        }
+        InputStream compressed;
+        try {
+            compressed = Files.newInputStream(p != null ? p.spool : file(sha256));
+        } catch (NoSuchFileException e) {
+            // the spool file was just moved into place
+            compressed = Files.newInputStream(file(sha256));
+        }
+        try (InputStream in = new GZIPInputStream(compressed)) {
+            in.transferTo(out);
+        }
+        return true;
+    }
+
+    /**
+     * Write what is queued, then stop the writer.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (indexLog != null) {
+            try {
+                indexLog.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close BPMN artifact index: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Writer
+    // ------------------------------------------------------------------------
+
+    private void writeLoop() {
+        List<Op> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            Op first;
+            try {
+                first = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                }
+                long now = System.currentTimeMillis();
+                enforceRetention(now);
+                maintainIndex(now, false);
+            } catch (IOException | RuntimeException e) {
+                // the writer keeps running; the batch's artifacts are stored again on their next request
+                logger.warn("Failed to write BPMN artifacts: {}", e.getMessage(), e);
+                for (Op op : batch) {
+                    pending.remove(op.artifact.getSha256());
+                    discard(op.spool);
+                }
+            }
+            batch.clear();
+        }
+        try {
+            maintainIndex(System.currentTimeMillis(), true);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write BPMN artifact index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compress each new artifact to a temporary file, then sync them all,
+     * rename them into place and sync their directories and the index.
+     */
+    private void writeBatch(List<Op> batch) throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        List<Op> written = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+
+        for (Op op : batch) {
+            String sha256 = op.artifact.getSha256();
+            if (index.containsKey(sha256)) {
+                pending.remove(sha256);
+                discard(op.spool);
+                continue;
+            }
+            if (op.spool != null) {
+                // compressed while it was streamed
+                Files.createDirectories(file(sha256).getParent());
+                sizes.add(op.artifact.getStoredBytes());
+                written.add(op);
+                continue;
+            }
+            Path tmp = tmpFile(sha256);
+            Files.createDirectories(tmp.getParent());
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                GZIPOutputStream gz = new GZIPOutputStream(Channels.newOutputStream(ch), 64 * 1024);
+                gz.write(op.xml);
+                gz.finish();
+                sizes.add(ch.size());
+            }
+            written.add(op);
+        }
+
+        Set<Path> dirs = new LinkedHashSet<>();
+        for (Op op : written) {
+            try (FileChannel ch = FileChannel.open(source(op), StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+        }
+        for (int i = 0; i < written.size(); i++) {
+            Op op = written.get(i);
+            String sha256 = op.artifact.getSha256();
+            Path file = file(sha256);
+            Files.move(source(op), file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            dirs.add(file.getParent());
+
+            BpmnArtifact a = op.artifact;
+            BpmnArtifact stored = new BpmnArtifact(sha256, a.getProcessId(), a.getSize(), sizes.get(i),
+                    a.getCreatedAt(), a.getLastUsedAt());
+            appendEntry(log, "put", stored);
+            index.put(sha256, stored);
+            totalBytes.addAndGet(stored.getStoredBytes());
+        }
+        if (!written.isEmpty()) {
+            dirs.add(dir);
+            dirs.forEach(BpmnArtifactStore::syncDirectory);
+        }
+        appendToIndex(log);
+        // served from disk from now on
+        written.forEach(op -> pending.remove(op.artifact.getSha256()));
+    }
+
+    private void enforceRetention(long now) throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        if (now - lastAgeCheck > AGE_CHECK_INTERVAL_MILLIS) {
+            lastAgeCheck = now;
+            for (BpmnArtifact a : new ArrayList<>(index.values())) {
+                if (now - a.getLastUsedAt() > maxAgeMillis) {
+                    delete(a, log);
+                }
+            }
+        }
+        if (totalBytes.get() > maxBytes) {
+            // request threads update lastUsedAt; sort a copy so the order cannot change mid-sort
+            List<Use> byUse = new ArrayList<>(index.size());
+            index.values().forEach(a -> byUse.add(new Use(a, a.getLastUsedAt())));
+            byUse.sort(Comparator.comparingLong(Use::lastUsedAt));
+            for (Use use : byUse) {
+                if (totalBytes.get() <= maxBytes) break;
+                delete(use.artifact, log);
+            }
+        }
+        appendToIndex(log);
+    }
+
+    /**
+     * Log the last use of artifacts stored again, once per interval or when
+     * {@code force}d, and compact the log once it has grown to several
+     * entries per artifact.
+     */
+    private void maintainIndex(long now, boolean force) throws IOException {
+        if (force || now - lastTouch > TOUCH_INTERVAL_MILLIS) {
+            lastTouch = now;
+            ByteArrayOutputStream log = new ByteArrayOutputStream();
+            for (Iterator<String> it = touched.iterator(); it.hasNext(); ) {
+                BpmnArtifact a = index.get(it.next());
+                it.remove();
+                if (a != null) appendEntry(log, "touch", a);
+            }
+            appendToIndex(log);
+        }
+        if (logEntries > (long) COMPACT_FACTOR * Math.max(index.size(), COMPACT_MIN_ENTRIES)) {
+            // the puts carry the current last uses
+            touched.clear();
+            indexLog.close();
+            Path log = dir.resolve(INDEX);
+            try {
+                compact(log);
+            } finally {
+                indexLog = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+        }
+    }
+
+    private void delete(BpmnArtifact a, ByteArrayOutputStream log) throws IOException {
+        if (index.remove(a.getSha256(), a)) {
+            Files.deleteIfExists(file(a.getSha256()));
+            totalBytes.addAndGet(-a.getStoredBytes());
+            appendEntry(log, "delete", a);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Index
+    // ------------------------------------------------------------------------
+
+    private void open() throws IOException {
+        Files.createDirectories(dir);
+        Path log = dir.resolve(INDEX);
+        if (Files.exists(log)) {
+            load(log);
+        }
+        // leftovers of writes interrupted by a crash, and artifacts whose put was never logged
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            files.filter(f -> isLeftover(f.getFileName().toString())).forEach(f -> {
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete {}: {}", f, e.getMessage());
+                }
+            });
+        }
+        compact(log);
+        indexLog = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private boolean isLeftover(String name) {
+        if (name.endsWith(".tmp")) {
+            return true;
+        }
+        return name.endsWith(SUFFIX) && !index.containsKey(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private void load(Path log) throws IOException {
+        for (String line : Files.readAllLines(log)) {
+            JsonNode entry;
+            try {
+                entry = objectMapper.readTree(line);
+            } catch (IOException e) {
+                // torn last line of a crash
+                continue;
+            }
+            if (entry == null || !entry.has("sha256")) continue;
+            String sha256 = entry.path("sha256").asText();
+            switch (entry.path("op").asText()) {
+                case "put" -> index.put(sha256, new BpmnArtifact(sha256,
+                        entry.hasNonNull("processId") ? entry.get("processId").asText() : null,
+                        entry.path("size").asLong(), entry.path("storedBytes").asLong(),
+                        entry.path("createdAt").asLong(), entry.path("lastUsedAt").asLong()));
+                case "touch" -> {
+                    BpmnArtifact a = index.get(sha256);
+                    if (a != null) a.setLastUsedAt(Math.max(a.getLastUsedAt(), entry.path("lastUsedAt").asLong()));
+                }
+                case "delete" -> index.remove(sha256);
+                default -> { }
+            }
+        }
+        index.values().removeIf(a -> !Files.exists(file(a.getSha256())));
+        index.values().forEach(a -> totalBytes.addAndGet(a.getStoredBytes()));
+    }
+
+    /**
+     * Rewrite the index log with one put per artifact.
+     */
+    private void compact(Path log) throws IOException {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (BpmnArtifact a : index.values()) {
+            appendEntry(entries, "put", a);
+        }
+        Path tmp = log.resolveSibling(INDEX + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(ch, entries.toByteArray());
+            ch.force(true);
+        }
+        Files.move(tmp, log, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(dir);
+        logEntries = index.size();
+    }
+
+    private void appendEntry(ByteArrayOutputStream log, String op, BpmnArtifact a) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(log)) {
+            gen.writeStartObject();
+            gen.writeStringField("op", op);
+            gen.writeStringField("sha256", a.getSha256());
+            if (!"delete".equals(op)) {
+                gen.writeStringField("processId", a.getProcessId());
+                gen.writeNumberField("size", a.getSize());
+                gen.writeNumberField("storedBytes", a.getStoredBytes());
+                gen.writeNumberField("createdAt", a.getCreatedAt());
+                gen.writeNumberField("lastUsedAt", a.getLastUsedAt());
+            }
+            gen.writeEndObject();
+        }
+        log.write('\n');
+    }
+
+    private void appendToIndex(ByteArrayOutputStream log) throws IOException {
+        if (log.size() == 0) return;
+        byte[] entries = log.toByteArray();
+        write(indexLog, entries);
+        indexLog.force(false);
+        for (byte b : entries) {
+            if (b == '\n') logEntries++;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private Path file(String sha256) {
+        return dir.resolve(sha256.substring(0, 2)).resolve(sha256 + SUFFIX);
+    }
+
+    private Path tmpFile(String sha256) {
+        return dir.resolve(sha256.substring(0, 2)).resolve(sha256 + SUFFIX + ".tmp");
+    }
+
+    /**
+     * The compressed file written for a new artifact.
+     */
+    private Path source(Op op) {
+        return op.spool != null ? op.spool : tmpFile(op.artifact.getSha256());
+    }
+
+    private static void discard(Path spool) {
+        if (spool == null) return;
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}: {}", spool, e.getMessage());
+        }
+    }
+
+    private static void write(FileChannel ch, byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    /**
+     * Make renames in {@code directory} durable; not supported everywhere.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel ch = FileChannel.open(directory, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            logger.debug("Cannot sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Artifact key of {@code bytes}: their SHA-256, hex-encoded.
+     */
+    public static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(newDigest().digest(bytes));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A new artifact, as {@code xml} or as the compressed {@code spool} file.
+     */
+    private record Op(BpmnArtifact artifact, byte[] xml, Path spool) {
+    }
+
+    /**
+     * An artifact with its last use when retention started.
+     */
+    private record Use(BpmnArtifact artifact, long lastUsedAt) {
+    }
+
+    private record Pending(BpmnArtifact artifact, byte[] xml, Path spool) {
+    }
+
+    /**
+     * Passes XML on to a stream and spools it for the store; see
+     * {@link #tee(OutputStream)}. The target stream is not closed.
+     */
+    public final class ArtifactOutput extends OutputStream {
+        private final OutputStream out;
+        private final Path spool;
+        private final FileChannel channel;
+        private final GZIPOutputStream gz;
+        private final MessageDigest digest;
+        private long size;
+        private boolean done;
+
+        private ArtifactOutput(OutputStream out, Path spool) {
+            this.out = out;
+            FileChannel ch = null;
+            GZIPOutputStream z = null;
+            if (spool != null) {
+                try {
+                    ch = FileChannel.open(spool, StandardOpenOption.WRITE);
+                    z = new GZIPOutputStream(Channels.newOutputStream(ch), 64 * 1024);
+                } catch (IOException e) {
+                    logger.warn("Cannot spool BPMN artifact, not storing it: {}", e.getMessage());
+                    closeQuietly(ch);
+                    discard(spool);
+                    ch = null;
+                    z = null;
+                }
+            }
+            this.channel = ch;
+            this.gz = z;
+            this.spool = z != null ? spool : null;
+            this.digest = z != null ? newDigest() : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (gz != null && !done) {
+                digest.update(b, off, len);
+                gz.write(b, off, len);
+            }
+            size += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * Queue what was written as an artifact.
+         *
+         * @return index entry of the artifact, {@code null} if it is not stored
+         */
+        public BpmnArtifact commit(String processId) throws IOException {
+            if (gz == null || done) {
+                return null;
+            }
+            done = true;
+            long storedBytes;
+            try {
+                gz.finish();
+                storedBytes = channel.size();
+            } finally {
+                channel.close();
+            }
+            if (!running) {
+                discard(spool);
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            return add(new BpmnArtifact(sha256, processId, size, storedBytes, now, now), null, spool);
+        }
+
+        /**
+         * Discard the spooled XML unless it was committed.
+         */
+        @Override
+        public void close() {
+            if (gz != null && !done) {
+                done = true;
+                closeQuietly(channel);
+                discard(spool);
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel ch) {
+        if (ch == null) return;
+        try {
+            ch.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close spool file: {}", e.getMessage());
+        }
+    }
+}
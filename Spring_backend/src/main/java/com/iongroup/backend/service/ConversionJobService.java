@@ -0,0 +1,415 @@
+package com.iongroup.backend.service;
+
+import com.iongroup.backend.model.ConversionJobStatus;
+import com.iongroup.library.flow.ConversionCache;
+import com.iongroup.library.flow.ConverterTemplate;
+import com.iongroup.library.flow.UiGraph;
+import com.iongroup.library.flow.UiGraphValidator;
+import com.iongroup.library.flow.UiJsonToBpmnConverter;
+import com.iongroup.library.flow.ValidationError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous UI JSON -> BPMN conversions, by job id.
+ *
+ * Jobs run on a fixed pool of workers, so request threads only read the
+ * graph and return. Waiting jobs are taken by priority, then in submission
+ * order. At most {@code queueCapacity} jobs wait; further submissions are
+ * rejected rather than queued. Callers {@link #reserve()} their place before
+ * reading a graph, so a full queue rejects requests without reading them.
+ * A job that waited longer than the queue timeout fails without running.
+ *
+ * Status events are delivered on their own threads, one listener at a time
+ * and in order, so a slow subscriber never holds up a worker.
+ *
+ * Finished jobs are kept for the retention time; when the limit is reached,
+ * submitting a job drops the oldest finished ones.
+ */
+@Service
+public class ConversionJobService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionJobService.class);
+
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    public enum State { QUEUED, VALIDATING, CONVERTING, SUCCEEDED, FAILED }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    // delivers status events; a listener that blocks only holds one of these threads
+    private final ExecutorService events = Executors.newCachedThreadPool(daemonThreads("conversion-job-events-"));
+    private final ConversionCache conversionCache;
+    private final boolean validationEnabled;
+    private final int queueCapacity;
+    private final long queueTimeoutMillis;
+    private final int maxFinishedJobs;
+    private final long retentionMillis;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ConversionJobService(ConversionCache conversionCache,
+            @Value("${dbx.conversion.validation.enabled:true}") boolean validationEnabled,
+            @Value("${dbx.conversion.jobs.workers:0}") int workers,
+            @Value("${dbx.conversion.jobs.queue-capacity:64}") int queueCapacity,
+            @Value("${dbx.conversion.jobs.queue-timeout-ms:120000}") long queueTimeoutMillis,
+            @Value("${dbx.conversion.jobs.max-finished:256}") int maxFinishedJobs,
+            @Value("${dbx.conversion.jobs.retention-ms:600000}") long retentionMillis) {
+        this.conversionCache = conversionCache;
+        this.validationEnabled = validationEnabled;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.maxFinishedJobs = maxFinishedJobs;
+        this.retentionMillis = retentionMillis;
+
+        // leave cores to the request threads by default
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), daemonThreads("conversion-job-"));
+    }
+
+    /**
+     * Hold a place in the queue for one job. The place is given back on
+     * {@link Reservation#close()} unless a job was submitted with it.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Reservation reserve() {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Conversion queue is full (" + queueCapacity + " jobs waiting)");
+        }
+        return new Reservation();
+    }
+
+    /**
+     * Queue the conversion of {@code graph}.
+     *
+     * @return status of the new job
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public ConversionJobStatus submit(UiGraph graph, ConverterTemplate template, Priority priority) {
+        try (Reservation reservation = reserve()) {
+            return reservation.submit(graph, template, priority);
+        }
+    }
+
+    /**
+     * Status of a job, or {@code null} if unknown or expired.
+     */
+    public ConversionJobStatus getStatus(String id) {
+        Job job = jobs.get(id);
+        return job != null ? job.status() : null;
+    }
+
+    /**
+     * BPMN XML of a succeeded job, or {@code null} if the job is unknown,
+     * expired or has not succeeded.
+     */
+    public byte[] getResult(String id) {
+        Job job = jobs.get(id);
+        return job != null && job.state == State.SUCCEEDED ? job.bpmnXml : null;
+    }
+
+    /**
+     * Call {@code listener} with the current status of a job and again on
+     * every state change, until the job finishes. Calls happen in order on
+     * an event thread, never on a worker; a listener that throws is dropped.
+     *
+     * @return {@code false} if the job is unknown or expired
+     */
+    public boolean subscribe(String id, Consumer<ConversionJobStatus> listener) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        Subscription subscription = new Subscription(job, listener);
+        // under the job's lock, so the listener sees states in order
+        synchronized (job) {
+            ConversionJobStatus current = job.status();
+            if (!current.isFinished()) {
+                job.listeners.add(subscription);
+            }
+            subscription.post(current);
+        }
+        return true;
+    }
+
+    public void unsubscribe(String id, Consumer<ConversionJobStatus> listener) {
+        Job job = jobs.get(id);
+        if (job != null) {
+            job.listeners.removeIf(subscription -> {
+                if (subscription.listener != listener) return false;
+                subscription.dropped = true;
+                return true;
+            });
+        }
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getWorkerCount() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        events.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------------
+
+    private void run(Job job) {
+        queued.decrementAndGet();
+        if (System.currentTimeMillis() - job.submittedAt > queueTimeoutMillis) {
+            job.fail("Job waited longer than " + queueTimeoutMillis + " ms in the queue", null);
+            return;
+        }
+        try {
+            if (validationEnabled) {
+                job.update(State.VALIDATING);
+                List<ValidationError> errors = UiGraphValidator.validate(job.graph, job.template);
+                if (!errors.isEmpty()) {
+                    job.fail("Graph validation failed with " + errors.size() + " error(s)", errors);
+                    return;
+                }
+            }
+            job.update(State.CONVERTING);
+            UiJsonToBpmnConverter.ConversionResult conv = conversionCache.convert(job.graph, job.template);
+            job.succeed(conv.bpmnXml);
+        } catch (Exception e) {
+            logger.error("Conversion job {} failed", job.id, e);
+            job.fail("Error: " + e.getMessage(), null);
+        }
+    }
+
+    private void evictFinished() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isExpired(now, retentionMillis));
+
+        int finished = 0;
+        Job oldest = null;
+        for (Job job : jobs.values()) {
+            if (job.finishedAt == 0) continue;
+            finished++;
+            if (oldest == null || job.finishedAt < oldest.finishedAt) oldest = job;
+        }
+        if (finished >= maxFinishedJobs && oldest != null) {
+            jobs.remove(oldest.id, oldest);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * A place in the queue, taken by at most one job.
+     */
+    public final class Reservation implements AutoCloseable {
+        private boolean held = true;
+
+        private Reservation() {
+        }
+
+        /**
+         * Queue the conversion of {@code graph} in the reserved place.
+         *
+         * @return status of the new job
+         */
+        public ConversionJobStatus submit(UiGraph graph, ConverterTemplate template, Priority priority) {
+            if (!held) {
+                throw new IllegalStateException("Reservation already used");
+            }
+            evictFinished();
+            Job job = new Job(UUID.randomUUID().toString(), graph, template, priority, sequence.incrementAndGet());
+            jobs.put(job.id, job);
+            try {
+                executor.execute(job);
+            } catch (RejectedExecutionException e) {
+                // shutting down; close() gives the place back
+                jobs.remove(job.id);
+                throw e;
+            }
+            held = false;
+            return job.status();
+        }
+
+        @Override
+        public void close() {
+            if (held) {
+                held = false;
+                queued.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A listener of one job with the statuses not yet passed to it. At most
+     * one event thread delivers them at a time.
+     */
+    private final class Subscription {
+        final Job job;
+        final Consumer<ConversionJobStatus> listener;
+        final Queue<ConversionJobStatus> statuses = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean delivering = new AtomicBoolean();
+        volatile boolean dropped;
+
+        Subscription(Job job, Consumer<ConversionJobStatus> listener) {
+            this.job = job;
+            this.listener = listener;
+        }
+
+        void post(ConversionJobStatus status) {
+            statuses.add(status);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!dropped && delivering.compareAndSet(false, true)) {
+                try {
+                    events.execute(this::deliver);
+                } catch (RejectedExecutionException e) {
+                    // shutting down
+                    dropped = true;
+                }
+            }
+        }
+
+        private void deliver() {
+            ConversionJobStatus status;
+            while (!dropped && (status = statuses.poll()) != null) {
+                try {
+                    listener.accept(status);
+                } catch (RuntimeException e) {
+                    logger.debug("Dropped listener of conversion job {}: {}", job.id, e.getMessage());
+                    dropped = true;
+                    job.listeners.remove(this);
+                }
+            }
+            delivering.set(false);
+            // posted after the last poll
+            if (!statuses.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * A queued or finished job; ordered for the executor's queue.
+     */
+    private final class Job implements Runnable, Comparable<Job> {
+        final String id;
+        final Priority priority;
+        final long seq;
+        final long submittedAt = System.currentTimeMillis();
+        final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+        final int nodeCount;
+        final int edgeCount;
+        final ConverterTemplate template;
+
+        // dropped once the job finishes
+        volatile UiGraph graph;
+
+        volatile State state = State.QUEUED;
+        volatile long startedAt;
+        volatile long finishedAt;
+        volatile String message = "Queued";
+        volatile List<ValidationError> validationErrors;
+        volatile byte[] bpmnXml;
+
+        Job(String id, UiGraph graph, ConverterTemplate template, Priority priority, long seq) {
+            this.id = id;
+            this.graph = graph;
+            this.template = template;
+            this.priority = priority;
+            this.seq = seq;
+            this.nodeCount = graph.getNodeCount();
+            this.edgeCount = graph.getEdgeCount();
+        }
+
+        @Override
+        public void run() {
+            startedAt = System.currentTimeMillis();
+            ConversionJobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(Job o) {
+            int byPriority = priority.compareTo(o.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, o.seq);
+        }
+
+        synchronized void update(State next) {
+            message = next == State.VALIDATING ? "Validating graph" : "Converting graph";
+            publish(next);
+        }
+
+        synchronized void succeed(byte[] xml) {
+            bpmnXml = xml;
+            message = "Successfully converted UI JSON to BPMN";
+            finish(State.SUCCEEDED);
+        }
+
+        synchronized void fail(String reason, List<ValidationError> errors) {
+            validationErrors = errors;
+            message = reason;
+            finish(State.FAILED);
+        }
+
+        private synchronized void finish(State last) {
+            graph = null;
+            finishedAt = System.currentTimeMillis();
+            publish(last);
+            listeners.clear();
+        }
+
+        private synchronized void publish(State next) {
+            state = next;
+            ConversionJobStatus status = status();
+            for (Subscription subscription : listeners) {
+                subscription.post(status);
+            }
+        }
+
+        boolean isExpired(long now, long retention) {
+            return finishedAt != 0 && now - finishedAt > retention;
+        }
+
+        ConversionJobStatus status() {
+            byte[] xml = bpmnXml;
+            return new ConversionJobStatus(id, state.name(), priority.name(), message,
+                    nodeCount, edgeCount, submittedAt, startedAt, finishedAt,
+                    xml != null ? xml.length : 0, validationErrors);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.iongroup.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.iongroup.library.flow.ConversionSession;
+import com.iongroup.library.flow.ConverterTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open incremental conversion sessions of the flow builder, by session id.
+ *
+ * Sessions idle for longer than the timeout are dropped; when the limit is
+ * reached, opening a session drops the least recently used one.
+ */
+@Service
+public class ConversionSessionService {
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+
+    public ConversionSessionService(
+            @Value("${dbx.conversion.session.max-sessions:256}") int maxSessions,
+            @Value("${dbx.conversion.session.idle-timeout-ms:1800000}") long idleTimeoutMillis) {
+        this.maxSessions = maxSessions;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Convert {@code uiJson} and keep it for edits.
+     *
+     * @return id of the new session
+     */
+    public String open(JsonNode uiJson, ConverterTemplate template) {
+        ConversionSession session = new ConversionSession(uiJson, template);
+        evictIdle();
+        while (sessions.size() >= maxSessions) {
+            if (!evictLeastRecentlyUsed()) break;
+        }
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, new Entry(session));
+        return id;
+    }
+
+    /**
+     * Session by id, or {@code null} if unknown or expired.
+     */
+    public ConversionSession get(String id) {
+        Entry entry = sessions.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isIdle(System.currentTimeMillis(), idleTimeoutMillis)) {
+            sessions.remove(id, entry);
+            return null;
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.session;
+    }
+
+    public boolean close(String id) {
+        return sessions.remove(id) != null;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        sessions.entrySet().removeIf(e -> e.getValue().isIdle(now, idleTimeoutMillis));
+    }
+
+    private boolean evictLeastRecentlyUsed() {
+        String oldest = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry> e : sessions.entrySet()) {
+            if (e.getValue().lastAccess < oldestAccess) {
+                oldestAccess = e.getValue().lastAccess;
+                oldest = e.getKey();
+            }
+        }
+        return oldest != null && sessions.remove(oldest) != null;
+    }
+
+    private static final class Entry {
+        final ConversionSession session;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Entry(ConversionSession session) {
+            this.session = session;
+        }
+
+        boolean isIdle(long now, long timeoutMillis) {
+            return now - lastAccess > timeoutMillis;
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package com.iongroup.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iongroup.backend.model.CachedPayload;
 import com.iongroup.library.registry.DelegationType;
 import com.iongroup.library.registry.OperationDescriptor;
 import com.iongroup.library.registry.RegistryConfiguration;
+import com.iongroup.library.registry.RegistrySnapshot;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Serves the operation registry. Response bodies are serialized once per
+ * registry snapshot and rebuilt only when the snapshot changes.
+ */
 @Service
 public class DelegationService {
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Payloads payloads;
+
     public List<OperationDescriptor> getAllDelegations() {
         return RegistryConfiguration.getAllOperations();
     }
@@ -19,10 +34,83 @@ public class DelegationService {
     }
 
     public int getDelegationCount() {
-        return RegistryConfiguration.getOperationCount();
+        return payloads().count;
     }
 
     public DelegationType[] getValidDelegationTypes() {
         return RegistryConfiguration.getValidDelegationTypes();
     }
+
+    /**
+     * Pre-serialized body of {@code GET /api/delegations/all}.
+     */
+    public CachedPayload getAllPayload() {
+        return payloads().all;
+    }
+
+    /**
+     * Pre-serialized body of {@code GET /api/delegations/type/{type}}.
+     */
+    public CachedPayload getTypePayload(DelegationType type) {
+        return payloads().byType.get(type);
+    }
+
+    /**
+     * Pre-serialized body of {@code GET /api/delegations/category/{category}},
+     * or {@code null} when no operation has this category.
+     */
+    public CachedPayload getCategoryPayload(String category) {
+        return payloads().byCategory.get(category);
+    }
+
+    private Payloads payloads() {
+        RegistrySnapshot snapshot = RegistryConfiguration.getSnapshot();
+        Payloads p = payloads;
+        if (p == null || p.snapshot != snapshot) {
+            synchronized (this) {
+                p = payloads;
+                if (p == null || p.snapshot != snapshot) {
+                    p = new Payloads(snapshot, objectMapper);
+                    payloads = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static Map<String, Object> envelope(String message, List<OperationDescriptor> data) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("message", message);
+        body.put("data", data);
+        return body;
+    }
+
+    /**
+     * All payloads derived from one registry snapshot.
+     */
+    private static final class Payloads {
+        final RegistrySnapshot snapshot;
+        final int count;
+        final CachedPayload all;
+        final Map<DelegationType, CachedPayload> byType = new EnumMap<>(DelegationType.class);
+        final Map<String, CachedPayload> byCategory = new HashMap<>();
+
+        Payloads(RegistrySnapshot snapshot, ObjectMapper objectMapper) {
+            this.snapshot = snapshot;
+            this.count = snapshot.size();
+            this.all = CachedPayload.of(objectMapper,
+                    envelope("Successfully retrieved all delegations", snapshot.getOperations()));
+            for (DelegationType type : DelegationType.values()) {
+                List<OperationDescriptor> ops = snapshot.getByType(type);
+                byType.put(type, CachedPayload.of(objectMapper, envelope(
+                        "Successfully retrieved " + ops.size() + " delegations of type " + type, ops)));
+            }
+            for (String category : snapshot.getCategories()) {
+                List<OperationDescriptor> ops = snapshot.getByCategory(category);
+                byCategory.put(category, CachedPayload.of(objectMapper, envelope(
+                        "Successfully retrieved " + ops.size() + " delegations of category " + category, ops)));
+            }
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package com.iongroup.backend.service;
+
+import com.iongroup.backend.model.ProcessDeployment;
+import com.iongroup.backend.model.ProcessExecutionResult;
+import com.iongroup.library.exception.BusinessException;
+import org.flowable.engine.ProcessEngine;
+import org.flowable.engine.RepositoryService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.repository.Deployment;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deploys converted BPMN to the embedded engine and starts instances of it.
+ *
+ * Each distinct BPMN is deployed once: deployments are named after the
+ * SHA-256 of the XML and made with duplicate filtering, so deploying the same
+ * XML again, also after a restart on a persistent database, returns the
+ * existing deployment. Known deployments are remembered by hash, so repeats
+ * skip the engine altogether. Instances are started by process definition
+ * id, since every converted process has the same key.
+ */
+@Service
+public class ProcessExecutionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessExecutionService.class);
+
+    private static final String DEPLOYMENT_PREFIX = "dbx-";
+
+    private final RepositoryService repositoryService;
+    private final RuntimeService runtimeService;
+    private final Map<String, ProcessDeployment> deployments = new ConcurrentHashMap<>();
+
+    public ProcessExecutionService(ProcessEngine processEngine) {
+        this.repositoryService = processEngine.getRepositoryService();
+        this.runtimeService = processEngine.getRuntimeService();
+    }
+
+    /**
+     * Same as {@link #deploy(String, byte[])}, hashing the XML first.
+     */
+    public ProcessDeployment deploy(byte[] bpmnXml) {
+        return deploy(BpmnArtifactStore.sha256(bpmnXml), bpmnXml);
+    }
+
+    /**
+     * Deploy {@code bpmnXml} unless the same XML was deployed before.
+     *
+     * @param sha256 SHA-256 of {@code bpmnXml}, hex-encoded
+     */
+    public ProcessDeployment deploy(String sha256, byte[] bpmnXml) {
+        ProcessDeployment known = getDeployment(sha256);
+        if (known != null) {
+            return known;
+        }
+        // not under a map lock: concurrent first deploys of the same XML may
+        // both reach the engine, and the first one remembered wins
+        Deployment deployment = repositoryService.createDeployment()
+                .name(DEPLOYMENT_PREFIX + sha256)
+                .key(sha256)
+                .addBytes(sha256 + ".bpmn20.xml", bpmnXml)
+                .enableDuplicateFiltering()
+                .deploy();
+        ProcessDeployment created = describe(sha256, deployment, deployment.isNew());
+        ProcessDeployment stored = deployments.putIfAbsent(sha256, created.isNewDeployment()
+                ? existing(created) : created);
+        if (stored != null) {
+            return stored;
+        }
+        if (created.isNewDeployment()) {
+            logger.info("Deployed BPMN {} as process definition {}", sha256, created.getProcessDefinitionId());
+        }
+        return created;
+    }
+
+    /**
+     * Deployment of a BPMN by the SHA-256 of its XML, or {@code null} if it
+     * was never deployed.
+     */
+    public ProcessDeployment getDeployment(String sha256) {
+        ProcessDeployment known = deployments.get(sha256);
+        if (known != null) {
+            return known;
+        }
+        // deployed before a restart
+        List<Deployment> earlier = repositoryService.createDeploymentQuery()
+                .deploymentName(DEPLOYMENT_PREFIX + sha256)
+                .orderByDeploymentTime().desc()
+                .listPage(0, 1);
+        if (earlier.isEmpty()) {
+            return null;
+        }
+        ProcessDeployment found = describe(sha256, earlier.get(0), false);
+        ProcessDeployment stored = deployments.putIfAbsent(sha256, found);
+        return stored != null ? stored : found;
+    }
+
+    public List<ProcessDeployment> listDeployments() {
+        return new ArrayList<>(deployments.values());
+    }
+
+    /**
+     * Start an instance of a deployed BPMN; it runs up to its first wait
+     * state on the calling thread.
+     */
+    public ProcessExecutionResult start(ProcessDeployment deployment, Map<String, Object> variables) {
+        ProcessInstance instance = runtimeService.startProcessInstanceById(
+                deployment.getProcessDefinitionId(), variables);
+        return new ProcessExecutionResult(instance.getId(), instance.isEnded(), deployment);
+    }
+
+    /**
+     * The {@link BusinessException} behind a failed deployment or start, or
+     * {@code null}. Deploying binds every service task to its operation, so
+     * a BPMN naming an operation that is not registered, e.g. one of a
+     * plugin removed since it was converted, fails with one; so do
+     * operations rejecting a start.
+     */
+    public static BusinessException operationError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof BusinessException) {
+                return (BusinessException) t;
+            }
+        }
+        return null;
+    }
+
+    private ProcessDeployment describe(String sha256, Deployment deployment, boolean newDeployment) {
+        List<ProcessDefinition> definitions = repositoryService.createProcessDefinitionQuery()
+                .deploymentId(deployment.getId())
+                .list();
+        if (definitions.isEmpty()) {
+            throw new IllegalStateException("Deployment " + deployment.getId() + " has no process definition");
+        }
+        ProcessDefinition definition = definitions.get(0);
+        return new ProcessDeployment(sha256, deployment.getId(), definition.getId(), definition.getKey(),
+                definition.getVersion(), newDeployment);
+    }
+
+    /**
+     * {@code deployment} as later callers see it: not new.
+     */
+    private static ProcessDeployment existing(ProcessDeployment deployment) {
+        return new ProcessDeployment(deployment.getSha256(), deployment.getDeploymentId(), deployment.getProcessDefinitionId(),
+                deployment.getProcessDefinitionKey(), deployment.getVersion(), false);
+    }
+}
@@ -0,0 +1,114 @@
+package com.iongroup.backend.service;
+
+import com.iongroup.backend.model.BpmnArtifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BpmnArtifactStoreTest {
+
+    private static final long WEEK = 604_800_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenServesStoredArtifacts() throws Exception {
+        byte[] xml = xml(1);
+        String sha;
+        try (BpmnArtifactStore store = open(1L << 30)) {
+            sha = store.store(xml, "P1").getSha256();
+        }
+
+        try (BpmnArtifactStore store = open(1L << 30)) {
+            BpmnArtifact artifact = store.get(sha);
+            assertNotNull(artifact);
+            assertEquals("P1", artifact.getProcessId());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(store.writeXml(sha, out));
+            assertArrayEquals(xml, out.toByteArray());
+        }
+    }
+
+    @Test
+    void openDeletesUnindexedFiles() throws Exception {
+        String kept;
+        try (BpmnArtifactStore store = open(1L << 30)) {
+            kept = store.store(xml(1), "P1").getSha256();
+        }
+        Path shard = Files.createDirectories(dir.resolve("ab"));
+        Path orphan = Files.write(shard.resolve("ab" + "0".repeat(62) + ".bpmn20.xml.gz"), new byte[10]);
+        Path partial = Files.write(shard.resolve("ab" + "1".repeat(62) + ".bpmn20.xml.gz.tmp"), new byte[10]);
+
+        try (BpmnArtifactStore store = open(1L << 30)) {
+            assertFalse(Files.exists(orphan));
+            assertFalse(Files.exists(partial));
+            assertNotNull(store.get(kept));
+            assertEquals(1, store.list().size());
+            assertEquals(Files.size(store.compressedFile(kept)), store.getTotalBytes());
+        }
+    }
+
+    @Test
+    void repeatedStoresDoNotGrowTheIndex() throws Exception {
+        try (BpmnArtifactStore store = open(1L << 30)) {
+            for (int i = 0; i < 50; i++) store.store(xml(i), "P" + i);
+            awaitWritten(store, 50);
+            long lines = indexLines();
+
+            for (int i = 0; i < 100_000; i++) store.store(xml(i % 50), "P");
+
+            assertEquals(lines, indexLines());
+        }
+    }
+
+    @Test
+    void sizeLimitEvictsAndReopenCompactsTheIndex() throws Exception {
+        long limit = 20_000;
+        try (BpmnArtifactStore store = open(limit)) {
+            for (int i = 0; i < 3_000; i++) {
+                store.store(xml(i), "P" + i);
+                if (i % 50 == 0) Thread.sleep(10);
+            }
+        }
+
+        try (BpmnArtifactStore store = open(limit)) {
+            assertTrue(store.getTotalBytes() <= limit, "total " + store.getTotalBytes());
+            assertFalse(store.list().isEmpty());
+            assertEquals(store.list().size(), indexLines());
+            assertNull(store.get(BpmnArtifactStore.sha256(xml(0))));
+        }
+    }
+
+    private BpmnArtifactStore open(long maxBytes) {
+        return new BpmnArtifactStore(dir.toString(), maxBytes, WEEK, 256, 32);
+    }
+
+    private long indexLines() throws Exception {
+        try (var lines = Files.lines(dir.resolve("index.ndjson"))) {
+            return lines.count();
+        }
+    }
+
+    private void awaitWritten(BpmnArtifactStore store, int artifacts) throws Exception {
+        Path index = dir.resolve("index.ndjson");
+        for (int i = 0; i < 500 && (!Files.exists(index) || indexLines() < artifacts); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] xml(int i) {
+        return ("<definitions id=\"d" + i + "\">" + "x".repeat(200) + "</definitions>").getBytes(StandardCharsets.UTF_8);
+    }
+}
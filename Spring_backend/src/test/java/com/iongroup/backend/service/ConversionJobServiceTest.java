@@ -0,0 +1,118 @@
+package com.iongroup.backend.service;
+
+import com.iongroup.backend.model.ConversionJobStatus;
+import com.iongroup.backend.service.ConversionJobService.Priority;
+import com.iongroup.backend.service.ConversionJobService.Reservation;
+import com.iongroup.library.flow.ConversionCache;
+import com.iongroup.library.flow.ConverterTemplate;
+import com.iongroup.library.flow.UiGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversionJobServiceTest {
+
+    private static final String GRAPH = "{\"nodes\":["
+            + "{\"id\":\"s\",\"data\":{\"nodeType\":\"start\",\"label\":\"Start\"}},"
+            + "{\"id\":\"u\",\"data\":{\"nodeType\":\"user\",\"label\":\"Review\"}},"
+            + "{\"id\":\"e\",\"data\":{\"nodeType\":\"end\",\"label\":\"End\"}}],\"edges\":["
+            + "{\"id\":\"f1\",\"source\":\"s\",\"target\":\"u\"},"
+            + "{\"id\":\"f2\",\"source\":\"u\",\"target\":\"e\"}]}";
+
+    private ConversionJobService service;
+
+    @AfterEach
+    void close() {
+        if (service != null) service.close();
+    }
+
+    @Test
+    void reservationsAreBoundedByQueueCapacity() {
+        service = service(2);
+        Reservation first = service.reserve();
+        Reservation second = service.reserve();
+
+        assertThrows(RejectedExecutionException.class, service::reserve);
+        assertEquals(2, service.getQueuedCount());
+
+        first.close();
+        first.close();
+        assertEquals(1, service.getQueuedCount());
+        service.reserve().close();
+        second.close();
+        assertEquals(0, service.getQueuedCount());
+    }
+
+    @Test
+    void failedParseGivesThePlaceBack() {
+        service = service(1);
+
+        assertThrows(Exception.class, () -> {
+            try (Reservation reservation = service.reserve()) {
+                reservation.submit(UiGraph.read("{\"nodes\":"), ConverterTemplate.defaults(), Priority.NORMAL);
+            }
+        });
+        assertEquals(0, service.getQueuedCount());
+        service.reserve().close();
+    }
+
+    @Test
+    void reservationTakesOneJob() throws Exception {
+        service = service(4);
+        ConversionJobStatus status;
+        try (Reservation reservation = service.reserve()) {
+            status = reservation.submit(UiGraph.read(GRAPH), ConverterTemplate.defaults(), Priority.NORMAL);
+            assertThrows(IllegalStateException.class,
+                    () -> reservation.submit(UiGraph.read(GRAPH), ConverterTemplate.defaults(), Priority.NORMAL));
+        }
+
+        awaitFinished(status.getJobId());
+        assertEquals(0, service.getQueuedCount());
+    }
+
+    @Test
+    void finishedJobsFreeTheirPlaces() throws Exception {
+        service = service(8);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            ids.add(service.submit(UiGraph.read(GRAPH), ConverterTemplate.defaults(), Priority.values()[i % 3]).getJobId());
+            awaitFinished(ids.get(i));
+        }
+
+        for (String id : ids) {
+            assertEquals(ConversionJobService.State.SUCCEEDED.name(), service.getStatus(id).getState());
+            assertNotNull(service.getResult(id));
+        }
+        assertEquals(0, service.getQueuedCount());
+    }
+
+    @Test
+    void submitAfterCloseGivesThePlaceBack() throws Exception {
+        service = service(1);
+        service.close();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> service.submit(UiGraph.read(GRAPH), ConverterTemplate.defaults(), Priority.NORMAL));
+        assertEquals(0, service.getQueuedCount());
+    }
+
+    private static ConversionJobService service(int queueCapacity) {
+        return new ConversionJobService(new ConversionCache(1 << 20), false, 2, queueCapacity, 120_000, 256, 600_000);
+    }
+
+    private void awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 1_000; i++) {
+            String state = service.getStatus(id).getState();
+            if (state.equals("SUCCEEDED") || state.equals("FAILED")) return;
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Job " + id + " did not finish");
+    }
+}